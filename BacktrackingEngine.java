@@ -0,0 +1,182 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Depth-first ScheduleEngine. Selects one course per priority purpose, then fills the schedule with non-priority
+ * courses in ordinal order, excluding each tried course from its later siblings. Schedules that are a subset of a
+ * schedule it already produced are rejected through a <a href="#{@link}">{@link ScheduleDominanceIndex}</a>.
+ * <p>
+ * Branches that cannot meet the credit bounds are pruned: a branch is skipped once its credits pass the maximum or once
+ * even its highest-credit completion would fall short of the minimum.
+ * <p>
+ * The index only sees schedules of the subtree being searched, and never sees schedules in pruned branches, so in a
+ * restricted or credit-bounded problem a schedule is instead rejected if any course in the catalog could still be
+ * added to it.
+ */
+public class BacktrackingEngine implements ScheduleEngine {
+    @Override
+    public Iterator<long[]> search(ScheduleProblem problem, SearchStatistics statistics) {
+        return new Search(problem, statistics);
+    }
+
+    private static class Search implements Iterator<long[]> {
+        private final ScheduleProblem problem;
+        private final int numPriorities;
+        private final int base;
+        //avail[d]: courses compatible with the first d selections; cand[d]: untried choices for selection d
+        private final long[][] avail;
+        private final long[][] cand;
+        private final int[] schedule;
+        private final int[] creditSum;
+        private final ScheduleDominanceIndex maxSchedules;
+        private final SearchStatistics statistics;
+        private int depth;
+        //The phase being timed: true while selecting priority courses
+        private boolean priorityPhase;
+        private long[] next;
+
+        private Search(ScheduleProblem problem, SearchStatistics statistics) {
+            this.problem = problem;
+            this.statistics = statistics;
+            numPriorities = problem.priorityMasks.length;
+            base = problem.prefixSize;
+            avail = new long[problem.maxCourses + 1][problem.words];
+            cand = new long[problem.maxCourses][problem.words];
+            schedule = new int[problem.maxCourses];
+            creditSum = new int[problem.maxCourses + 1];
+            maxSchedules = new ScheduleDominanceIndex();
+
+            int i = 0;
+            for (int c = ConflictMatrix.nextSetBit(problem.prefix, 0); c != -1; c = ConflictMatrix.nextSetBit(problem.prefix, c + 1)) {
+                schedule[i++] = c;
+            }
+            creditSum[base] = problem.creditsOf(problem.prefix);
+            System.arraycopy(problem.candidates, 0, avail[base], 0, problem.words);
+            if (base == problem.maxCourses || (base > 0 && ConflictMatrix.isEmpty(avail[base]))) {
+                //The prefix is the only schedule of this subtree
+                depth = base - 1;
+                boolean capped = base == problem.maxCourses;
+                next = (capped || base >= problem.minCourses) ? addIfMaximal(base, capped) : null;
+                return;
+            }
+            if (numPriorities > 0) {
+                ConflictMatrix.and(avail[0], problem.priorityMasks[0], cand[0]);
+            } else {
+                System.arraycopy(avail[base], 0, cand[base], 0, problem.words);
+            }
+            depth = base;
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public long[] next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            long[] current = next;
+            statistics.emitted++;
+            next = advance();
+            return current;
+        }
+
+        /**
+         * Resumes the search where it last stopped.
+         * @return the next schedule, or null if the search is exhausted
+         */
+        private long[] advance() {
+            priorityPhase = depth < numPriorities;
+            statistics.enterPhase(priorityPhase);
+            while (depth >= base) {
+                if (statistics.shouldStop()) {
+                    //End the search, keeping the schedules already produced
+                    depth = base - 1;
+                    break;
+                }
+                if ((depth < numPriorities) != priorityPhase) {
+                    priorityPhase = !priorityPhase;
+                    statistics.enterPhase(priorityPhase);
+                }
+                //Backtrack if out of choices or if the non-priority choices left cannot reach minCourses
+                int course = ConflictMatrix.nextSetBit(cand[depth], 0);
+                if (course == -1 || (depth >= numPriorities
+                        && depth + ConflictMatrix.cardinality(cand[depth]) < problem.minCourses)) {
+                    depth--;
+                    statistics.backtracks++;
+                    continue;
+                }
+                ConflictMatrix.clear(cand[depth], course);
+                schedule[depth] = course;
+                int size = depth + 1;
+                statistics.nodes++;
+
+                //Priority choices exclude only conflicts; non-priority choices also exclude tried siblings
+                long[] source = (depth < numPriorities) ? avail[depth] : cand[depth];
+                ConflictMatrix.andNot(source, problem.rows[course], avail[size]);
+                statistics.conflictChecks++;
+                creditSum[size] = creditSum[depth] + problem.credits[course];
+                if (problem.creditBounded && !problem.canReachCredits(creditSum[size], size, avail[size])) {
+                    continue;
+                }
+
+                long[] found = null;
+                if (size == problem.maxCourses) {
+                    found = addIfMaximal(size, true);
+                } else if (size < numPriorities) {
+                    ConflictMatrix.and(avail[size], problem.priorityMasks[size], cand[size]);
+                    depth++;
+                } else if (ConflictMatrix.isEmpty(avail[size])) {
+                    if (size >= problem.minCourses) {
+                        found = addIfMaximal(size, false);
+                    }
+                } else {
+                    System.arraycopy(avail[size], 0, cand[size], 0, problem.words);
+                    depth++;
+                }
+                if (found != null) {
+                    statistics.pause();
+                    return found;
+                }
+            }
+            statistics.pause();
+            return null;
+        }
+
+        /**
+         * Records the selected courses unless they are a subset of a schedule already produced.
+         * @param size the number of selected courses
+         * @param capped true if the schedule has reached maxCourses and needs no maximality check
+         * @return the schedule as a bitset, or null if it was rejected
+         */
+        private long[] addIfMaximal(int size, boolean capped) {
+            if (problem.creditBounded && !problem.creditsInRange(creditSum[size])) {
+                return null;
+            }
+            long[] bits = new long[problem.words];
+            for (int i = 0; i < size; i++) {
+                ConflictMatrix.set(bits, schedule[i]);
+            }
+            if (problem.restricted || problem.creditBounded) {
+                if (capped) {
+                    return bits;
+                }
+                statistics.conflictChecks += size;
+                if (!problem.isMaximal(bits)) {
+                    statistics.subsetRejections++;
+                    return null;
+                }
+                return bits;
+            }
+            if (!capped && maxSchedules.containsSuperset(bits)) {
+                statistics.subsetRejections++;
+                return null;
+            }
+            maxSchedules.add(bits);
+            return bits;
+        }
+    }
+}
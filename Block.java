@@ -3,7 +3,9 @@
  * Fridays. Can have classes at varying times (<a href="#{@link}">{@link BlockImpl}</a>) or have most classes start and
  * end at uniform intervals (<a href="#{@link}">{@link RegularBlockImpl}</a>).
  * <p>
- * Limitations: Has no way to deal with overlap between Blocks, such as a MWF block and a Monday-only block.
+ * Int representations of different Blocks never overlap, even when their days do, such as a MWF block and a
+ * Monday-only block. Such overlaps are detected through <a href="#{@link}">{@link WeeklySlots}</a>, using the days named
+ * by each block.
  */
 public interface Block {
     /**
@@ -27,6 +29,18 @@ public interface Block {
      */
     int getMaxInt();
 
+    /**
+     * @return the bitmask of the days named by the block, bit 0 for Monday; 0 if the name does not name days
+     */
+    int getDays();
+
+    /**
+     * Inverse of timeToFloat, for times in range.
+     * @param time the int representation of a time in this block
+     * @return the time in minutes since midnight
+     */
+    int toMinuteOfDay(float time);
+
     /**
      * For saving initializing data to a file
      * @return list of variables
@@ -54,6 +68,12 @@ public interface Block {
      */
     float timeToFloat(String time);
 
+    /**
+     * @param minuteOfDay minutes since midnight, from 0 to 1439
+     * @return -1.0 if the time is invalid; float representation of time otherwise
+     */
+    float timeToFloat(int minuteOfDay);
+
     /**
      * @param timeNum in military time, i.e. 17:35 instead of 5:35 PM
      * @return null if timeNum is out of range; otherwise, the requested time
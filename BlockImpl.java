@@ -4,10 +4,17 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 
 public class BlockImpl implements Block {
+    //Last field of an irregular block's line in a timeframe file, marking blocks whose ints count hours; older lines,
+    //without it, counted tenths of an hour
+    public static final String UNIT = "hours";
+
     private final String name;
     private final LocalTime startTime;
     private final int numIntervals;
     private final int minInt;
+    //Compiled on construction: the float of every minute of the day, and the time of every whole hour in range
+    private final MinuteTable minuteTable;
+    private final String[] hourTimes;
 
     public BlockImpl(String name, String startTime, String endTime, int minInt) {
         this.name = name;
@@ -17,13 +24,23 @@ public class BlockImpl implements Block {
             throw new IllegalArgumentException();
         }
         this.minInt = minInt;
+        minuteTable = new MinuteTable(this::timeToFloat);
+        hourTimes = new String[numIntervals + 1];
+        for (int i = 0; i <= numIntervals; i++) {
+            hourTimes[i] = timeToString(this.startTime.plus(Duration.of(i, ChronoUnit.HOURS)));
+        }
     }
 
     /**
-     * @param elements contains name, startTime, and endTime
+     * @param elements contains name, startTime, endTime, and UNIT
+     * @throws IllegalArgumentException if elements does not end with UNIT, as in timeframes saved before ints counted
+     * hours, whose ints in course files would be read as ten times later
      */
     public BlockImpl(String[] elements, int minInt) {
         this(elements[0], elements[1], elements[2], minInt);
+        if (elements.length != 4 || !elements[3].equals(UNIT)) {
+            throw new IllegalArgumentException();
+        }
     }
 
     /**
@@ -47,7 +64,7 @@ public class BlockImpl implements Block {
 
     @Override
     public String getDayEndTime() {
-        return timeToString(startTime.plus(Duration.of(numIntervals, ChronoUnit.HOURS)));
+        return hourTimes[numIntervals];
     }
 
     @Override
@@ -55,8 +72,18 @@ public class BlockImpl implements Block {
         return minInt + numIntervals;
     }
 
+    @Override
+    public int getDays() {
+        return WeeklySlots.days(name);
+    }
+
+    @Override
+    public int toMinuteOfDay(float time) {
+        return startTime.toSecondOfDay() / 60 + Math.round((time - minInt) * 60);
+    }
+
     public String[] getInitData() {
-        return new String[]{name, getDayStartTime(), getDayEndTime()};
+        return new String[]{name, getDayStartTime(), getDayEndTime(), UNIT};
     }
 
     @Override
@@ -76,12 +103,22 @@ public class BlockImpl implements Block {
 
     @Override
     public float timeToFloat(String time) {
-        float afterStart = (float) (Duration.between(startTime, LocalTime.parse(time)).getSeconds() / 360.0);
+        int minute = MinuteTable.minuteOfDay(time);
+        return (minute != -1) ? minuteTable.get(minute) : timeToFloat(LocalTime.parse(time));
+    }
+
+    @Override
+    public float timeToFloat(int minuteOfDay) {
+        return minuteTable.get(minuteOfDay);
+    }
+
+    private float timeToFloat(LocalTime time) {
+        float afterStart = (float) (Duration.between(startTime, time).getSeconds() / 3600.0);
         return (afterStart >= 0 && afterStart <= numIntervals) ? minInt+afterStart : -1;
     }
 
     @Override
     public String floatToTime(float time) {
-        return (time >= 0 && time <= numIntervals) ? timeToString(startTime.plus(Duration.of((long) time - minInt, ChronoUnit.HOURS))) : null;
+        return (time >= minInt && time <= getMaxInt()) ? hourTimes[(int) time - minInt] : null;
     }
 }
@@ -0,0 +1,75 @@
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A BoundedScheduleIterator finds schedules one at a time like
+ * <a href="#{@link}">{@link CourseList#scheduleIterator(int, int) scheduleIterator}</a>, but ends early once its
+ * <a href="#{@link}">{@link SearchLimits}</a> are reached; see
+ * <a href="#{@link}">{@link CourseList#scheduleIterator(int, int, SearchLimits) scheduleIterator}</a>. Once hasNext()
+ * returns false, getStopReason() tells whether every schedule was returned.
+ * <p>
+ * Not thread-safe: only the thread iterating may call its methods, though any thread may cancel its token.
+ */
+public class BoundedScheduleIterator implements Iterator<List<String>> {
+    private final Iterator<List<String>> schedules;
+    private final SearchStatistics statistics;
+    //Set by the stop condition, on the iterating thread
+    private final AtomicReference<ScheduleResult.StopReason> stopReason;
+    private final int maxResults;
+    private int returned;
+    private boolean capped;
+
+    /**
+     * @param schedules the schedules of a search counting into statistics
+     * @param statistics the search's statistics, carrying its stop condition
+     * @param stopReason the reason the stop condition last held, or null while it has not
+     * @param maxResults the maximum number of schedules to return
+     */
+    BoundedScheduleIterator(Iterator<List<String>> schedules, SearchStatistics statistics,
+                            AtomicReference<ScheduleResult.StopReason> stopReason, int maxResults) {
+        this.schedules = schedules;
+        this.statistics = statistics;
+        this.stopReason = stopReason;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (returned < maxResults) {
+            return schedules.hasNext();
+        }
+        //One schedule past the cap shows that the result is incomplete
+        capped = capped || schedules.hasNext();
+        return false;
+    }
+
+    @Override
+    public List<String> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        returned++;
+        return schedules.next();
+    }
+
+    /**
+     * @return why the search stopped early, or null if it has not, in which case hasNext() returning false means every
+     * schedule was returned
+     */
+    public ScheduleResult.StopReason getStopReason() {
+        if (statistics.isStopped()) {
+            //Only an interrupt stops without a reason
+            return (stopReason.get() != null) ? stopReason.get() : ScheduleResult.StopReason.CANCELLED;
+        }
+        return capped ? ScheduleResult.StopReason.RESULT_CAP : null;
+    }
+
+    /**
+     * @return the statistics of the search so far
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+}
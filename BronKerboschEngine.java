@@ -0,0 +1,294 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * ScheduleEngine based on Bron-Kerbosch with Tomita pivoting. Schedules are independent sets of the conflict graph,
+ * i.e. cliques of its complement, so the search enumerates maximal cliques of the complement after one course per
+ * priority purpose has been selected. Branching only on courses that conflict with the pivot skips every branch that
+ * cannot lead to a new maximal schedule.
+ * <p>
+ * Every schedule of maxCourses courses is produced, maximal or not, so pivoting is only used in frames whose clique and
+ * candidates together hold fewer than maxCourses courses. Larger frames branch on every candidate, which reaches each
+ * set of compatible courses exactly once, and a branch that reaches maxCourses courses is produced and not expanded.
+ * In a restricted problem, maximality is among the candidates, and schedules with fewer than maxCourses courses are
+ * additionally checked against the whole catalog.
+ * <p>
+ * Credit bounds are checked on every schedule produced; subtrees are pruned when even their highest-credit schedule
+ * would fall short of the minimum or when their clique alone exceeds the maximum.
+ */
+public class BronKerboschEngine implements ScheduleEngine {
+    @Override
+    public Iterator<long[]> search(ScheduleProblem problem, SearchStatistics statistics) {
+        return new Search(problem, statistics);
+    }
+
+    private static class Search implements Iterator<long[]> {
+        private final ScheduleProblem problem;
+        private final int numPriorities;
+        private final int baseSize;
+        //Priority phase: prioAvail[d] is compatible with the first d picks; prioCand[d] holds untried picks
+        private final long[][] prioAvail;
+        private final long[][] prioCand;
+        private final int[] picks;
+        private int prioDepth;
+        //Bron-Kerbosch phase: current clique, candidates, excluded courses and untried branches per frame
+        private final long[][] r;
+        private final long[][] p;
+        private final long[][] x;
+        private final long[][] branches;
+        private final int[] rSize;
+        private int bkDepth;
+        private final SearchStatistics statistics;
+        //The phase being timed: true while selecting priority courses
+        private boolean priorityPhase;
+        private long[] next;
+
+        private Search(ScheduleProblem problem, SearchStatistics statistics) {
+            this.problem = problem;
+            this.statistics = statistics;
+            numPriorities = problem.priorityMasks.length;
+            prioAvail = new long[numPriorities + 1][problem.words];
+            prioCand = new long[numPriorities][problem.words];
+            picks = new int[numPriorities];
+            baseSize = problem.prefixSize + numPriorities;
+            int frames = problem.courseCount + 1;
+            r = new long[frames][problem.words];
+            p = new long[frames][problem.words];
+            x = new long[frames][problem.words];
+            branches = new long[frames][problem.words];
+            rSize = new int[frames];
+            bkDepth = -1;
+
+            System.arraycopy(problem.candidates, 0, prioAvail[0], 0, problem.words);
+            if (numPriorities > 0) {
+                ConflictMatrix.and(prioAvail[0], problem.priorityMasks[0], prioCand[0]);
+                prioDepth = 0;
+                next = advance();
+            } else {
+                prioDepth = -1;
+                next = startRoot();
+                if (next == null) {
+                    next = advance();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public long[] next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            long[] current = next;
+            statistics.emitted++;
+            next = advance();
+            return current;
+        }
+
+        /**
+         * Resumes the search where it last stopped.
+         * @return the next schedule, or null if the search is exhausted
+         */
+        private long[] advance() {
+            priorityPhase = bkDepth < 0;
+            statistics.enterPhase(priorityPhase);
+            long[] found = null;
+            while (found == null) {
+                if (statistics.shouldStop()) {
+                    //End the search, keeping the schedules already produced
+                    bkDepth = -1;
+                    prioDepth = -1;
+                    break;
+                }
+                if ((bkDepth < 0) != priorityPhase) {
+                    priorityPhase = !priorityPhase;
+                    statistics.enterPhase(priorityPhase);
+                }
+                if (bkDepth >= 0) {
+                    found = expand();
+                } else if (prioDepth >= 0) {
+                    found = selectPriority();
+                } else {
+                    break;
+                }
+            }
+            statistics.pause();
+            return found;
+        }
+
+        /**
+         * Tries the next pick of the current priority purpose, starting the Bron-Kerbosch phase once every priority
+         * purpose has a pick.
+         * @return a schedule made only of priority courses, if one was found
+         */
+        private long[] selectPriority() {
+            int course = ConflictMatrix.nextSetBit(prioCand[prioDepth], 0);
+            if (course == -1) {
+                prioDepth--;
+                statistics.backtracks++;
+                return null;
+            }
+            ConflictMatrix.clear(prioCand[prioDepth], course);
+            picks[prioDepth] = course;
+            int size = prioDepth + 1;
+            statistics.nodes++;
+            ConflictMatrix.andNot(prioAvail[prioDepth], problem.rows[course], prioAvail[size]);
+            statistics.conflictChecks++;
+            if (size < numPriorities) {
+                ConflictMatrix.and(prioAvail[size], problem.priorityMasks[size], prioCand[size]);
+                prioDepth++;
+                return null;
+            }
+            return startRoot();
+        }
+
+        /**
+         * Pushes the root Bron-Kerbosch frame for the prefix and current priority picks. Every course outside the
+         * candidates conflicts with the base or lies outside a restricted problem's subtree, so the root starts with no
+         * excluded courses.
+         * @return the base, if it already forms a schedule
+         */
+        private long[] startRoot() {
+            if (baseSize == problem.maxCourses) {
+                return inCreditRange(baseBits()) ? baseBits() : null;
+            }
+            long[] candidates = prioAvail[numPriorities];
+            if (ConflictMatrix.isEmpty(candidates)) {
+                return reportMaximal(baseBits(), baseSize);
+            }
+            if (baseSize + ConflictMatrix.cardinality(candidates) >= problem.minCourses
+                    && canReachCredits(baseBits(), baseSize, candidates)) {
+                long[] emptyX = new long[problem.words];
+                push(0, baseBits(), baseSize, candidates, emptyX);
+            }
+            return null;
+        }
+
+        /**
+         * Branches on the next untried course of the top frame.
+         * @return a maximal schedule, if the branch completed one
+         */
+        private long[] expand() {
+            int k = bkDepth;
+            int course = ConflictMatrix.nextSetBit(branches[k], 0);
+            if (course == -1) {
+                bkDepth--;
+                statistics.backtracks++;
+                return null;
+            }
+            ConflictMatrix.clear(branches[k], course);
+            statistics.nodes++;
+            long[] row = problem.rows[course];
+            long[] childP = new long[problem.words];
+            long[] childX = new long[problem.words];
+            ConflictMatrix.andNot(p[k], row, childP);
+            ConflictMatrix.andNot(x[k], row, childX);
+            statistics.conflictChecks += 2;
+            ConflictMatrix.clear(p[k], course);
+            ConflictMatrix.set(x[k], course);
+
+            long[] childR = r[k].clone();
+            ConflictMatrix.set(childR, course);
+            int childSize = rSize[k] + 1;
+            if (childSize == problem.maxCourses) {
+                //Produced whether or not a candidate or an excluded course could still be added
+                return reportMaximal(childR, childSize);
+            }
+            if (ConflictMatrix.isEmpty(childP)) {
+                return ConflictMatrix.isEmpty(childX) ? reportMaximal(childR, childSize) : null;
+            }
+            if (childSize + ConflictMatrix.cardinality(childP) >= problem.minCourses
+                    && canReachCredits(childR, childSize, childP)) {
+                push(k + 1, childR, childSize, childP, childX);
+            }
+            return null;
+        }
+
+        /**
+         * Pushes a frame and, if no branch of it can reach maxCourses courses, picks its pivot: the course in P or X
+         * compatible with the most candidates.
+         */
+        private void push(int k, long[] clique, int size, long[] candidates, long[] excluded) {
+            System.arraycopy(clique, 0, r[k], 0, problem.words);
+            System.arraycopy(candidates, 0, p[k], 0, problem.words);
+            System.arraycopy(excluded, 0, x[k], 0, problem.words);
+            rSize[k] = size;
+            bkDepth = k;
+            if (size + ConflictMatrix.cardinality(candidates) >= problem.maxCourses) {
+                //A pivot would skip schedules of maxCourses courses that are not maximal
+                System.arraycopy(candidates, 0, branches[k], 0, problem.words);
+                return;
+            }
+
+            int pivot = -1;
+            int best = -1;
+            for (long[] set : new long[][]{candidates, excluded}) {
+                for (int u = ConflictMatrix.nextSetBit(set, 0); u != -1; u = ConflictMatrix.nextSetBit(set, u + 1)) {
+                    int compatible = 0;
+                    long[] row = problem.rows[u];
+                    statistics.conflictChecks++;
+                    for (int w = 0; w < problem.words; w++) {
+                        compatible += Long.bitCount(candidates[w] & ~row[w]);
+                    }
+                    if (compatible > best) {
+                        best = compatible;
+                        pivot = u;
+                    }
+                }
+            }
+            //Only candidates that conflict with the pivot (including the pivot itself) need their own branch
+            ConflictMatrix.and(candidates, problem.rows[pivot], branches[k]);
+        }
+
+        /**
+         * @param schedule a schedule maximal among the candidates, or one of maxCourses courses
+         * @param size the number of courses in schedule
+         * @return schedule if it fits the size bounds and has maxCourses courses or is maximal in the whole catalog; null
+         * otherwise
+         */
+        private long[] reportMaximal(long[] schedule, int size) {
+            if (size == 0 || size < problem.minCourses) {
+                return null;
+            }
+            boolean capped = size == problem.maxCourses;
+            boolean maximal = true;
+            if (!capped && problem.restricted) {
+                statistics.conflictChecks += size;
+                maximal = problem.isMaximal(schedule);
+                if (!maximal) {
+                    statistics.subsetRejections++;
+                }
+            }
+            return (maximal && inCreditRange(schedule)) ? schedule : null;
+        }
+
+        private boolean inCreditRange(long[] schedule) {
+            return !problem.creditBounded || problem.creditsInRange(problem.creditsOf(schedule));
+        }
+
+        /**
+         * @param clique the clique of the subtree's frame, which every schedule of the subtree contains
+         * @param size the number of courses in clique
+         * @param candidates the candidates of the subtree's frame
+         * @return false if no schedule of the subtree can be within the credit bounds; true otherwise
+         */
+        private boolean canReachCredits(long[] clique, int size, long[] candidates) {
+            return !problem.creditBounded || problem.canReachCredits(problem.creditsOf(clique), size, candidates);
+        }
+
+        /**
+         * @return a bitset of the prefix and the current priority picks
+         */
+        private long[] baseBits() {
+            long[] bits = problem.prefix.clone();
+            for (int pick : picks) {
+                ConflictMatrix.set(bits, pick);
+            }
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.function.BooleanSupplier;
+
+/**
+ * A CancellationToken lets another thread stop a bounded schedule search; see
+ * <a href="#{@link}">{@link SearchLimits}</a>. Once cancelled, a token stays cancelled, so a new token is needed for each
+ * request. A token can also be tied to a condition, such as a client still being connected, that the search polls
+ * along with it.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+    //Null if only cancel() cancels the token
+    private final BooleanSupplier condition;
+
+    public CancellationToken() {
+        this(null);
+    }
+
+    /**
+     * @param condition true once the token should count as cancelled, or null; polled by the searches using the token,
+     * on their own threads, whenever they check the token
+     */
+    public CancellationToken(BooleanSupplier condition) {
+        this.condition = condition;
+    }
+
+    /**
+     * Asks every search using this token to stop; searches notice within 64 search nodes.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if cancel() has been called or the condition has held; false otherwise
+     */
+    public boolean isCancelled() {
+        if (!cancelled && condition != null && condition.getAsBoolean()) {
+            cancelled = true;
+        }
+        return cancelled;
+    }
+}
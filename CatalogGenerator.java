@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A CatalogGenerator builds reproducible test catalogs: a timeframe with a MWF and a TTh block, and a semester of course
+ * sections placed on its standard start times. The same seed and settings always produce the same catalog, so a slow or
+ * wrong run can be repeated exactly.
+ * <p>
+ * Sections are spread evenly over the purposes P0, P1, ..., and the first priorityCount purposes are set as priorities.
+ * Each section takes one interval of its block and is given the weekly slots of its meetings if weeklySlots is set.
+ * <p>
+ * Timeframes and semesters are created under the working directory, in the timeframes and semesters folders, replacing
+ * any with the same name.
+ */
+public class CatalogGenerator {
+    /**
+     * How sections' start times are picked from their block's standard start times.
+     */
+    public enum TimeDistribution {
+        //Every start time equally likely
+        UNIFORM,
+        //Around late morning, like most real catalogs, so sections conflict more often
+        PEAKED,
+        //Three start times only, so most sections conflict
+        CLUSTERED
+    }
+
+    private final long seed;
+    private final int sections;
+    private final int purposes;
+    private final TimeDistribution distribution;
+    private final int priorityCount;
+    private final boolean weeklySlots;
+
+    /**
+     * @param sections the number of course sections
+     * @param purposes the number of purposes the sections are spread over
+     * @param priorityCount the number of purposes set as priorities, from P0 up
+     * @param weeklySlots whether sections are added with the weekly slots of their meetings
+     * @throws IllegalArgumentException if a count is out of range or distribution is null
+     */
+    public CatalogGenerator(long seed, int sections, int purposes, TimeDistribution distribution, int priorityCount,
+                            boolean weeklySlots) {
+        if (sections < 0 || purposes < 1 || priorityCount < 0 || priorityCount > purposes || distribution == null) {
+            throw new IllegalArgumentException();
+        }
+        this.seed = seed;
+        this.sections = sections;
+        this.purposes = purposes;
+        this.distribution = distribution;
+        this.priorityCount = priorityCount;
+        this.weeklySlots = weeklySlots;
+    }
+
+    /**
+     * Creates a timeframe of a MWF block of 50-minute classes and a TTh block of 75-minute classes, 08:00 to 18:00.
+     * @param name the name of the timeframe
+     * @throws IOException if the timeframe file could not be written
+     */
+    public TimeframeImpl createTimeframe(String name) throws IOException {
+        Files.createDirectories(Path.of("timeframes"));
+        TimeframeImpl timeframe = new TimeframeImpl(name, false);
+        timeframe.addBlock("MWF", "08:00", "18:00", 50, 10);
+        timeframe.addBlock("TTh", "08:00", "18:00", 75, 15);
+        return timeframe;
+    }
+
+    /**
+     * @param timeframe a timeframe from createTimeframe()
+     * @return the sections, in the order they are added to a semester
+     */
+    public List<Course> createCourses(Timeframe timeframe) {
+        Random random = new Random(seed);
+        String[] blockNames = timeframe.getBlockNames();
+        ArrayList<Course> courses = new ArrayList<>();
+        for (int i = 0; i < sections; i++) {
+            String blockName = blockNames[random.nextInt(blockNames.length)];
+            String[] startTimes = timeframe.getStartTimes(blockName);
+            int start = (int) timeframe.timeToFloat(startTimes[pickInterval(random, startTimes.length)], blockName);
+            long[] slots = weeklySlots ? timeframe.getWeeklySlots(start, start + 1) : null;
+            courses.add(new Course("C" + i, "P" + (i % purposes), start, start + 1, 1 + random.nextInt(4), false, true,
+                    slots));
+        }
+        return courses;
+    }
+
+    /**
+     * Creates a semester holding createCourses(timeframe), with the priorities set.
+     * @param semesterName the name of the semester; an existing semester of the same name is deleted first
+     * @param timeframe a timeframe from createTimeframe()
+     * @throws IOException if the semester's files could not be written
+     */
+    public CourseListImpl createCourseList(String semesterName, Timeframe timeframe) throws IOException {
+        deleteSemester(semesterName);
+        Files.createDirectories(Path.of("semesters"));
+        CourseListImpl courseList = new CourseListImpl(semesterName, timeframe.getMaxInt());
+        courseList.addCourses(createCourses(timeframe));
+        for (int p = 0; p < priorityCount; p++) {
+            courseList.setPriority("P" + p, true);
+        }
+        return courseList;
+    }
+
+    /**
+     * @param count the number of standard start times in the block
+     * @return the index of a start time, drawn from the distribution
+     */
+    private int pickInterval(Random random, int count) {
+        switch (distribution) {
+            case PEAKED:
+                long index = Math.round(count * 0.3 + random.nextGaussian() * count / 6);
+                return (int) Math.max(0, Math.min(count - 1, index));
+            case CLUSTERED:
+                int[] clusters = {0, count / 2, count - 1};
+                return clusters[random.nextInt(clusters.length)];
+            default:
+                return random.nextInt(count);
+        }
+    }
+
+    /**
+     * Deletes a semester's folder and every file in it, if it exists.
+     * @throws IOException if a file could not be deleted
+     */
+    public static void deleteSemester(String name) throws IOException {
+        Path folderPath = Path.of("semesters", name);
+        if (Files.exists(folderPath)) {
+            try (Stream<Path> paths = Files.walk(folderPath)) {
+                List<Path> sorted = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+                for (Path path : sorted) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes a timeframe's text file and binary snapshot, if they exist.
+     * @throws IOException if a file could not be deleted
+     */
+    public static void deleteTimeframe(String name) throws IOException {
+        Files.deleteIfExists(Path.of("timeframes", name + "timeframe.txt"));
+        Files.deleteIfExists(Path.of("timeframes", name + "timeframe.bin"));
+    }
+}
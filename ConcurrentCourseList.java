@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe CourseList over a <a href="#{@link}">{@link CourseListImpl}</a>. Edits are serialized and, once each
+ * completes, publish an immutable snapshot of the courses, priorities and schedule count. Course getters and schedule
+ * generation read the latest snapshot without locking, so they never block on or observe a half-applied edit, and a
+ * search keeps the snapshot it started with however long it runs.
+ * <p>
+ * Every edit copies the catalog into its snapshot, so adding many courses is far cheaper through addCourses() or
+ * importCourses() than one addCourse() at a time. getSavedSchedules() and getSchedulesWithCourse() read the stored
+ * schedules, which are loaded on first use, and so wait for any edit in progress.
+ */
+public class ConcurrentCourseList implements CourseList {
+    private final CourseListImpl delegate;
+    private volatile Snapshot snapshot;
+    //The delegate's edit stamps as its last edit or locked read left them
+    private long[][] ownStamps;
+
+    /**
+     * @param semesterName the name of the semester being created/loaded
+     * @param maxTimeInt the largest integer in range for the corresponding timeframe
+     * @throws IOException if the file cannot be created or read
+     */
+    public ConcurrentCourseList(String semesterName, int maxTimeInt) throws IOException {
+        delegate = new CourseListImpl(semesterName, maxTimeInt);
+        publish();
+    }
+
+    /**
+     * Everything a reader sees, as of one completed edit.
+     */
+    private static class Snapshot {
+        //Copies, so later edits to the delegate's courses are not seen
+        private final Map<String, Course> courses;
+        private final String[] courseList;
+        private final ScheduleGenerator generator;
+        private final int existingScheduleCount;
+
+        private Snapshot(Map<String, Course> courses, String[] courseList, ScheduleGenerator generator,
+                         int existingScheduleCount) {
+            this.courses = courses;
+            this.courseList = courseList;
+            this.generator = generator;
+            this.existingScheduleCount = existingScheduleCount;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the course does not exist
+         */
+        private Course course(String courseName) {
+            Course course = courses.get(courseName);
+            if (course == null) {
+                throw new IllegalArgumentException();
+            }
+            return course;
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the delegate's current state. Callers must hold the lock.
+     */
+    private void publish() {
+        String[] courseList = delegate.getCourseList();
+        Map<String, Course> courses = new HashMap<>();
+        for (String name : courseList) {
+            courses.put(name, new Course(name, delegate.getCoursePurpose(name), delegate.getCourseStartTime(name),
+                    delegate.getCourseEndTime(name), delegate.getCourseCredits(name), delegate.isCoursePriority(name),
+                    false, delegate.getCourseSlots(name)));
+        }
+        snapshot = new Snapshot(Collections.unmodifiableMap(courses), courseList, delegate.createGenerator(),
+                delegate.getExistingScheduleCount());
+        ownStamps = delegate.editStamps();
+    }
+
+    /**
+     * @return the number of courses, without copying their names like getCourseList()
+     */
+    int courseCount() {
+        return snapshot.courseList.length;
+    }
+
+    /**
+     * @return true if another instance or process has edited the semester's files since this list last did
+     */
+    synchronized boolean filesChanged() {
+        return !Arrays.deepEquals(delegate.editStamps(), ownStamps);
+    }
+
+    /**
+     * Releases the semester's open files like close(), but leaves the semester snapshot alone, for a list whose files
+     * have changed.
+     * @throws IOException if the log cannot be closed
+     */
+    synchronized void discard() throws IOException {
+        delegate.discard();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public synchronized boolean addCourse(String courseName, String purpose, int startTime, int endTime, int credits)
+            throws IOException {
+        try {
+            return delegate.addCourse(courseName, purpose, startTime, endTime, credits);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized boolean addCourse(String courseName, String purpose, int startTime, int endTime, int credits,
+                                          long[] slots) throws IOException {
+        try {
+            return delegate.addCourse(courseName, purpose, startTime, endTime, credits, slots);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized ImportReport addCourses(Collection<Course> newCourses) throws IOException {
+        try {
+            return delegate.addCourses(newCourses);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized ImportReport importCourses(Reader csv) throws IOException {
+        try {
+            return delegate.importCourses(csv);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized void removeCourse(String courseName) throws IOException {
+        try {
+            delegate.removeCourse(courseName);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public String[] getCourseList() {
+        return snapshot.courseList.clone();
+    }
+
+    @Override
+    public long[] getCourseSlots(String courseName) {
+        long[] slots = snapshot.course(courseName).slots;
+        return (slots != null) ? slots.clone() : null;
+    }
+
+    @Override
+    public String getCoursePurpose(String courseName) {
+        return snapshot.course(courseName).purpose;
+    }
+
+    @Override
+    public int getCourseStartTime(String courseName) {
+        return snapshot.course(courseName).startTime;
+    }
+
+    @Override
+    public int getCourseEndTime(String courseName) {
+        return snapshot.course(courseName).endTime;
+    }
+
+    @Override
+    public int getCourseCredits(String courseName) {
+        return snapshot.course(courseName).credits;
+    }
+
+    @Override
+    public boolean isCoursePriority(String courseName) {
+        return snapshot.course(courseName).priority;
+    }
+
+    @Override
+    public synchronized void setPriority(String purpose, boolean isPriority) {
+        try {
+            delegate.setPriority(purpose, isPriority);
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public int getExistingScheduleCount() {
+        return snapshot.existingScheduleCount;
+    }
+
+    @Override
+    public synchronized ArrayList<List<String>> getSavedSchedules(int offset, int limit) throws IOException {
+        try {
+            return delegate.getSavedSchedules(offset, limit);
+        } finally {
+            //Reading may compact the schedule file
+            ownStamps = delegate.editStamps();
+        }
+    }
+
+    @Override
+    public synchronized ArrayList<List<String>> getSchedulesWithCourse(String courseName) {
+        try {
+            return delegate.getSchedulesWithCourse(courseName);
+        } finally {
+            ownStamps = delegate.editStamps();
+        }
+    }
+
+    /**
+     * Searches already running keep the engine they started with.
+     */
+    @Override
+    public synchronized void setScheduleEngine(ScheduleEngine engine) {
+        delegate.setScheduleEngine(engine);
+        publish();
+    }
+
+    @Override
+    public synchronized void setSearchListener(SearchListener listener) {
+        delegate.setSearchListener(listener);
+        publish();
+    }
+
+    @Override
+    public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses) {
+        return getSchedules(minCourses, maxCourses, 1);
+    }
+
+    @Override
+    public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int parallelism) {
+        return snapshot.generator.getSchedules(minCourses, maxCourses, parallelism);
+    }
+
+    @Override
+    public ScheduleResult getSchedules(int minCourses, int maxCourses, int parallelism, SearchLimits limits) {
+        return snapshot.generator.getSchedules(minCourses, maxCourses, parallelism, limits);
+    }
+
+    @Override
+    public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int minCredits, int maxCredits) {
+        return snapshot.generator.getSchedules(minCourses, maxCourses, minCredits, maxCredits);
+    }
+
+    @Override
+    public ArrayList<List<String>> getNewSchedules(int minCourses, int maxCourses) {
+        return snapshot.generator.getNewSchedules(minCourses, maxCourses);
+    }
+
+    @Override
+    public ArrayList<List<String>> getBestSchedules(int minCourses, int maxCourses, ScheduleScorer scorer, int k) {
+        return snapshot.generator.getBestSchedules(minCourses, maxCourses, scorer, k);
+    }
+
+    @Override
+    public Iterator<List<String>> scheduleIterator(int minCourses, int maxCourses) {
+        return snapshot.generator.scheduleIterator(minCourses, maxCourses);
+    }
+
+    @Override
+    public BoundedScheduleIterator scheduleIterator(int minCourses, int maxCourses, SearchLimits limits) {
+        return snapshot.generator.scheduleIterator(minCourses, maxCourses, limits);
+    }
+
+    @Override
+    public Stream<List<String>> streamSchedules(int minCourses, int maxCourses) {
+        return snapshot.generator.streamSchedules(minCourses, maxCourses);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public synchronized boolean addSchedules(ArrayList<List<String>> newSchedules) {
+        try {
+            return delegate.addSchedules(newSchedules);
+        } finally {
+            publish();
+        }
+    }
+}
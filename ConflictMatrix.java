@@ -0,0 +1,319 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A ConflictMatrix assigns every course a dense integer ordinal and keeps, for each ordinal, a bitset of the ordinals
+ * it conflicts with. Rows are closed (a course always conflicts with itself), so removing a course's row from a set of
+ * candidates removes the course and all of its conflicts in one word-wise AND-NOT.
+ * <p>
+ * Purposes are interned to ints; every purpose also has a bitset of the courses that carry it.
+ */
+public class ConflictMatrix {
+    private final ArrayList<Course> courses;
+    private final Map<String, Integer> ordinals;
+    private final Map<String, Integer> purposeIds;
+    private final ArrayList<long[]> purposeMasks;
+    private int[] purposeOf;
+    private long[][] rows;
+    private int words;
+
+    public ConflictMatrix() {
+        courses = new ArrayList<>();
+        ordinals = new HashMap<>();
+        purposeIds = new HashMap<>();
+        purposeMasks = new ArrayList<>();
+        words = 1;
+        purposeOf = new int[64];
+        rows = new long[64][];
+    }
+
+    /**
+     * @return the number of courses in the matrix; ordinals range from 0 (inclusive) to size (exclusive)
+     */
+    public int size() {
+        return courses.size();
+    }
+
+    /**
+     * @return the number of longs in every bitset produced by this matrix
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * @param courseName the name of the course section (i.e. ASTR 101-001)
+     * @return the course's ordinal, or -1 if it is not in the matrix
+     */
+    public int ordinal(String courseName) {
+        Integer ordinal = ordinals.get(courseName);
+        return (ordinal == null) ? -1 : ordinal;
+    }
+
+    /**
+     * @param ordinal a course ordinal
+     * @return the course with that ordinal
+     */
+    public Course course(int ordinal) {
+        return courses.get(ordinal);
+    }
+
+    /**
+     * @param ordinal a course ordinal
+     * @return the interned id of the course's purpose
+     */
+    public int purpose(int ordinal) {
+        return purposeOf[ordinal];
+    }
+
+    /**
+     * @param purpose a course purpose
+     * @return the interned id of the purpose, or -1 if no course has ever carried it
+     */
+    public int purposeId(String purpose) {
+        Integer id = purposeIds.get(purpose);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Returned array is live; callers must not modify it.
+     * @param ordinal a course ordinal
+     * @return the bitset of all courses conflicting with the course, including the course itself
+     */
+    public long[] row(int ordinal) {
+        return rows[ordinal];
+    }
+
+    /**
+     * Returned array is live; callers must not modify it.
+     * @param purposeId an interned purpose id
+     * @return the bitset of all courses with the purpose
+     */
+    public long[] purposeMask(int purposeId) {
+        return purposeMasks.get(purposeId);
+    }
+
+    /**
+     * Adds course with the next free ordinal and computes its conflicts against every course already present.
+     * @param course a course not yet in the matrix
+     * @return the course's ordinal
+     */
+    public int add(Course course) {
+        int ordinal = courses.size();
+        if (ordinal == rows.length) {
+            grow();
+        }
+        if (ordinal == words * 64) {
+            resize(words * 2);
+        }
+        courses.add(course);
+        ordinals.put(course.name, ordinal);
+
+        Integer purposeId = purposeIds.get(course.purpose);
+        if (purposeId == null) {
+            purposeId = purposeMasks.size();
+            purposeIds.put(course.purpose, purposeId);
+            purposeMasks.add(new long[words]);
+        }
+        purposeOf[ordinal] = purposeId;
+        set(purposeMasks.get(purposeId), ordinal);
+
+        //Same purpose always conflicts; otherwise compare times
+        long[] row = new long[words];
+        long[] purposeMask = purposeMasks.get(purposeId);
+        System.arraycopy(purposeMask, 0, row, 0, words);
+        for (int i = 0; i < ordinal; i++) {
+            if (!get(row, i) && course.conflicts(courses.get(i))) {
+                set(row, i);
+            }
+        }
+        rows[ordinal] = row;
+        for (int i = 0; i < ordinal; i++) {
+            if (get(row, i)) {
+                set(rows[i], ordinal);
+            }
+        }
+        return ordinal;
+    }
+
+    /**
+     * Removes the course with courseName. The course holding the last ordinal takes over the freed ordinal so that
+     * ordinals stay dense.
+     * @param courseName the name of the course section (i.e. ASTR 101-001)
+     * @return false if the course is not in the matrix; true otherwise
+     */
+    public boolean remove(String courseName) {
+        Integer removed = ordinals.remove(courseName);
+        if (removed == null) {
+            return false;
+        }
+        int last = courses.size() - 1;
+        long[] removedRow = rows[removed];
+        for (int i = 0; i <= last; i++) {
+            if (get(removedRow, i)) {
+                clear(rows[i], removed);
+            }
+        }
+        clear(purposeMasks.get(purposeOf[removed]), removed);
+
+        if (removed != last) {
+            //Move the last course into the freed ordinal
+            Course moved = courses.get(last);
+            long[] movedRow = rows[last];
+            for (int i = 0; i < last; i++) {
+                if (get(movedRow, i)) {
+                    clear(rows[i], last);
+                    set(rows[i], removed);
+                }
+            }
+            clear(movedRow, last);
+            set(movedRow, removed);
+            long[] purposeMask = purposeMasks.get(purposeOf[last]);
+            clear(purposeMask, last);
+            set(purposeMask, removed);
+
+            courses.set(removed, moved);
+            ordinals.put(moved.name, removed);
+            rows[removed] = movedRow;
+            purposeOf[removed] = purposeOf[last];
+        }
+        courses.remove(last);
+        rows[last] = null;
+        return true;
+    }
+
+    /**
+     * Doubles the number of ordinal slots
+     */
+    private void grow() {
+        long[][] newRows = new long[rows.length * 2][];
+        System.arraycopy(rows, 0, newRows, 0, rows.length);
+        rows = newRows;
+        int[] newPurposeOf = new int[purposeOf.length * 2];
+        System.arraycopy(purposeOf, 0, newPurposeOf, 0, purposeOf.length);
+        purposeOf = newPurposeOf;
+    }
+
+    /**
+     * Widens every row and purpose mask to newWords longs
+     */
+    private void resize(int newWords) {
+        for (int i = 0; i < courses.size(); i++) {
+            rows[i] = widen(rows[i], newWords);
+        }
+        for (int i = 0; i < purposeMasks.size(); i++) {
+            purposeMasks.set(i, widen(purposeMasks.get(i), newWords));
+        }
+        words = newWords;
+    }
+
+    private static long[] widen(long[] bits, int newWords) {
+        long[] wider = new long[newWords];
+        System.arraycopy(bits, 0, wider, 0, bits.length);
+        return wider;
+    }
+
+    /**
+     * @return a bitset of the given width with the bits 0 (inclusive) to count (exclusive) set
+     */
+    public static long[] firstBits(int words, int count) {
+        long[] bits = new long[words];
+        for (int i = 0; i < count / 64; i++) {
+            bits[i] = -1L;
+        }
+        if (count % 64 != 0) {
+            bits[count / 64] = (1L << count) - 1;
+        }
+        return bits;
+    }
+
+    public static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * @return the lowest set bit at or after from, or -1 if there is none
+     */
+    public static int nextSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return -1;
+        }
+        long current = bits[word] & (-1L << from);
+        while (current == 0) {
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+        return word * 64 + Long.numberOfTrailingZeros(current);
+    }
+
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a AND NOT b into target. target may be a.
+     */
+    public static void andNot(long[] a, long[] b, long[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = a[i] & ~b[i];
+        }
+    }
+
+    /**
+     * Writes a AND b into target. target may be a.
+     */
+    public static void and(long[] a, long[] b, long[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = a[i] & b[i];
+        }
+    }
+
+    /**
+     * @return true if every bit set in subset is also set in superset
+     */
+    public static boolean containsAll(long[] superset, long[] subset) {
+        for (int i = 0; i < subset.length; i++) {
+            if ((subset[i] & ~superset[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if a and b have a set bit in common
+     */
+    public static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -6,8 +6,15 @@ public class Course {
     public int credits;
     public boolean priority;
     public boolean isNew;
+    //Every meeting of the course, from WeeklySlots; null if the course only has a start and end time
+    public final long[] slots;
 
     public Course(String name, String purpose, int startTime, int endTime, int credits, boolean priority, boolean isNew) {
+        this(name, purpose, startTime, endTime, credits, priority, isNew, null);
+    }
+
+    public Course(String name, String purpose, int startTime, int endTime, int credits, boolean priority, boolean isNew,
+                  long[] slots) {
         this.name = name;
         this.purpose = purpose;
         this.startTime = startTime;
@@ -15,15 +22,26 @@ public class Course {
         this.credits = credits;
         this.priority = priority;
         this.isNew = isNew;
+        this.slots = slots;
     }
 
     public String toString() {
-        return name + ", " + purpose + ", " + startTime + ", " + endTime + ", " + credits + ", " + priority;
+        String line = name + ", " + purpose + ", " + startTime + ", " + endTime + ", " + credits + ", " + priority;
+        return (slots != null) ? line + ", " + WeeklySlots.encode(slots) : line;
     }
 
+    /**
+     * Symmetric: a.conflicts(b) == b.conflicts(a). Courses that both have weekly slots are compared by slot, so courses
+     * in different blocks can conflict; otherwise their int representations are compared.
+     * @return true if the courses share a purpose or their times overlap; false otherwise
+     */
     public boolean conflicts(Course otherCourse) {
-        return purpose.equals(otherCourse.purpose)
-                || (startTime >= otherCourse.startTime && startTime < otherCourse.endTime)
-                || (endTime > otherCourse.startTime && endTime <= otherCourse.endTime);
+        if (purpose.equals(otherCourse.purpose)) {
+            return true;
+        }
+        if (slots != null && otherCourse.slots != null) {
+            return ConflictMatrix.intersects(slots, otherCourse.slots);
+        }
+        return startTime < otherCourse.endTime && otherCourse.startTime < endTime;
     }
 }
@@ -1,6 +1,11 @@
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * A CourseList assists students in planning course selections for an upcoming registration period. It stores potential
@@ -9,11 +14,10 @@ import java.util.List;
  * determined to take this semester.
  * <p>
  * Limitations: Courses must be assigned exactly one purpose and one time; see <a href="#{@link}">{@link Timeframe}</a>
- * for more information on the latter limitation. Does not consider course credits or newly added courses when creating
- * schedules. Does not properly encapsulate generated schedules or ensure input for the
- * <a href="#{@link}">{@link #addSchedules(ArrayList) addSchedules}</a> method is valid.
+ * for more information on the latter limitation. Does not properly encapsulate generated schedules or ensure input for
+ * the <a href="#{@link}">{@link #addSchedules(ArrayList) addSchedules}</a> method is valid.
  */
-public interface CourseList {
+public interface CourseList extends Closeable {
     /**
      * @return the name of the course list's semester
      */
@@ -24,10 +28,46 @@ public interface CourseList {
      * @param courseName the name of the course section (i.e. ASTR 101-001)
      * @param credits the number of course credits towards graduation
      * @return false if course already exists (based on courseName); true otherwise
+     * @throws IllegalArgumentException if courseName is empty, or courseName or purpose contains ", " or a line break
      * @throws IOException if the course could not be written to the course file
      */
     boolean addCourse(String courseName, String purpose, int startTime, int endTime, int credits) throws IOException;
 
+    /**
+     * Adds a course that meets at the given <a href="#{@link}">{@link WeeklySlots}</a>, i.e. the slots of a lecture and
+     * a lab combined. Courses that both have slots conflict if their slots overlap, even across blocks; startTime and
+     * endTime are still stored and returned by the getters.
+     * @param courseName the name of the course section (i.e. ASTR 101-001)
+     * @param credits the number of course credits towards graduation
+     * @param slots the course's weekly slots, or null to compare startTime and endTime only
+     * @return false if course already exists (based on courseName); true otherwise
+     * @throws IllegalArgumentException if slots is not a non-empty weekly bitmap, courseName is empty, or courseName or
+     * purpose contains ", " or a line break
+     * @throws IOException if the course could not be written to the course file
+     */
+    boolean addCourse(String courseName, String purpose, int startTime, int endTime, int credits, long[] slots)
+            throws IOException;
+
+    /**
+     * Adds many courses at once and stores them with a single write. Each course is checked like in addCourse(), but a
+     * rejected course is reported rather than stopping the import. The priority and isNew fields of the given courses
+     * are ignored.
+     * @param newCourses the courses to add
+     * @return the outcome of every course, in iteration order
+     * @throws IOException if the courses could not be written to the course file
+     */
+    ImportReport addCourses(Collection<Course> newCourses) throws IOException;
+
+    /**
+     * Bulk form of addCourse() for CSV input with one course per line: courseName, purpose, startTime, endTime,
+     * credits, and optionally slots in the format of <a href="#{@link}">{@link WeeklySlots#encode(long[]) encode}</a>.
+     * Blank lines are skipped, as is a first line that starts with "name". Courses are stored with a single write.
+     * @param csv the CSV input; it is read to the end but not closed
+     * @return the outcome of every non-blank line, by line number
+     * @throws IOException if csv cannot be read or the courses could not be written to the course file
+     */
+    ImportReport importCourses(Reader csv) throws IOException;
+
     /**
      * Removes course from courseList and deletes all schedules containing it.
      * @param courseName the name of the course section (i.e. ASTR 101-001)
@@ -40,6 +80,12 @@ public interface CourseList {
      */
     String[] getCourseList();
 
+    /**
+     * @param courseName the name of the course section (i.e. ASTR 101-001)
+     * @return a copy of the course's weekly slots, or null if it only has a start and end time
+     */
+    long[] getCourseSlots(String courseName);
+
     /**
      * @param courseName the name of the course section (i.e. ASTR 101-001)
      * @return the course's purpose
@@ -71,8 +117,10 @@ public interface CourseList {
     boolean isCoursePriority(String courseName);
 
     /**
-     * Changes the priority status of the purpose to match isPriority.
+     * Changes the priority status of the purpose to match isPriority. Turning a priority on removes the stored schedules
+     * without a course of purpose; turning it off stores the schedules the priority had ruled out.
      * @param isPriority the new priority status of purpose
+     * @throws IllegalArgumentException if purpose contains ", " or a line break
      */
     void setPriority(String purpose, boolean isPriority);
 
@@ -81,6 +129,38 @@ public interface CourseList {
      */
     int getExistingScheduleCount();
 
+    /**
+     * Reads a window of the stored schedules without loading the rest, so paging through them costs only the pages
+     * requested.
+     * @param offset the number of stored schedules to skip
+     * @param limit the maximum number of schedules to return
+     * @return the stored schedules in the window, in the order they were added; empty if offset is past the last one
+     * @throws IOException if the schedule file could not be read
+     */
+    ArrayList<List<String>> getSavedSchedules(int offset, int limit) throws IOException;
+
+    /**
+     * Looks the course up in an index of the stored schedules, so the cost depends only on the number of matches.
+     * @param courseName the name of the course section (i.e. ASTR 101-001)
+     * @return the stored schedules containing the course, in the order they were added
+     */
+    ArrayList<List<String>> getSchedulesWithCourse(String courseName);
+
+    /**
+     * Selects the algorithm used by getSchedules(). Every engine produces the same schedules, possibly in a different
+     * order. Defaults to <a href="#{@link}">{@link BacktrackingEngine}</a>.
+     * @param engine the engine to use
+     */
+    void setScheduleEngine(ScheduleEngine engine);
+
+    /**
+     * Reports the <a href="#{@link}">{@link SearchStatistics}</a> of every getSchedules() and getNewSchedules() call
+     * that runs a search. Each such search is also recorded as a <a href="#{@link}">{@link ScheduleSearchEvent}</a> when
+     * Flight Recorder is running, with or without a listener.
+     * @param listener the listener to call, or null to stop reporting
+     */
+    void setSearchListener(SearchListener listener);
+
     /**
      * The generated list of schedules is not saved in CourseList; rather, the filtered schedule list should be set
      * with addSchedules().
@@ -90,6 +170,106 @@ public interface CourseList {
      */
     ArrayList<List<String>> getSchedules(int minCourses, int maxCourses);
 
+    /**
+     * Same as <a href="#{@link}">{@link #getSchedules(int, int) getSchedules}</a>, but splits the search across
+     * parallelism threads. The result does not depend on how the work was scheduled.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param parallelism the number of threads to search with; 1 searches on the calling thread
+     * @return list of all possible schedules given current courses and restrictions
+     * @throws IllegalArgumentException if parallelism is less than 1
+     */
+    ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int parallelism);
+
+    /**
+     * Bounded form of <a href="#{@link}">{@link #getSchedules(int, int, int) getSchedules}</a>: the search stops once
+     * the time budget runs out, the result cap is reached, the token is cancelled or the calling thread is interrupted,
+     * and the schedules found so far are returned, flagged as incomplete. The interrupt status is left set.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param parallelism the number of threads to search with; 1 searches on the calling thread
+     * @param limits the limits to stop at; <a href="#{@link}">{@link SearchLimits#NONE}</a> for none
+     * @return the schedules found, and whether the search completed
+     * @throws IllegalArgumentException if parallelism is less than 1 or limits is null
+     */
+    ScheduleResult getSchedules(int minCourses, int maxCourses, int parallelism, SearchLimits limits);
+
+    /**
+     * Same as <a href="#{@link}">{@link #getSchedules(int, int) getSchedules}</a>, keeping only schedules whose total
+     * credits are within the given bounds. Branches that cannot meet the bounds are never explored.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param minCredits the minimum total credits of a schedule, inclusive
+     * @param maxCredits the maximum total credits of a schedule, inclusive
+     * @return list of all possible schedules given current courses and restrictions
+     */
+    ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int minCredits, int maxCredits);
+
+    /**
+     * Delta form of <a href="#{@link}">{@link #getSchedules(int, int) getSchedules}</a>: only schedules containing at
+     * least one course added since schedules were last saved with addSchedules(). The saved schedules hold no such
+     * course, so the result never repeats them. The search starts from each new course in turn, leaving out the new
+     * courses before it, so it only explores schedules that contain a new course and finds none twice; its cost grows
+     * with the number of new courses and the schedules around them rather than with the whole catalog.
+     * Which courses are new is stored with the semester, so it is the same after the semester is loaded again.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @return list of all possible schedules containing a new course given current courses and restrictions
+     */
+    ArrayList<List<String>> getNewSchedules(int minCourses, int maxCourses);
+
+    /**
+     * Ranked form of <a href="#{@link}">{@link #getSchedules(int, int) getSchedules}</a>. Branches that cannot beat the
+     * k-th best schedule found so far are never explored, so this is usually far cheaper than generating every schedule.
+     * Built-in scorers: <a href="#{@link}">{@link CreditScorer}</a> and <a href="#{@link}">{@link GapScorer}</a>.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param scorer the scoring function; higher scores are better
+     * @param k the maximum number of schedules to return
+     * @return the up to k highest-scoring schedules, best first
+     * @throws IllegalArgumentException if scorer is null or k is negative
+     */
+    ArrayList<List<String>> getBestSchedules(int minCourses, int maxCourses, ScheduleScorer scorer, int k);
+
+    /**
+     * Lazy form of <a href="#{@link}">{@link #getSchedules(int, int) getSchedules}</a>: each schedule is found only when
+     * it is requested, so the first schedule is available long before the search completes. The iterator searches a
+     * snapshot of the course list, so later edits do not affect it.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @return iterator over the same schedules getSchedules() would return, in the same order
+     */
+    Iterator<List<String>> scheduleIterator(int minCourses, int maxCourses);
+
+    /**
+     * Bounded form of <a href="#{@link}">{@link #scheduleIterator(int, int) scheduleIterator}</a>: the iterator ends
+     * early under the same limits as <a href="#{@link}">{@link #getSchedules(int, int, int, SearchLimits)
+     * getSchedules}</a>, with the time budget starting when this is called, and also if the thread iterating is
+     * interrupted. Its stop reason tells whether it returned every schedule.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param limits the limits to stop the search at
+     * @return iterator over a prefix of the schedules getSchedules() would return, in the same order
+     * @throws IllegalArgumentException if limits is null
+     */
+    BoundedScheduleIterator scheduleIterator(int minCourses, int maxCourses, SearchLimits limits);
+
+    /**
+     * Sequential stream over <a href="#{@link}">{@link #scheduleIterator(int, int) scheduleIterator}</a>; limiting the
+     * stream stops the search early.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @return stream of the same schedules getSchedules() would return, in the same order
+     */
+    Stream<List<String>> streamSchedules(int minCourses, int maxCourses);
+
+    /**
+     * Waits for background writes to finish and releases the semester's open files.
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    void close() throws IOException;
+
     /**
      * Adds a now-filtered list from getSchedules() to the course list's schedule storage.
      * @param newSchedules list of schedules
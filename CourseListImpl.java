@@ -2,15 +2,23 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
 
 
 public class CourseListImpl implements CourseList {
     public final String semesterName;
     private final Map<String, Course> courses;
-    private ArrayList<List<String>> schedules;
+    private final ConflictMatrix conflicts;
+    private final ScheduleStore schedules;
+    private final ScheduleFile scheduleFile;
+    private final CourseLog courseLog;
+    private final Path snapshotPath;
     private int numOldSchedule;
+    private boolean schedulesLoaded;
     private final int maxTime;
     private final Map<String, ArrayList<String>> priorities;
+    private ScheduleEngine engine;
+    private SearchListener searchListener;
 
 
     /**
@@ -23,41 +31,80 @@ public class CourseListImpl implements CourseList {
         this.semesterName = semesterName;
         maxTime = maxTimeInt;
         priorities = new HashMap<>();
+        engine = new BacktrackingEngine();
 
-        //Initializes schedules first because addCourse checks existence of schedules
-        schedules = new ArrayList<>();
         Path folderPath = Path.of("semesters/" + semesterName);
-        Path schedulesPath = folderPath.resolve(semesterName + "schedules.txt");
-        if (Files.exists(schedulesPath)) {
-            //Adds immutable schedules
-            BufferedReader reader = new BufferedReader(new FileReader(schedulesPath.toFile()));
-            String line;
-            while ((line = reader.readLine()) != null && !"".equals(line)) {
-                String[] elements = line.split(", ");
-                schedules.add(Arrays.asList(elements));
+        scheduleFile = new ScheduleFile(folderPath.resolve(semesterName + "schedules.bin"));
+        courseLog = new CourseLog(folderPath, semesterName, CourseLog.DEFAULT_COMPACTION_THRESHOLD);
+        snapshotPath = folderPath.resolve(semesterName + "semester.bin");
+        courses = new HashMap<>();
+        schedules = new ScheduleStore(courses);
+        conflicts = new ConflictMatrix();
+
+        SemesterSnapshot snapshot = SemesterSnapshot.read(snapshotPath, sourceStamps());
+        if (snapshot != null) {
+            //The snapshot was taken from the current files, so they need not be parsed
+            scheduleFile.restore(snapshot.scheduleNames, snapshot.scheduleOffsets);
+            courseLog.restore(snapshot.logRecords);
+            numOldSchedule = snapshot.scheduleOffsets.length;
+            for (String purpose : snapshot.priorities) {
+                applyPriority(purpose, true);
+            }
+            for (Course course : snapshot.courses) {
+                addCourse(course.name, course.purpose, course.startTime, course.endTime, course.credits, course.slots,
+                        course.isNew);
+            }
+        } else {
+            //Counts schedules first because addCourse checks existence of schedules
+            numOldSchedule = scheduleFile.index();
+            Path schedulesPath = folderPath.resolve(semesterName + "schedules.txt");
+            if (!scheduleFile.exists() && Files.exists(schedulesPath)) {
+                //Migrates the legacy text file
+                ArrayList<List<String>> legacySchedules = new ArrayList<>();
+                BufferedReader reader = new BufferedReader(new FileReader(schedulesPath.toFile()));
+                String line;
+                while ((line = reader.readLine()) != null && !"".equals(line)) {
+                    String[] elements = line.split(", ");
+                    legacySchedules.add(Arrays.asList(elements));
+                }
+                reader.close();
+                if (!legacySchedules.isEmpty()) {
+                    scheduleFile.rewrite(legacySchedules);
+                }
+                Files.delete(schedulesPath);
+                numOldSchedule = legacySchedules.size();
             }
-            reader.close();
-        }
-        numOldSchedule = schedules.size();
 
-        courses = new HashMap<>();
-        Path coursesPath = folderPath.resolve(semesterName + "courses.txt");
-        if (Files.exists(coursesPath)) { //semester exists
-            //Read existing courses file, add priority, load contents with addCourse()
-            BufferedReader reader = new BufferedReader(new FileReader(coursesPath.toFile()));
-            String line;
-            while ((line = reader.readLine()) != null && !"".equals(line)) {
-                String[] elements = line.split(", ");
-                if (elements[5].equals("true") && !priorities.containsKey(elements[1])) {
-                    priorities.put(elements[1], new ArrayList<>(Collections.singletonList(elements[0])));
+            if (Files.exists(courseLog.getSnapshotPath())) { //semester exists
+                //Rebuild courses and priorities from the course file and the changes logged since
+                boolean savedRecords = false;
+                for (String[] record : courseLog.load()) {
+                    savedRecords |= record[0].equals("saved");
+                    replay(record);
+                }
+                if (!savedRecords && numOldSchedule > 0) {
+                    //Written before saved records were, when every course counted as saved once schedules existed
+                    markSaved();
                 }
-                addCourse(elements[0], elements[1], Integer.parseInt(elements[2]),
-                        Integer.parseInt(elements[3]), Integer.parseInt(elements[4]), schedules.isEmpty());
+            } else {
+                Files.createDirectory(folderPath);
+                Files.createFile(courseLog.getSnapshotPath());
             }
-            reader.close();
-        } else {
-            Files.createDirectory(folderPath);
-            Files.createFile(coursesPath);
+        }
+        //Saved schedules are only read into the store once an operation needs them
+        schedulesLoaded = numOldSchedule == 0;
+    }
+
+    /**
+     * Reads every saved schedule into the store, unless it already holds them.
+     * @throws IOException if the schedule file cannot be read
+     */
+    private void loadSchedules() throws IOException {
+        if (!schedulesLoaded) {
+            for (List<String> schedule : scheduleFile.read(0, scheduleFile.size())) {
+                schedules.add(schedule);
+            }
+            schedulesLoaded = true;
         }
     }
 
@@ -68,22 +115,137 @@ public class CourseListImpl implements CourseList {
 
     @Override
     public boolean addCourse(String courseName, String purpose, int startTime, int endTime, int credits) throws IOException {
+        return addCourse(courseName, purpose, startTime, endTime, credits, null);
+    }
+
+    @Override
+    public boolean addCourse(String courseName, String purpose, int startTime, int endTime, int credits, long[] slots)
+            throws IOException {
         if (startTime < 0 || endTime > maxTime || startTime >= endTime) {
             throw new IndexOutOfBoundsException();
         }
+        if (!validName(courseName) || !validPurpose(purpose) || !validSlots(slots)) {
+            throw new IllegalArgumentException();
+        }
 
-        Course newCourse = addCourse(courseName, purpose, startTime, endTime, credits, true);
+        Course newCourse = addCourse(courseName, purpose, startTime, endTime, credits,
+                (slots != null) ? slots.clone() : null, true);
         if (newCourse == null) {
             return false;
         }
 
-        try {
-            saveCourse(newCourse);
-        } catch (IOException e) {
-            saveCourses();
+        logCourseChanges(Collections.singletonList(addRecord(newCourse)));
+        return true;
+    }
+
+    @Override
+    public ImportReport addCourses(Collection<Course> newCourses) throws IOException {
+        ImportReport report = new ImportReport();
+        ArrayList<String[]> records = new ArrayList<>();
+        int row = 0;
+        for (Course course : newCourses) {
+            row++;
+            if (course == null || !validName(course.name) || !validPurpose(course.purpose)
+                    || !validSlots(course.slots)) {
+                report.add(row, (course == null) ? null : course.name, ImportReport.Status.MALFORMED);
+            } else {
+                addRow(row, course.name, course.purpose, course.startTime, course.endTime, course.credits,
+                        (course.slots != null) ? course.slots.clone() : null, report, records);
+            }
         }
+        logCourseChanges(records);
+        return report;
+    }
 
-        return true;
+    @Override
+    public ImportReport importCourses(Reader csv) throws IOException {
+        ImportReport report = new ImportReport();
+        ArrayList<String[]> records = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(csv);
+        String line;
+        int row = 0;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            String[] fields = line.split(",", -1);
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fields[i].trim();
+            }
+            if (line.isBlank() || (row == 1 && fields[0].equalsIgnoreCase("name"))) {
+                continue;
+            }
+            if (fields.length < 5 || fields.length > 6 || !validName(fields[0]) || fields[1].isEmpty()
+                    || !validPurpose(fields[1])) {
+                report.add(row, fields[0].isEmpty() ? null : fields[0], ImportReport.Status.MALFORMED);
+                continue;
+            }
+            try {
+                long[] slots = (fields.length == 6) ? WeeklySlots.decode(fields[5]) : null;
+                if (!validSlots(slots)) {
+                    throw new IllegalArgumentException();
+                }
+                addRow(row, fields[0], fields[1], Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                        Integer.parseInt(fields[4]), slots, report, records);
+            } catch (IllegalArgumentException e) {
+                report.add(row, fields[0], ImportReport.Status.MALFORMED);
+            }
+        }
+        logCourseChanges(records);
+        return report;
+    }
+
+    /**
+     * Validates and adds one imported course in memory, leaving the log record to be written with the rest of the batch.
+     * @param row the row's position in the input
+     * @param records the log records of the batch, which an added course's record is appended to
+     */
+    private void addRow(int row, String courseName, String purpose, int startTime, int endTime, int credits,
+                        long[] slots, ImportReport report, List<String[]> records) {
+        if (startTime < 0 || endTime > maxTime || startTime >= endTime) {
+            report.add(row, courseName, ImportReport.Status.OUT_OF_RANGE);
+            return;
+        }
+        Course newCourse = addCourse(courseName, purpose, startTime, endTime, credits, slots, true);
+        if (newCourse == null) {
+            report.add(row, courseName, ImportReport.Status.DUPLICATE);
+            return;
+        }
+        report.add(row, courseName, ImportReport.Status.ADDED);
+        records.add(addRecord(newCourse));
+    }
+
+    /**
+     * @return the course log record for adding course
+     */
+    private String[] addRecord(Course course) {
+        String[] record = {"add", course.name, course.purpose, String.valueOf(course.startTime),
+                String.valueOf(course.endTime), String.valueOf(course.credits)};
+        if (course.slots != null) {
+            record = Arrays.copyOf(record, 7);
+            record[6] = WeeklySlots.encode(course.slots);
+        }
+        return record;
+    }
+
+    /**
+     * @return true if name is non-empty and can be stored in the course file; false otherwise
+     */
+    private static boolean validName(String name) {
+        return name != null && !name.isEmpty() && validPurpose(name);
+    }
+
+    /**
+     * The course file and log separate fields with ", " and records with line breaks, so neither may appear in a field.
+     * @return true if purpose can be stored in the course file; false otherwise
+     */
+    private static boolean validPurpose(String purpose) {
+        return purpose != null && !purpose.contains(", ") && purpose.indexOf('\n') == -1 && purpose.indexOf('\r') == -1;
+    }
+
+    /**
+     * @return true if slots is null or a non-empty weekly bitmap; false otherwise
+     */
+    private boolean validSlots(long[] slots) {
+        return slots == null || (slots.length == WeeklySlots.WORDS && !ConflictMatrix.isEmpty(slots));
     }
 
     /**
@@ -93,16 +255,18 @@ public class CourseListImpl implements CourseList {
      * @param sT the course's start time
      * @param eT the course's end time
      * @param credits the course's number of college credits
-     * @param isNew false if the course was loaded through the constructor and schedules exist; true otherwise
-     * @return the new course
+     * @param slots the course's weekly slots, or null
+     * @param isNew true if the course was added since schedules were last saved; false otherwise
+     * @return the new course, or null if a course of that name exists
      */
-    private Course addCourse(String cName, String purpose, int sT, int eT, int credits, boolean isNew) {
+    private Course addCourse(String cName, String purpose, int sT, int eT, int credits, long[] slots, boolean isNew) {
         if (courses.containsKey(cName)) {
             return null;
         }
         boolean priority = priorities.containsKey(purpose);
-        Course addedCourse = new Course(cName, purpose, sT, eT, credits, priority, isNew);
+        Course addedCourse = new Course(cName, purpose, sT, eT, credits, priority, isNew, slots);
         courses.put(cName, addedCourse);
+        conflicts.add(addedCourse);
 
         //Add to Priority hashmap
         if (priority) {
@@ -112,61 +276,45 @@ public class CourseListImpl implements CourseList {
         return addedCourse;
     }
 
+    /**
+     * Removes a course from the courses hashmap, the conflict matrix and its priority list, if any.
+     * @param courseName the name of the course, which need not exist
+     */
+    private void forgetCourse(String courseName) {
+        Course course = courses.remove(courseName);
+        if (course != null) {
+            ArrayList<String> container = priorities.get(course.purpose);
+            if (container != null) {
+                container.remove(courseName);
+            }
+            conflicts.remove(courseName);
+        }
+    }
+
     @Override
     public void removeCourse(String courseName) throws IOException {
         if (courses.containsKey(courseName)) {
-            //Remove from priorities hashmap
-            String key = getCoursePurpose(courseName);
-            ArrayList<String> container = priorities.get(key);
-            boolean wasPriority = container != null;
-            if (wasPriority) {
-                container.remove(courseName);
-            }
+            loadSchedules();
+            ArrayList<String> container = priorities.get(getCoursePurpose(courseName));
+            forgetCourse(courseName);
 
             //Remove schedules containing this course and save changes.
-            if (wasPriority && container.size() == 0) {
+            if (container != null && container.size() == 0) {
                 schedules.clear();
                 numOldSchedule = 0;
                 saveNewSchedules();
             }
-            else {
-                if (schedules.size() > 0) {
-                    int oldSize = schedules.size();
-                    for (int i = schedules.size() - 1; i >= 0; i--) {
-                        if (schedules.get(i).contains(courseName)) {
-                            schedules.remove(i);
-                        }
-                    }
-                    if (oldSize != schedules.size()) {
-                        numOldSchedule = 0;
-                        saveNewSchedules();
-                    }
+            else if (schedules.removeCourse(courseName) > 0) {
+                try {
+                    scheduleFile.appendRemoval(courseName);
+                    numOldSchedule = schedules.size();
+                } catch (IOException e) {
+                    numOldSchedule = 0;
+                    saveNewSchedules();
                 }
             }
 
-            //Remove from courses file by copying to tmp; if failure, overwrite courses file.
-            File courseFile = new File("semesters/" + semesterName + "/courses.txt");
-            File newFile = new File("semesters/" + semesterName + "/tmp.txt");
-            try {
-                if (newFile.createNewFile()) {
-                    BufferedReader reader = new BufferedReader(new FileReader(courseFile));
-                    BufferedWriter writer = new BufferedWriter(new FileWriter(newFile));
-                    String line;
-                    while ((line = reader.readLine()) != null && !line.startsWith(courseName)) {
-                        writer.write(line + "\n");
-                    }
-                    writer.close();
-                    reader.close();
-                    if (!courseFile.delete() || !newFile.renameTo(courseFile)) {
-                        throw new IOException();
-                    }
-                }
-            } catch (IOException e) {
-                saveCourses();
-            }
-
-            //remove from courses hashmap
-            courses.remove(courseName);
+            logCourseChanges(Collections.singletonList(new String[]{"remove", courseName}));
         }
     }
 
@@ -242,6 +390,15 @@ public class CourseListImpl implements CourseList {
         return courses.get(courseName).credits;
     }
 
+    @Override
+    public long[] getCourseSlots(String courseName) {
+        if (!courses.containsKey(courseName)) {
+            throw new IllegalArgumentException();
+        }
+        long[] slots = courses.get(courseName).slots;
+        return (slots != null) ? slots.clone() : null;
+    }
+
     @Override
     public boolean isCoursePriority(String courseName) {
         if (!courses.containsKey(courseName)) {
@@ -250,14 +407,69 @@ public class CourseListImpl implements CourseList {
         return courses.get(courseName).priority;
     }
 
+    /**
+     * Turning a priority on keeps only the stored schedules containing a course of purpose. Turning it off adds the
+     * schedules that become possible: those without a course of purpose, since every schedule with one was already
+     * possible.
+     * <p>
+     * The list does not keep the bounds the stored schedules were generated with, so the added schedules are bounded by
+     * the smallest and largest stored schedule, the tightest bounds those could have had. Schedules of sizes outside
+     * them that the original bounds allowed are not added. The added schedules also leave out new courses: schedules
+     * with those are what getNewSchedules returns, until the caller saves them, and storing them here would make
+     * getNewSchedules return schedules already stored.
+     */
     @Override
     public void setPriority(String purpose, boolean newPriority) {
+        if (!validPurpose(purpose)) {
+            throw new IllegalArgumentException();
+        }
+        if (!applyPriority(purpose, newPriority)) {
+            return;
+        }
+        try {
+            logCourseChanges(Collections.singletonList(new String[]{"priority", purpose, String.valueOf(newPriority)}));
+            loadSchedules();
+        } catch (IOException e) {
+            throw new RuntimeException();
+        }
+
+        if (!newPriority) {
+            if (!schedules.isEmpty()) {
+                int id = conflicts.purposeId(purpose);
+                if (id != -1) {
+                    long[] excluded = conflicts.purposeMask(id).clone();
+                    for (int i = 0; i < conflicts.size(); i++) {
+                        if (conflicts.course(i).isNew) {
+                            ConflictMatrix.set(excluded, i);
+                        }
+                    }
+                    Iterator<List<String>> iterator = createGenerator().scheduleIterator(schedules.minScheduleSize(),
+                            schedules.maxScheduleSize(), excluded);
+                    while (iterator.hasNext()) {
+                        schedules.add(iterator.next());
+                    }
+                    saveNewSchedules();
+                }
+            }
+        } else {
+            List<Integer> kept = schedules.withPurpose(purpose);
+            if (kept.size() != schedules.size()) {
+                schedules.retainAll(kept);
+                numOldSchedule = 0;
+                saveNewSchedules();
+            }
+        }
+    }
+
+    /**
+     * Changes the priority status of purpose in the courses and the priorities hashmap, without touching schedules.
+     * @return true if the status changed; false otherwise
+     */
+    private boolean applyPriority(String purpose, boolean newPriority) {
         if (priorities.containsKey(purpose) && !newPriority) { // true -> false
-            //TODO: add flag OR do a schedule creation loop w/ the old course list that excludes this course
             for (String courseName : priorities.get(purpose)) courses.get(courseName).priority = false;
             priorities.remove(purpose);
-            schedules = new ArrayList<>();
-            saveNewSchedules();
+            return true;
         } else if (!priorities.containsKey(purpose) && newPriority) { // false -> true
             //Add priority courses to new list
             priorities.put(purpose, new ArrayList<>());
@@ -267,247 +479,375 @@ public class CourseListImpl implements CourseList {
                     priorities.get(purpose).add(course.name);
                 }
             }
-            //TODO: only keep schedules with this priority course
-            schedules = new ArrayList<>();
-            saveNewSchedules();
+            return true;
         }
+        return false;
     }
 
     /**
-     * Appends course to course file
-     * @param course a new course not written to the course file
-     * @throws IOException if the file does not exist or cannot be written to
+     * Applies a course log record to the courses and priorities without logging it again. Added courses are new until
+     * a later saved record; an add record for a course that already exists, as when a set-aside log is replayed over
+     * the course file that covers it, makes that course new again.
+     * @param record the record's fields
+     * @throws IOException if the record is malformed
      */
-    private void saveCourse(Course course) throws IOException {
-        File courseFile = new File("semesters/" + semesterName + "/" + semesterName + "courses.txt");
-        BufferedWriter writer = new BufferedWriter(new FileWriter(courseFile, true));
-        if (courses.size() != 1) {
-            writer.append("\n");
+    private void replay(String[] record) throws IOException {
+        try {
+            switch (record[0]) {
+                case "add":
+                    if (addCourse(record[1], record[2], Integer.parseInt(record[3]), Integer.parseInt(record[4]),
+                            Integer.parseInt(record[5]), (record.length > 6) ? WeeklySlots.decode(record[6]) : null,
+                            true) == null) {
+                        courses.get(record[1]).isNew = true;
+                    }
+                    break;
+                case "saved":
+                    markSaved();
+                    break;
+                case "remove":
+                    forgetCourse(record[1]);
+                    break;
+                case "priority":
+                    applyPriority(record[1], Boolean.parseBoolean(record[2]));
+                    break;
+                default:
+                    throw new IOException();
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException();
         }
-        writer.append(course.toString());
-        writer.close();
     }
 
     /**
-     * Overwrites course file with current list of courses
-     * @throws IOException if the file does not exist or cannot be written to
+     * Appends records to the course log with a single write, or rewrites the course file if the append fails. Once the
+     * log is long enough, it is compacted in the background.
+     * @param records each record's fields
+     * @throws IOException if the course file cannot be rewritten either
      */
-    private void saveCourses() throws IOException {
-        //Overwrites courses file with data from courses hashmap; in case of IOException.
-        File courseFile = new File("semesters/" + semesterName + "/" + semesterName + "courses.txt");
-        BufferedWriter writer = new BufferedWriter(new FileWriter(courseFile));
-        if (courses.size() > 0) {
-            String[] courseNames = getCourseList();
-            writer.append(courses.get(courseNames[0]).toString());
-            for (int i = 1; i < courseNames.length; i++) {
-                writer.append("\n").append(courses.get(courseNames[i]).toString());
+    private void logCourseChanges(List<String[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            courseLog.appendAll(records);
+        } catch (IOException e) {
+            courseLog.compact(courseLines());
+            writeSnapshot();
+            return;
+        }
+        if (courseLog.needsCompaction(courses.size())) {
+            //Captured now, since the courses may change before the compaction finishes; the compacted log is empty
+            byte[] body;
+            try {
+                body = encodeSnapshot(0);
+            } catch (IOException e) {
+                body = null;
+            }
+            long[] scheduleStamp = SemesterSnapshot.stamp(scheduleFile.getPath());
+            byte[] snapshotBody = body;
+            try {
+                courseLog.compactInBackground(courseLines(), () -> {
+                    //The set-aside log is gone, and the new log only exists once a later change is appended
+                    long[][] sources = {SemesterSnapshot.stamp(courseLog.getSnapshotPath()), SemesterSnapshot.absent(),
+                            SemesterSnapshot.absent(), scheduleStamp};
+                    if (snapshotBody != null) {
+                        writeSnapshot(sources, snapshotBody);
+                    }
+                });
+            } catch (IOException ignored) {
+                //Compaction is retried after the next change
             }
         }
-        writer.close();
     }
 
-    @Override
-    public int getExistingScheduleCount() {
-        return numOldSchedule;
+    /**
+     * Background log compaction leaves these files alone, so between this list's own calls they only change if another
+     * instance or process edits the semester.
+     * @return the current stamps of the course log and the schedule file
+     */
+    long[][] editStamps() {
+        return new long[][]{SemesterSnapshot.stamp(courseLog.getLogPath()), SemesterSnapshot.stamp(scheduleFile.getPath())};
     }
 
     /**
-     * Undoes the last course selection by re-adding all courses removed for conflicts with the last course (identified
-     * by the corresponding entry in lens) and removing the last course in schedule.
-     * @param lens the lengths array
-     * @param i the index being removed
-     * @param remain the set of remaining courses
-     * @param removed the stack of removed courses
-     * @param schedule the schedule linked list
+     * Releases the semester's open files without writing a semester snapshot, for a list whose files another instance
+     * or process has changed: its state is out of date, and a snapshot of it would be stamped as current.
+     * @throws IOException if the log cannot be closed
      */
-    private void undoLastSelect(int[] lens, int i, Set<String> remain, Stack<String> removed, LinkedList<String> schedule) {
-        if (i < lens.length) {
-            for (; lens[i] > 0; lens[i]--) {
-                String remVal = removed.pop();
-                remain.add(remVal);
-            }
+    void discard() throws IOException {
+        courseLog.close();
+    }
+
+    /**
+     * @return the current stamps of the files a semester snapshot is taken from
+     */
+    private long[][] sourceStamps() {
+        return new long[][]{SemesterSnapshot.stamp(courseLog.getSnapshotPath()),
+                SemesterSnapshot.stamp(courseLog.getCompactingPath()), SemesterSnapshot.stamp(courseLog.getLogPath()),
+                SemesterSnapshot.stamp(scheduleFile.getPath())};
+    }
+
+    /**
+     * Indexes the schedule file if a removal left its index stale, which may compact it, so this must run before the
+     * schedule file is stamped.
+     * @param logRecords the number of course log records the snapshot's sources hold
+     * @return the semester snapshot's contents for the current courses, priorities and schedule file index
+     * @throws IOException if the schedule file must be indexed and cannot be read
+     */
+    private byte[] encodeSnapshot(int logRecords) throws IOException {
+        SemesterSnapshot snapshot = new SemesterSnapshot();
+        snapshot.logRecords = logRecords;
+        for (int i = 0; i < conflicts.size(); i++) {
+            snapshot.courses.add(conflicts.course(i));
         }
-        schedule.removeLast();
+        snapshot.priorities.addAll(priorities.keySet());
+        snapshot.scheduleOffsets = scheduleFile.getOffsets();
+        snapshot.scheduleNames.addAll(scheduleFile.getNames());
+        return snapshot.encode();
     }
 
     /**
-     * Removes a course from the remaining course set, adds it to the removed course stack, and increments the
-     * corresponding index in lens.
-     * @param lens the lengths array
-     * @param i the index being removed
-     * @param iterator an iterator over the set of remaining courses
-     * @param removed the stack of removed courses
+     * Writes the semester snapshot of the current state.
      */
-    private void moveCourse(int[] lens, int i, Iterator<String> iterator, Stack<String> removed, String course) {
-        iterator.remove();
-        removed.add(course);
-        lens[i]++;
+    private void writeSnapshot() {
+        try {
+            byte[] body = encodeSnapshot(courseLog.getLogRecords());
+            writeSnapshot(sourceStamps(), body);
+        } catch (IOException ignored) {
+            //The text files are loaded instead
+        }
+    }
+
+    /**
+     * Writes the semester snapshot. A failed write only costs the next load its speed-up, so it is not reported.
+     */
+    private void writeSnapshot(long[][] sources, byte[] body) {
+        try {
+            SemesterSnapshot.write(snapshotPath, sources, body);
+        } catch (IOException ignored) {
+            //The text files are loaded instead
+        }
+    }
+
+    /**
+     * @return the course file's lines for the current courses: those whose schedules were saved, a saved line, then the
+     * new ones, each in alphabetical order
+     */
+    private List<String> courseLines() {
+        ArrayList<String> lines = new ArrayList<>();
+        ArrayList<String> newLines = new ArrayList<>();
+        for (String courseName : getCourseList()) {
+            Course course = courses.get(courseName);
+            (course.isNew ? newLines : lines).add(course.toString());
+        }
+        //Always written, so that a course file without one is known to predate saved records
+        lines.add("saved");
+        lines.addAll(newLines);
+        return lines;
+    }
+
+    /**
+     * Marks every current course as no longer new, since schedules have been saved with it.
+     * @return true if a course was new; false otherwise
+     */
+    private boolean markSaved() {
+        boolean changed = false;
+        for (Course course : courses.values()) {
+            changed |= course.isNew;
+            course.isNew = false;
+        }
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        courseLog.close();
+        writeSnapshot();
+    }
+
+    @Override
+    public int getExistingScheduleCount() {
+        return numOldSchedule;
+    }
+
+    @Override
+    public ArrayList<List<String>> getSavedSchedules(int offset, int limit) throws IOException {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (!schedulesLoaded) {
+            return scheduleFile.read(offset, limit);
+        }
+        ArrayList<List<String>> window = new ArrayList<>();
+        int position = 0;
+        for (int id = 0; id < schedules.idLimit() && window.size() < limit; id++) {
+            List<String> schedule = schedules.get(id);
+            if (schedule != null && position++ >= offset) {
+                window.add(schedule);
+            }
+        }
+        return window;
+    }
+
+    @Override
+    public ArrayList<List<String>> getSchedulesWithCourse(String courseName) {
+        if (!courses.containsKey(courseName)) {
+            throw new IllegalArgumentException();
+        }
+        try {
+            loadSchedules();
+        } catch (IOException e) {
+            throw new RuntimeException();
+        }
+        ArrayList<List<String>> found = new ArrayList<>();
+        for (int id : schedules.withCourse(courseName)) {
+            found.add(schedules.get(id));
+        }
+        return found;
+    }
+
+    @Override
+    public void setScheduleEngine(ScheduleEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException();
+        }
+        this.engine = engine;
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        searchListener = listener;
     }
 
     @Override
     public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses) {
+        return getSchedules(minCourses, maxCourses, 1);
+    }
+
+    @Override
+    public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int parallelism) {
         //TODO: Determine if editing output affects schedules' value
-        //TODO: if numOldSchedule > 0 && newCourses, ensure presence of 1+ 'new' course
-        ArrayList<Set<String>> maxSchedules = new ArrayList<>();
-        if (minCourses <= maxCourses && minCourses >= priorities.size()) {
-            Set<String> remainingCourses = new HashSet<>(courses.keySet());
-            Stack<String> removedCourses = new Stack<>();
-            int[] lengths = new int[maxCourses];
-
-            LinkedList<String> schedule = new LinkedList<>();
-            String[] priorPurposes = priorities.keySet().toArray(new String[0]);
-            while (courses.size() - lengths[0] >= minCourses) {
-                //Add courses for all priorities
-                int i = schedule.size();
-                for (; i < priorities.size(); i++) {
-                    Course newPCourse = null;
-                    //Select priority course
-                    for (String course : priorities.get(priorPurposes[i])) {
-                        if (remainingCourses.contains(course)) {
-                            newPCourse = courses.get(course);
-                            break;
-                        }
-                    }
-                    if (newPCourse == null && i == 0) {
-                        break;
-                    }
-                    else if (newPCourse == null) {
-                        //Undo last selection
-                        undoLastSelect(lengths, i, remainingCourses, removedCourses, schedule);
-                        i -= 2;
-                    } else {
-                        //Add to schedule
-                        schedule.add(newPCourse.name);
-                        remainingCourses.remove(newPCourse.name);
-                        removedCourses.add(newPCourse.name);
-                        lengths[i]++;
-                        Iterator<String> iterator = remainingCourses.iterator();
-                        //Remove conflicts if further courses can be added.
-                        if (schedule.size() != maxCourses) {
-                            while (iterator.hasNext()) {
-                                String iterCourse = iterator.next();
-                                if (courses.get(iterCourse).conflicts(newPCourse)) {
-                                    moveCourse(lengths, i + 1, iterator, removedCourses, iterCourse);
-                                }
-                            }
-                        }
-                    }
-                }
-                // If missing priority courses, break loop
-                // Else if schedule can only contain priority courses, add to schedule list
-                // Else, enter non-priority course loop
-                if (priorities.size() > 0 && schedule.isEmpty()) {
-                    break;
-                }
-                else if (priorities.size() > 0 && schedule.size() == maxCourses) {
-                    maxSchedules.add(new HashSet<>(schedule));
-                }
-                else {
-                    //Produce all possible schedules with this round's priority courses
-                    boolean back = false;
-                    int maxLength = lengths[i] + remainingCourses.size();
-                    while (maxLength - lengths[i] >= minCourses - i) {
-                        //Fill up a schedule
-                        while (schedule.size() < maxCourses && remainingCourses.size() > 0) {
-                            //Get course
-                            Iterator<String> iterator = remainingCourses.iterator();
-                            Course newCourse = courses.get(iterator.next());
-                            //Add to schedule
-                            moveCourse(lengths, schedule.size(), iterator, removedCourses, newCourse.name);
-                            schedule.add(newCourse.name);
-                            //Remove conflicts if further courses can be added
-                            if (schedule.size() != maxCourses) {
-                                while (iterator.hasNext()) {
-                                    String iterCourse = iterator.next();
-                                    if (courses.get(iterCourse).conflicts(newCourse)) {
-                                        moveCourse(lengths, schedule.size(), iterator, removedCourses, iterCourse);
-                                    }
-                                }
-                            }
-                            back = false;
-                        }
-                        if (schedule.size() == priorities.size()) {
-                            break;
-                        }
-                        //Add schedule if it meets length requirements and isn't a subset of a produced schedule
-                        if (schedule.size() >= minCourses && !back) {
-                            boolean add = true;
-                            for (Set<String> exSchedule : maxSchedules) {
-                                if (exSchedule.size() >= schedule.size() && exSchedule.containsAll(schedule)) {
-                                    add = false;
-                                    break;
-                                }
-                            }
-                            if (add) {
-                                maxSchedules.add(new HashSet<>(schedule));
-                            }
-                        }
-                        //Undo last selection
-                        undoLastSelect(lengths, schedule.size(), remainingCourses, removedCourses, schedule);
-                        back = true;
-                    }
-                }
+        return createGenerator().getSchedules(minCourses, maxCourses, parallelism);
+    }
 
-                //Undo non-priority selections and one priority selection, if possible
-                while (schedule.size() >= priorities.size() && schedule.size() > 0) {
-                    undoLastSelect(lengths, schedule.size(), remainingCourses, removedCourses, schedule);
-                }
+    @Override
+    public ScheduleResult getSchedules(int minCourses, int maxCourses, int parallelism, SearchLimits limits) {
+        return createGenerator().getSchedules(minCourses, maxCourses, parallelism, limits);
+    }
+
+    @Override
+    public ArrayList<List<String>> getNewSchedules(int minCourses, int maxCourses) {
+        return createGenerator().getNewSchedules(minCourses, maxCourses);
+    }
+
+    @Override
+    public ArrayList<List<String>> getBestSchedules(int minCourses, int maxCourses, ScheduleScorer scorer, int k) {
+        return createGenerator().getBestSchedules(minCourses, maxCourses, scorer, k);
+    }
+
+    @Override
+    public Iterator<List<String>> scheduleIterator(int minCourses, int maxCourses) {
+        return createGenerator().scheduleIterator(minCourses, maxCourses);
+    }
+
+    @Override
+    public BoundedScheduleIterator scheduleIterator(int minCourses, int maxCourses, SearchLimits limits) {
+        return createGenerator().scheduleIterator(minCourses, maxCourses, limits);
+    }
+
+    @Override
+    public Stream<List<String>> streamSchedules(int minCourses, int maxCourses) {
+        return createGenerator().streamSchedules(minCourses, maxCourses);
+    }
+
+    @Override
+    public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int minCredits, int maxCredits) {
+        return createGenerator().getSchedules(minCourses, maxCourses, minCredits, maxCredits);
+    }
+
+    /**
+     * @return a generator over a snapshot of the current courses and priorities, using the current engine and search
+     * listener
+     */
+    ScheduleGenerator createGenerator() {
+        int[] priorPurposes = getPriorityPurposeIds();
+        ScheduleProblem base = (priorPurposes != null) ? new ScheduleProblem(conflicts, priorPurposes, 0, 0) : null;
+        long[] newCourses = new long[conflicts.words()];
+        for (int i = 0; i < conflicts.size(); i++) {
+            if (conflicts.course(i).isNew) {
+                ConflictMatrix.set(newCourses, i);
             }
         }
+        int purposeCount = (int) courses.values().stream().map(course -> course.purpose).distinct().count();
+        return new ScheduleGenerator(semesterName, base, priorities.size(), newCourses, purposeCount, engine,
+                searchListener);
+    }
 
-        //Turn schedules from a Set<> to an ArrayList<>
-        ArrayList<List<String>> finalSchedules = new ArrayList<>();
-        for (Set<String> exSchedule: maxSchedules) {
-            finalSchedules.add(new ArrayList<>(exSchedule));
+    /**
+     * @return the interned ids of all priority purposes, or null if a priority purpose has no courses
+     */
+    private int[] getPriorityPurposeIds() {
+        int[] ids = new int[priorities.size()];
+        int i = 0;
+        for (String purpose : priorities.keySet()) {
+            ids[i] = conflicts.purposeId(purpose);
+            if (ids[i] == -1 || ConflictMatrix.isEmpty(conflicts.purposeMask(ids[i]))) {
+                return null;
+            }
+            i++;
         }
-        return finalSchedules;
+        Arrays.sort(ids);
+        return ids;
     }
 
     public boolean addSchedules(ArrayList<List<String>> newSchedules) {
         if (newSchedules == null) {
             return false;
         }
-        schedules.addAll(newSchedules);
-        for (Course course : courses.values()) {
-            course.isNew = false;
+        try {
+            loadSchedules();
+        } catch (IOException e) {
+            throw new RuntimeException();
+        }
+        for (List<String> schedule : newSchedules) {
+            schedules.add(schedule);
         }
         saveNewSchedules();
+        if (markSaved()) {
+            //Logged after the schedules, so a failure in between leaves the courses new rather than lose the delta
+            try {
+                logCourseChanges(Collections.singletonList(new String[]{"saved"}));
+            } catch (IOException e) {
+                throw new RuntimeException();
+            }
+        }
         return true;
     }
 
     /**
-     * @param list the unaltered string form of an array
-     * @return list with the starting and ending brackets removed
-     */
-    private String remBrackets(String list) {
-        return list.substring(1, list.length()-1);
-    }
-
-    /**
-     * Overwrites or updates physical file with generated schedule information, depending on numOldSchedule
+     * Overwrites or appends to the schedule file, depending on numOldSchedule. Callers must have loaded the saved
+     * schedules into the store.
      */
     private void saveNewSchedules() {
-        Path schedulePath = Path.of("semesters/" + semesterName + "/" + semesterName + "schedules.txt");
         try {
             if (schedules.size() == 0) {
-                if (Files.exists(schedulePath)) {
-                    if (!schedulePath.toFile().delete()) {
-                        throw new IOException();
-                    }
-                }
+                scheduleFile.delete();
             } else {
-                //Write schedules to file, appending if necessary
-                schedulePath.toFile().createNewFile();
-                int i = getExistingScheduleCount();
-                BufferedWriter writer = new BufferedWriter(new FileWriter(schedulePath.toFile(), i != 0));
-
-                if (i == 0) {
-                    writer.append(remBrackets(schedules.get(i++).toString()));
+                //Schedules are saved as soon as they change, so the unsaved schedules have the last ids
+                boolean append = getExistingScheduleCount() != 0;
+                ArrayList<List<String>> unsaved = new ArrayList<>();
+                int id = append ? schedules.idLimit() - (schedules.size() - getExistingScheduleCount()) : 0;
+                for (; id < schedules.idLimit(); id++) {
+                    List<String> schedule = schedules.get(id);
+                    if (schedule != null) {
+                        unsaved.add(schedule);
+                    }
                 }
-                for (; i < schedules.size(); i++) {
-                    writer.append("\n").append(remBrackets(schedules.get(i).toString()));
+                if (append) {
+                    scheduleFile.append(unsaved);
+                } else {
+                    scheduleFile.rewrite(unsaved);
                 }
-                writer.close();
             }
             numOldSchedule = schedules.size();
         } catch (IOException e) {
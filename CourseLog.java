@@ -0,0 +1,251 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A CourseLog persists a semester's courses as a snapshot plus an append-only log of the changes made since. The
+ * snapshot is the course file, one course per line; each log line is one record:
+ * <ul>
+ *     <li>add, name, purpose, startTime, endTime, credits[, slots]</li>
+ *     <li>remove, name</li>
+ *     <li>priority, purpose, true|false</li>
+ *     <li>saved, once schedules are saved with every course added before it</li>
+ * </ul>
+ * A saved line in the course file stands for a saved record at that point.
+ * <p>
+ * Every change, or batch of changes, is a single append. Once the log holds more records than the compaction threshold
+ * and the number of courses, the current log is set aside and a new snapshot is written on a background thread while
+ * later changes go to a fresh log. Loading replays the snapshot, the set-aside log if compaction did not finish, and
+ * the current log. Replaying records that a snapshot already includes leaves the courses as the records left them:
+ * an add record for a course the snapshot holds makes it new again, and the saved records that followed it make it old
+ * again, so a compaction interrupted at any point loses neither courses nor which of them are new.
+ */
+public class CourseLog implements Closeable {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1024;
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "course-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final Path compactingPath;
+    private final int compactionThreshold;
+    private BufferedWriter writer;
+    private int logRecords;
+    private Future<?> compaction;
+
+    /**
+     * @param folderPath the semester's folder
+     * @param semesterName the name of the semester
+     * @param compactionThreshold the number of log records below which the log is never compacted
+     */
+    public CourseLog(Path folderPath, String semesterName, int compactionThreshold) {
+        snapshotPath = folderPath.resolve(semesterName + "courses.txt");
+        logPath = folderPath.resolve(semesterName + "courses.log");
+        compactingPath = folderPath.resolve(semesterName + "courses.log.compacting");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * @return the snapshot file, which exists once the semester has been created
+     */
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public Path getLogPath() {
+        return logPath;
+    }
+
+    public Path getCompactingPath() {
+        return compactingPath;
+    }
+
+    /**
+     * @return the number of records in the log and the set-aside log
+     */
+    public synchronized int getLogRecords() {
+        return logRecords;
+    }
+
+    /**
+     * Sets the record count instead of loading the log, for a semester restored from a
+     * <a href="#{@link}">{@link SemesterSnapshot}</a>.
+     * @param logRecords the number of records in the log and the set-aside log
+     */
+    public synchronized void restore(int logRecords) {
+        this.logRecords = logRecords;
+    }
+
+    /**
+     * Snapshot lines are returned as a priority record for each priority purpose, followed by add records, and a saved
+     * line as a saved record.
+     * @return every record needed to rebuild the courses, in the order they must be applied
+     * @throws IOException if a file cannot be read
+     */
+    public synchronized List<String[]> load() throws IOException {
+        ArrayList<String[]> records = new ArrayList<>();
+        if (Files.exists(snapshotPath)) {
+            BufferedReader reader = new BufferedReader(new FileReader(snapshotPath.toFile()));
+            String line;
+            while ((line = reader.readLine()) != null && !"".equals(line)) {
+                String[] elements = line.split(", ");
+                if (elements[0].equals("saved") && elements.length == 1) {
+                    records.add(elements);
+                    continue;
+                }
+                if (elements[5].equals("true")) {
+                    records.add(new String[]{"priority", elements[1], "true"});
+                }
+                //The priority field is dropped; slots, if any, follow it
+                String[] add = new String[(elements.length > 6) ? 7 : 6];
+                add[0] = "add";
+                System.arraycopy(elements, 0, add, 1, 5);
+                if (elements.length > 6) {
+                    add[6] = elements[6];
+                }
+                records.add(add);
+            }
+            reader.close();
+        }
+        logRecords = 0;
+        for (Path path : new Path[]{compactingPath, logPath}) {
+            if (Files.exists(path)) {
+                BufferedReader reader = new BufferedReader(new FileReader(path.toFile()));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!"".equals(line)) {
+                        records.add(line.split(", "));
+                        logRecords++;
+                    }
+                }
+                reader.close();
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Appends records with a single write and flush.
+     * @param records each record's fields
+     * @throws IOException if the log cannot be written to
+     */
+    public synchronized void appendAll(List<String[]> records) throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(logPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        StringBuilder batch = new StringBuilder();
+        for (String[] record : records) {
+            batch.append(String.join(", ", record)).append(System.lineSeparator());
+        }
+        writer.write(batch.toString());
+        writer.flush();
+        logRecords += records.size();
+    }
+
+    /**
+     * @param courseCount the number of courses in the semester
+     * @return true if the log is long enough to compact and no compaction is running; false otherwise
+     */
+    public synchronized boolean needsCompaction(int courseCount) {
+        return logRecords > Math.max(compactionThreshold, courseCount) && (compaction == null || compaction.isDone());
+    }
+
+    /**
+     * Sets the current log aside and writes the snapshot on a background thread.
+     * @param snapshot the current courses, one snapshot line each
+     * @param afterSnapshot run on the background thread once the snapshot is written
+     * @throws IOException if the log cannot be set aside
+     */
+    public synchronized void compactInBackground(List<String> snapshot, Runnable afterSnapshot) throws IOException {
+        setLogAside();
+        compaction = COMPACTOR.submit(() -> {
+            try {
+                writeSnapshot(snapshot);
+                afterSnapshot.run();
+            } catch (IOException ignored) {
+                //The set-aside log is kept and replayed until a later compaction succeeds
+            }
+        });
+    }
+
+    /**
+     * Replaces the snapshot and clears the log on the calling thread.
+     * @param snapshot the current courses, one snapshot line each
+     * @throws IOException if the files cannot be written to
+     */
+    public synchronized void compact(List<String> snapshot) throws IOException {
+        awaitCompaction();
+        setLogAside();
+        writeSnapshot(snapshot);
+    }
+
+    /**
+     * Waits for a background compaction to finish and closes the log.
+     * @throws IOException if the log cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        awaitCompaction();
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Moves the current log's records to the set-aside log, which may still hold records from a failed compaction.
+     */
+    private void setLogAside() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (Files.exists(logPath)) {
+            if (Files.exists(compactingPath)) {
+                Files.write(compactingPath, Files.readAllBytes(logPath), StandardOpenOption.APPEND);
+                Files.delete(logPath);
+            } else {
+                Files.move(logPath, compactingPath);
+            }
+        }
+        logRecords = 0;
+    }
+
+    /**
+     * Atomically replaces the snapshot, then drops the set-aside log it includes.
+     */
+    private void writeSnapshot(List<String> snapshot) throws IOException {
+        Path tmpPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        BufferedWriter snapshotWriter = Files.newBufferedWriter(tmpPath);
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (i > 0) {
+                snapshotWriter.newLine();
+            }
+            snapshotWriter.write(snapshot.get(i));
+        }
+        snapshotWriter.close();
+        Files.move(tmpPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(compactingPath);
+    }
+
+    private void awaitCompaction() {
+        Future<?> running = compaction;
+        if (running != null) {
+            try {
+                running.get();
+            } catch (Exception ignored) {
+                //Failures are left for the next compaction
+            }
+        }
+    }
+}
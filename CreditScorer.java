@@ -0,0 +1,21 @@
+/**
+ * Scores a schedule by its total credits.
+ */
+public class CreditScorer implements ScheduleScorer {
+    @Override
+    public double score(ScheduleProblem problem, long[] schedule) {
+        int total = 0;
+        for (int i = ConflictMatrix.nextSetBit(schedule, 0); i != -1; i = ConflictMatrix.nextSetBit(schedule, i + 1)) {
+            total += problem.credits[i];
+        }
+        return total;
+    }
+
+    /**
+     * Adds the credits of the highest-credit candidates that still fit to the credits selected so far.
+     */
+    @Override
+    public double bound(ScheduleProblem problem, long[] partial, int size, long[] candidates) {
+        return score(problem, partial) + ScheduleProblem.largestSum(problem.credits, candidates, problem.maxCourses - size);
+    }
+}
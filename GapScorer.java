@@ -0,0 +1,49 @@
+/**
+ * Scores a schedule by the idle time between its courses, negated so that schedules with fewer gaps score higher. Idle
+ * time is the span from the earliest start to the latest end minus the time spent in class.
+ */
+public class GapScorer implements ScheduleScorer {
+    @Override
+    public double score(ScheduleProblem problem, long[] schedule) {
+        return -idleTime(problem, schedule);
+    }
+
+    /**
+     * Adding a course outside the current span never shortens the idle time, so only the longest candidates that fit
+     * inside the span can reduce it.
+     */
+    @Override
+    public double bound(ScheduleProblem problem, long[] partial, int size, long[] candidates) {
+        if (size == 0) {
+            return 0;
+        }
+        int spanStart = Integer.MAX_VALUE;
+        int spanEnd = Integer.MIN_VALUE;
+        for (int i = ConflictMatrix.nextSetBit(partial, 0); i != -1; i = ConflictMatrix.nextSetBit(partial, i + 1)) {
+            spanStart = Math.min(spanStart, problem.startTimes[i]);
+            spanEnd = Math.max(spanEnd, problem.endTimes[i]);
+        }
+        long[] inside = new long[problem.words];
+        int[] lengths = new int[problem.courseCount];
+        for (int i = ConflictMatrix.nextSetBit(candidates, 0); i != -1; i = ConflictMatrix.nextSetBit(candidates, i + 1)) {
+            if (problem.startTimes[i] >= spanStart && problem.endTimes[i] <= spanEnd) {
+                ConflictMatrix.set(inside, i);
+                lengths[i] = problem.endTimes[i] - problem.startTimes[i];
+            }
+        }
+        int fillable = ScheduleProblem.largestSum(lengths, inside, problem.maxCourses - size);
+        return -Math.max(0, idleTime(problem, partial) - fillable);
+    }
+
+    private int idleTime(ScheduleProblem problem, long[] schedule) {
+        int spanStart = Integer.MAX_VALUE;
+        int spanEnd = Integer.MIN_VALUE;
+        int busy = 0;
+        for (int i = ConflictMatrix.nextSetBit(schedule, 0); i != -1; i = ConflictMatrix.nextSetBit(schedule, i + 1)) {
+            spanStart = Math.min(spanStart, problem.startTimes[i]);
+            spanEnd = Math.max(spanEnd, problem.endTimes[i]);
+            busy += problem.endTimes[i] - problem.startTimes[i];
+        }
+        return (busy == 0) ? 0 : spanEnd - spanStart - busy;
+    }
+}
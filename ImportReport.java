@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An ImportReport lists the outcome of every row of a bulk course import, in input order.
+ */
+public class ImportReport {
+    public enum Status {
+        ADDED,
+        //A course with the same name already exists, or appeared earlier in the import
+        DUPLICATE,
+        //The times are outside the semester's timeframe or the course ends before it starts
+        OUT_OF_RANGE,
+        //The row could not be parsed
+        MALFORMED
+    }
+
+    public static class Row {
+        //1-based position in the input; the line number for CSV imports
+        public final int row;
+        //Null if the row was malformed before a name could be read
+        public final String courseName;
+        public final Status status;
+
+        public Row(int row, String courseName, Status status) {
+            this.row = row;
+            this.courseName = courseName;
+            this.status = status;
+        }
+
+        public String toString() {
+            return row + ", " + courseName + ", " + status;
+        }
+    }
+
+    private final ArrayList<Row> rows;
+    private int added;
+
+    public ImportReport() {
+        rows = new ArrayList<>();
+    }
+
+    /**
+     * Records the outcome of the next row.
+     */
+    public void add(int row, String courseName, Status status) {
+        rows.add(new Row(row, courseName, status));
+        if (status == Status.ADDED) {
+            added++;
+        }
+    }
+
+    /**
+     * @return every row's outcome, in input order
+     */
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * @return the number of courses added
+     */
+    public int getAddedCount() {
+        return added;
+    }
+
+    /**
+     * @return the number of rows that were not added
+     */
+    public int getRejectedCount() {
+        return rows.size() - added;
+    }
+}
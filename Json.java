@@ -0,0 +1,284 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reading and writing for <a href="#{@link}">{@link PlanningServer}</a>. Objects parse to a
+ * <a href="#{@link}">{@link Map}</a> in key order, arrays to a <a href="#{@link}">{@link List}</a>, numbers to a
+ * <a href="#{@link}">{@link Double}</a>, and true, false and null to their Java counterparts.
+ * <p>
+ * Values nest at most MAX_DEPTH arrays and objects deep, so a request body cannot exhaust the parser's stack.
+ */
+public class Json {
+    public static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int position;
+    //The number of arrays and objects being parsed
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param text a single JSON value, optionally surrounded by whitespace
+     * @return the parsed value
+     * @throws IllegalArgumentException if text is not valid JSON or nests deeper than MAX_DEPTH
+     */
+    public static Object parse(String text) {
+        Json parser = new Json(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw new IllegalArgumentException();
+        }
+        return value;
+    }
+
+    /**
+     * @param text a JSON object
+     * @return the parsed object
+     * @throws IllegalArgumentException if text is not a valid JSON object or nests deeper than MAX_DEPTH
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException();
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Appends value as a JSON string, escaping quotes, backslashes and control characters; null is appended as null.
+     */
+    public static StringBuilder quote(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * @return value as a JSON string
+     */
+    public static String quote(String value) {
+        return quote(new StringBuilder(), value).toString();
+    }
+
+    /**
+     * Appends values as a JSON array of strings.
+     */
+    public static StringBuilder array(StringBuilder out, Collection<String> values) {
+        out.append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                out.append(',');
+            }
+            quote(out, value);
+            first = false;
+        }
+        return out.append(']');
+    }
+
+    private Object value() {
+        skipWhitespace();
+        if (position == text.length()) {
+            throw new IllegalArgumentException();
+        }
+        char c = text.charAt(position);
+        if ((c == '{' || c == '[') && depth == MAX_DEPTH) {
+            throw new IllegalArgumentException();
+        }
+        switch (c) {
+            case '{':
+                return object();
+            case '[':
+                return array();
+            case '"':
+                return string();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                return number();
+        }
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> members = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return members;
+        }
+        depth++;
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw new IllegalArgumentException();
+            }
+            String key = string();
+            skipWhitespace();
+            expect(':');
+            members.put(key, value());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                depth--;
+                return members;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> elements = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return elements;
+        }
+        depth++;
+        while (true) {
+            elements.add(value());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                depth--;
+                return elements;
+            }
+        }
+    }
+
+    private String string() {
+        StringBuilder out = new StringBuilder();
+        position++;
+        while (true) {
+            char c = peek();
+            position++;
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c < 0x20) {
+                throw new IllegalArgumentException();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = peek();
+            position++;
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append(escaped);
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw new IllegalArgumentException();
+                    }
+                    out.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException();
+            }
+        }
+    }
+
+    private Double number() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) != -1) {
+            position++;
+        }
+        //Double.valueOf also accepts forms JSON does not, such as a leading plus, which are harmless here
+        return Double.valueOf(text.substring(start, position));
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, position)) {
+            throw new IllegalArgumentException();
+        }
+        position += word.length();
+        return value;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw new IllegalArgumentException();
+        }
+        position++;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text has ended
+     */
+    private char peek() {
+        if (position == text.length()) {
+            throw new IllegalArgumentException();
+        }
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.time.LocalTime;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A MinuteTable holds a block's float representation of every minute of the day, computed once, so converting a time
+ * in HH:MM format costs a five-character parse and an array read instead of LocalTime.parse and Duration arithmetic.
+ * Times in any other format are left to the caller's original conversion.
+ */
+public class MinuteTable {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final float[] values;
+
+    /**
+     * @param conversion the conversion the table replaces; called once per minute of the day
+     */
+    public MinuteTable(ToDoubleFunction<LocalTime> conversion) {
+        values = new float[MINUTES_PER_DAY];
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            values[minute] = (float) conversion.applyAsDouble(LocalTime.ofSecondOfDay(minute * 60L));
+        }
+    }
+
+    /**
+     * @param minuteOfDay from 0 to MINUTES_PER_DAY - 1
+     * @return the conversion's result for the minute
+     */
+    public float get(int minuteOfDay) {
+        return values[minuteOfDay];
+    }
+
+    /**
+     * @param time a time string, i.e. 17:35
+     * @return the minutes since midnight if time is a valid time in HH:MM format; -1 otherwise
+     */
+    public static int minuteOfDay(String time) {
+        if (time == null || time.length() != 5 || time.charAt(2) != ':') {
+            return -1;
+        }
+        int hour = digits(time.charAt(0), time.charAt(1));
+        int minute = digits(time.charAt(3), time.charAt(4));
+        return (hour >= 0 && hour < 24 && minute >= 0 && minute < 60) ? hour * 60 + minute : -1;
+    }
+
+    /**
+     * @return the two-digit number, or -1 if either character is not a digit
+     */
+    private static int digits(char tens, char ones) {
+        return (tens >= '0' && tens <= '9' && ones >= '0' && ones <= '9') ? (tens - '0') * 10 + (ones - '0') : -1;
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a ScheduleEngine over a ScheduleProblem on several threads. The search tree is split at every priority choice
+ * and at the first non-priority choice into restricted subproblems, which a ForkJoinPool searches with work stealing.
+ * Results are concatenated in the order the subtrees appear in the tree, so the output does not depend on scheduling.
+ */
+public class ParallelScheduleSearch {
+    private ParallelScheduleSearch() {
+    }
+
+    /**
+     * @param engine the engine to run on every subtree
+     * @param problem an unrestricted problem
+     * @param parallelism the number of worker threads
+     * @return every schedule of problem, each a bitset of course ordinals
+     */
+    public static List<long[]> search(ScheduleEngine engine, ScheduleProblem problem, int parallelism) {
+        return search(engine, problem, parallelism, new SearchStatistics(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as <a href="#{@link}">{@link #search(ScheduleEngine, ScheduleProblem, int) search}</a>, adding the work of
+     * the split and of every subtree to statistics. Splitting makes the priority selections, so it is timed as the
+     * priority phase. Every subtree shares the stop condition of statistics.
+     * <p>
+     * If statistics has a stop condition, an interrupt of the calling thread also stops every subtree, and the interrupt
+     * status is set again before returning. Otherwise the search runs to completion and interrupts are deferred likewise.
+     * <p>
+     * Once maxResults schedules are found, every subtree stops; the schedules kept are the first found, not the first
+     * in tree order, but stay in tree order relative to each other.
+     * @param statistics the statistics to add to
+     * @param maxResults the maximum number of schedules to return
+     */
+    public static List<long[]> search(ScheduleEngine engine, ScheduleProblem problem, int parallelism,
+                                      SearchStatistics statistics, long maxResults) {
+        ArrayList<ScheduleProblem> subtrees = new ArrayList<>();
+        statistics.enterPhase(true);
+        split(problem, 0, new long[problem.words], problem.candidates, subtrees, statistics);
+        statistics.pause();
+        if (subtrees.isEmpty()) {
+            return new ArrayList<>();
+        }
+        SearchStatistics[] subtreeStatistics = new SearchStatistics[subtrees.size()];
+        //Waiting clears the caller's interrupt status, so workers cannot see it and are told through stopRequested
+        AtomicBoolean stopRequested = new AtomicBoolean();
+        boolean interrupted = false;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ForkJoinTask<List<long[]>> task = pool.submit(new SubtreeTask(engine, subtrees, statistics,
+                    subtreeStatistics, stopRequested, new AtomicLong(maxResults), 0, subtrees.size()));
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stopRequested.set(statistics.hasStopCondition());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw (Error) e.getCause();
+                }
+            }
+        } finally {
+            pool.shutdown();
+            for (SearchStatistics subtree : subtreeStatistics) {
+                if (subtree != null) {
+                    statistics.add(subtree);
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Collects the subtrees below the given priority picks, in the order a depth-first search visits them.
+     * @param depth the number of priority picks made
+     * @param picks the priority picks made
+     * @param avail the courses compatible with every pick
+     * @param subtrees the list to add subtrees to
+     * @param statistics the statistics to count the picks and choices in
+     */
+    private static void split(ScheduleProblem problem, int depth, long[] picks, long[] avail,
+                              List<ScheduleProblem> subtrees, SearchStatistics statistics) {
+        if (depth < problem.priorityMasks.length) {
+            long[] cand = new long[problem.words];
+            ConflictMatrix.and(avail, problem.priorityMasks[depth], cand);
+            for (int c = ConflictMatrix.nextSetBit(cand, 0); c != -1; c = ConflictMatrix.nextSetBit(cand, c + 1)) {
+                long[] newPicks = picks.clone();
+                ConflictMatrix.set(newPicks, c);
+                long[] newAvail = new long[problem.words];
+                ConflictMatrix.andNot(avail, problem.rows[c], newAvail);
+                statistics.nodes++;
+                statistics.conflictChecks++;
+                split(problem, depth + 1, newPicks, newAvail, subtrees, statistics);
+            }
+            statistics.backtracks++;
+        } else if (depth == problem.maxCourses || ConflictMatrix.isEmpty(avail)) {
+            subtrees.add(problem.restrict(picks, avail));
+        } else {
+            //Each first non-priority choice excludes the choices before it
+            long[] remaining = avail.clone();
+            for (int c = ConflictMatrix.nextSetBit(avail, 0); c != -1; c = ConflictMatrix.nextSetBit(avail, c + 1)) {
+                if (depth + ConflictMatrix.cardinality(remaining) < problem.minCourses) {
+                    break;
+                }
+                ConflictMatrix.clear(remaining, c);
+                long[] prefix = picks.clone();
+                ConflictMatrix.set(prefix, c);
+                long[] candidates = new long[problem.words];
+                ConflictMatrix.andNot(remaining, problem.rows[c], candidates);
+                statistics.nodes++;
+                statistics.conflictChecks++;
+                subtrees.add(problem.restrict(prefix, candidates));
+            }
+        }
+    }
+
+    private static class SubtreeTask extends RecursiveTask<List<long[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ScheduleEngine engine;
+        private final List<ScheduleProblem> subtrees;
+        private final SearchStatistics parent;
+        //Filled in by the task that searches each subtree
+        private final SearchStatistics[] statistics;
+        private final AtomicBoolean stopRequested;
+        //Schedules that may still be found, shared by every subtree
+        private final AtomicLong remaining;
+        private final int from;
+        private final int to;
+
+        private SubtreeTask(ScheduleEngine engine, List<ScheduleProblem> subtrees, SearchStatistics parent,
+                            SearchStatistics[] statistics, AtomicBoolean stopRequested, AtomicLong remaining, int from,
+                            int to) {
+            this.engine = engine;
+            this.subtrees = subtrees;
+            this.parent = parent;
+            this.statistics = statistics;
+            this.stopRequested = stopRequested;
+            this.remaining = remaining;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<long[]> compute() {
+            if (to - from == 1) {
+                ArrayList<long[]> schedules = new ArrayList<>();
+                statistics[from] = parent.hasStopCondition()
+                        ? parent.forSubtree(stopRequested::get) : new SearchStatistics();
+                if (remaining.get() <= 0) {
+                    return schedules;
+                }
+                Iterator<long[]> iterator = engine.search(subtrees.get(from), statistics[from]);
+                while (iterator.hasNext() && remaining.getAndDecrement() > 0) {
+                    schedules.add(iterator.next());
+                }
+                return schedules;
+            }
+            int middle = (from + to) / 2;
+            SubtreeTask left = new SubtreeTask(engine, subtrees, parent, statistics, stopRequested, remaining, from,
+                    middle);
+            left.fork();
+            List<long[]> right = new SubtreeTask(engine, subtrees, parent, statistics, stopRequested, remaining, middle,
+                    to).compute();
+            List<long[]> schedules = left.join();
+            schedules.addAll(right);
+            return schedules;
+        }
+    }
+}
@@ -0,0 +1,629 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP service exposing course lists and timeframes as JSON, on the JDK's built-in
+ * <a href="#{@link}">{@link HttpServer}</a>. Each request runs on its own virtual thread where the JVM has them (Java 21
+ * and later), and on a bounded pool of platform threads otherwise. Semesters are served through
+ * <a href="#{@link}">{@link ConcurrentCourseList}</a>, so schedule generation and course reads never wait for one
+ * another or for edits.
+ * <p>
+ * Endpoints; names in paths are URL-encoded:
+ * <pre>
+ * GET    /timeframes/{timeframe}                        blocks, start and end times, and max int
+ * GET    /timeframes/{timeframe}/to-float?time=&amp;block=  time to float; block is optional
+ * GET    /timeframes/{timeframe}/to-time?value=          float to time and block
+ * PUT    /semesters/{semester}?timeframe=               open or create a semester in a timeframe
+ * GET    /semesters/{semester}                          name, timeframe, course and stored schedule counts
+ * GET    /semesters/{semester}/courses                  every course
+ * POST   /semesters/{semester}/courses                  add a course object, an array of them, or text/csv rows
+ * GET    /semesters/{semester}/courses/{course}         one course
+ * DELETE /semesters/{semester}/courses/{course}         remove a course
+ * PUT    /semesters/{semester}/priorities/{purpose}     make a purpose a priority
+ * DELETE /semesters/{semester}/priorities/{purpose}     make a purpose a non-priority
+ * GET    /semesters/{semester}/schedules?min=&amp;max=&amp;limit=&amp;timeout=  stream generated schedules
+ * </pre>
+ * Courses are objects with name, purpose, startTime, endTime, credits and optionally slots, in the format of
+ * <a href="#{@link}">{@link WeeklySlots#encode(long[]) encode}</a>; responses add priority and the block, start and end
+ * as strings. Schedules are streamed as they are found, so the first arrives long before the search completes, in an
+ * object {"schedules":[...],"complete":...,"stopReason":...}. A search stops after limit schedules, after timeout
+ * milliseconds, which is at most MAX_STREAM_MILLIS, or once the client disconnects; complete is then false and
+ * stopReason tells why, as in <a href="#{@link}">{@link ScheduleResult}</a>. Errors are objects with an error field.
+ * <p>
+ * Semesters and timeframes are read from the working directory, in the semesters and timeframes folders, once each
+ * through a <a href="#{@link}">{@link SemesterRegistry}</a>, and served from memory until evicted or changed on disk.
+ * An opened semester stays open across evictions; the next request loads it again.
+ * <p>
+ * The JDK server leaves Nagle's algorithm on, which holds back small responses on a reused connection until the
+ * client's delayed ACK, about 40 ms later. This class sets sun.net.httpserver.nodelay to true when it is loaded, before
+ * any server is created, unless it was set on the command line.
+ * <p>
+ * Usage: java PlanningServer [port]
+ */
+public class PlanningServer implements Closeable {
+    public static final int DEFAULT_PORT = 8080;
+    //Platform threads to fall back to when virtual threads are unavailable
+    private static final int FALLBACK_THREADS = 64;
+    private static final int BACKLOG = 1024;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    //Streamed schedules are flushed in batches, and after the first so it arrives without waiting for a batch
+    private static final int FLUSH_INTERVAL = 64;
+    public static final long MAX_STREAM_MILLIS = 30_000;
+    //A stream that has not been flushed for this long is sent a blank line, to find out if the client is still there
+    private static final long HEARTBEAT_NANOS = 1_000_000_000L;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int DEFAULT_CACHED_ENTRIES = 64;
+    private static final long DEFAULT_CACHED_BYTES = 256L * 1024 * 1024;
+
+    static {
+        //Read once by the JDK server, when the first server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SemesterRegistry registry;
+    //The timeframe each opened semester was opened in, kept after the registry evicts the semester
+    private final Map<String, String> semesterTimeframes;
+
+    /**
+     * A leased semester and the timeframe its course times are in.
+     */
+    private static class Semester {
+        private final CourseList courses;
+        private final Timeframe timeframe;
+
+        private Semester(CourseList courses, Timeframe timeframe) {
+            this.courses = courses;
+            this.timeframe = timeframe;
+        }
+    }
+
+    /**
+     * Serves semesters and timeframes from a registry caching up to 64 of them, or 256 MB by estimate.
+     * @param port the port to listen on; 0 picks a free one
+     * @throws IOException if the port cannot be bound
+     */
+    public PlanningServer(int port) throws IOException {
+        this(port, new SemesterRegistry(DEFAULT_CACHED_ENTRIES, DEFAULT_CACHED_BYTES));
+    }
+
+    /**
+     * @param port the port to listen on; 0 picks a free one
+     * @param registry the registry to load semesters and timeframes through; closed with the server
+     * @throws IOException if the port cannot be bound
+     */
+    public PlanningServer(int port, SemesterRegistry registry) throws IOException {
+        this.registry = registry;
+        semesterTimeframes = new ConcurrentHashMap<>();
+        executor = newRequestExecutor();
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/timeframes/", exchange -> handle(exchange, true));
+        server.createContext("/semesters/", exchange -> handle(exchange, false));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        PlanningServer planningServer = new PlanningServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                planningServer.close();
+            } catch (IOException ignored) {
+                //The JVM is exiting; semesters reload from their logs
+            }
+        }));
+        planningServer.start();
+        System.out.println("Listening on port " + planningServer.getPort());
+    }
+
+    /**
+     * @return an executor that runs each task on a new virtual thread, or on a bounded pool of platform threads if
+     * the JVM has no virtual threads
+     */
+    public static ExecutorService newRequestExecutor() {
+        return newRequestExecutor(FALLBACK_THREADS);
+    }
+
+    /**
+     * @param fallbackThreads the number of platform threads to use if the JVM has no virtual threads
+     * @return an executor that runs each task on a new virtual thread, or on fallbackThreads platform threads if the
+     * JVM has no virtual threads
+     */
+    public static ExecutorService newRequestExecutor(int fallbackThreads) {
+        try {
+            //Looked up reflectively so the service still builds and runs on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for those in progress, and closes every open semester.
+     * @throws IOException if a semester cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        registry.close();
+    }
+
+    /**
+     * Routes a request and turns exceptions into error responses: 400 for invalid input, 404 for missing timeframes,
+     * and 500 otherwise.
+     */
+    private void handle(HttpExchange exchange, boolean timeframeContext) {
+        try {
+            String[] path = pathSegments(exchange);
+            Map<String, String> query = queryParameters(exchange);
+            if (timeframeContext) {
+                routeTimeframe(exchange, path, query);
+            } else {
+                routeSemester(exchange, path, query);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | ClassCastException e) {
+            sendError(exchange, 400, "invalid request");
+        } catch (FileNotFoundException e) {
+            sendError(exchange, 404, "not found");
+        } catch (IOException | RuntimeException e) {
+            sendError(exchange, 500, "internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void routeTimeframe(HttpExchange exchange, String[] path, Map<String, String> query) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.length < 2 || !method.equals("GET")) {
+            sendError(exchange, (path.length < 2) ? 404 : 405, "no such endpoint");
+            return;
+        }
+        checkName(path[1]);
+        Timeframe timeframe = registry.getTimeframe(path[1]);
+        StringBuilder out = new StringBuilder();
+        if (path.length == 2) {
+            out.append("{\"name\":");
+            Json.quote(out, timeframe.getName());
+            out.append(",\"maxInt\":").append(timeframe.getMaxInt()).append(",\"blocks\":[");
+            String[] blockNames = timeframe.getBlockNames();
+            for (int i = 0; i < blockNames.length; i++) {
+                out.append((i > 0) ? ",{\"name\":" : "{\"name\":");
+                Json.quote(out, blockNames[i]);
+                out.append(",\"regular\":").append(timeframe.isRegular(blockNames[i])).append(",\"startTimes\":");
+                Json.array(out, Arrays.asList(timeframe.getStartTimes(blockNames[i])));
+                out.append(",\"endTimes\":");
+                Json.array(out, Arrays.asList(timeframe.getEndTimes(blockNames[i])));
+                out.append('}');
+            }
+            out.append("]}");
+        } else if (path.length == 3 && path[2].equals("to-float")) {
+            String time = required(query, "time");
+            String block = query.get("block");
+            float value = (block != null) ? timeframe.timeToFloat(time, block) : timeframe.timeToFloat(time);
+            if (value == -1) {
+                sendError(exchange, 404, "time not in timeframe");
+                return;
+            }
+            out.append("{\"value\":").append(value).append('}');
+        } else if (path.length == 3 && path[2].equals("to-time")) {
+            float value = Float.parseFloat(required(query, "value"));
+            String time = timeframe.floatToTime(value);
+            if (time == null) {
+                sendError(exchange, 404, "value not in timeframe");
+                return;
+            }
+            out.append("{\"time\":");
+            Json.quote(out, time);
+            out.append(",\"block\":");
+            Json.quote(out, timeframe.floatToBlock(value));
+            out.append('}');
+        } else {
+            sendError(exchange, 404, "no such endpoint");
+            return;
+        }
+        send(exchange, 200, out.toString());
+    }
+
+    private void routeSemester(HttpExchange exchange, String[] path, Map<String, String> query) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.length < 2) {
+            sendError(exchange, 404, "no such endpoint");
+            return;
+        }
+        String timeframeName = semesterTimeframes.get(path[1]);
+        if (path.length == 2 && method.equals("PUT")) {
+            String requested = required(query, "timeframe");
+            checkName(path[1]);
+            checkName(requested);
+            //Fails with 404 before the semester is recorded if the timeframe does not exist
+            registry.getTimeframe(requested);
+            timeframeName = semesterTimeframes.putIfAbsent(path[1], requested);
+            if (timeframeName != null && !timeframeName.equals(requested)) {
+                sendError(exchange, 409, "semester is open in another timeframe");
+                return;
+            }
+            timeframeName = requested;
+        }
+        if (timeframeName == null) {
+            sendError(exchange, 404, "semester not open");
+            return;
+        }
+        try (SemesterRegistry.Lease lease = registry.acquireSemester(path[1], timeframeName)) {
+            routeSemester(exchange, path, query, new Semester(lease.get(), registry.getTimeframe(timeframeName)));
+        }
+    }
+
+    /**
+     * Routes a request to an open semester.
+     */
+    private void routeSemester(HttpExchange exchange, String[] path, Map<String, String> query, Semester semester)
+            throws IOException {
+        String method = exchange.getRequestMethod();
+        CourseList courses = semester.courses;
+        String endpoint = method + " " + ((path.length > 2) ? path[2] : "") + ((path.length > 3) ? "/" : "");
+        if (path.length > 4) {
+            endpoint = "";
+        }
+        switch (endpoint) {
+            case "PUT ":
+            case "GET ":
+                send(exchange, 200, describe(semester));
+                break;
+            case "GET courses": {
+                StringBuilder out = new StringBuilder("[");
+                String[] courseList = courses.getCourseList();
+                for (String name : courseList) {
+                    int mark = out.length();
+                    if (mark > 1) {
+                        out.append(',');
+                    }
+                    //The course may have been removed since the list was read
+                    try {
+                        appendCourse(out, semester, name);
+                    } catch (IllegalArgumentException e) {
+                        out.setLength(mark);
+                    }
+                }
+                send(exchange, 200, out.append(']').toString());
+                break;
+            }
+            case "POST courses":
+                addCourses(exchange, courses);
+                break;
+            case "GET courses/": {
+                StringBuilder out = new StringBuilder();
+                try {
+                    appendCourse(out, semester, path[3]);
+                } catch (IllegalArgumentException e) {
+                    sendError(exchange, 404, "no such course");
+                    return;
+                }
+                send(exchange, 200, out.toString());
+                break;
+            }
+            case "DELETE courses/":
+                courses.removeCourse(path[3]);
+                send(exchange, 204, null);
+                break;
+            case "PUT priorities/":
+            case "DELETE priorities/":
+                courses.setPriority(path[3], method.equals("PUT"));
+                send(exchange, 204, null);
+                break;
+            case "GET schedules":
+                streamSchedules(exchange, courses, query);
+                break;
+            default:
+                sendError(exchange, 404, "no such endpoint");
+        }
+    }
+
+    /**
+     * Adds the courses in the request body: a JSON course object, a JSON array of them, or CSV rows as accepted by
+     * <a href="#{@link}">{@link CourseList#importCourses(java.io.Reader) importCourses}</a>. A single course is answered
+     * with 201, or 409 if it exists; many are answered with their import report.
+     */
+    private void addCourses(HttpExchange exchange, CourseList courses) throws IOException {
+        String body = readBody(exchange);
+        if (body == null) {
+            sendError(exchange, 413, "request body too large");
+            return;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        ImportReport report;
+        if (contentType != null && contentType.startsWith("text/csv")) {
+            report = courses.importCourses(new StringReader(body));
+        } else {
+            Object value = Json.parse(body);
+            if (value instanceof Map) {
+                Course course = toCourse(value);
+                if (course.name == null || course.purpose == null) {
+                    throw new IllegalArgumentException();
+                }
+                boolean added = courses.addCourse(course.name, course.purpose, course.startTime, course.endTime,
+                        course.credits, course.slots);
+                if (added) {
+                    send(exchange, 201, "{\"added\":true}");
+                } else {
+                    sendError(exchange, 409, "course exists");
+                }
+                return;
+            }
+            ArrayList<Course> newCourses = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                newCourses.add(toCourse(element));
+            }
+            report = courses.addCourses(newCourses);
+        }
+        StringBuilder out = new StringBuilder();
+        out.append("{\"added\":").append(report.getAddedCount()).append(",\"rejected\":")
+                .append(report.getRejectedCount()).append(",\"rows\":[");
+        boolean first = true;
+        for (ImportReport.Row row : report.getRows()) {
+            out.append(first ? "{\"row\":" : ",{\"row\":").append(row.row).append(",\"name\":");
+            Json.quote(out, row.courseName).append(",\"status\":\"").append(row.status).append("\"}");
+            first = false;
+        }
+        send(exchange, 200, out.append("]}").toString());
+    }
+
+    /**
+     * Writes the schedules in a chunked JSON object, one schedule per line, while the search runs. The search stops
+     * after limit schedules, once the timeout runs out, or once the client disconnects.
+     */
+    private void streamSchedules(HttpExchange exchange, CourseList courses, Map<String, String> query)
+            throws IOException {
+        int minCourses = Integer.parseInt(required(query, "min"));
+        int maxCourses = Integer.parseInt(required(query, "max"));
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : Integer.MAX_VALUE;
+        long timeout = query.containsKey("timeout") ? Long.parseLong(query.get("timeout")) : MAX_STREAM_MILLIS;
+        if (limit < 0 || timeout < 0) {
+            throw new IllegalArgumentException();
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        ScheduleStream out = new ScheduleStream(exchange.getResponseBody());
+        //The search polls the token between nodes, so a client that disconnects mid-search is noticed by a heartbeat
+        CancellationToken token = new CancellationToken(out::heartbeatFailed);
+        BoundedScheduleIterator schedules = courses.scheduleIterator(minCourses, maxCourses,
+                new SearchLimits(Math.min(timeout, MAX_STREAM_MILLIS), limit, token));
+        out.write("{\"schedules\":[");
+        StringBuilder line = new StringBuilder();
+        int count = 0;
+        while (schedules.hasNext()) {
+            line.setLength(0);
+            if (count > 0) {
+                line.append(",\n");
+            }
+            out.write(Json.array(line, schedules.next()));
+            count++;
+            if (count == 1 || count % FLUSH_INTERVAL == 0) {
+                //Throws once the client has disconnected, which ends the search
+                out.flush();
+            }
+        }
+        ScheduleResult.StopReason reason = schedules.getStopReason();
+        out.write("],\"complete\":" + (reason == null) + ",\"stopReason\":"
+                + ((reason != null) ? Json.quote(reason.name()) : "null") + "}\n");
+        out.close();
+    }
+
+    /**
+     * A streamed response body that remembers when it was last flushed. Used only by the thread streaming it, which
+     * also runs the search.
+     */
+    private static class ScheduleStream {
+        private final Writer out;
+        private long lastFlush;
+
+        private ScheduleStream(OutputStream body) {
+            out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8));
+            lastFlush = System.nanoTime();
+        }
+
+        private void write(CharSequence text) throws IOException {
+            out.append(text);
+        }
+
+        private void flush() throws IOException {
+            out.flush();
+            lastFlush = System.nanoTime();
+        }
+
+        /**
+         * Flushes a blank line, which JSON allows between values, if nothing was flushed for HEARTBEAT_NANOS. A write
+         * to a closed connection may still succeed once, so a disconnect is noticed by the second heartbeat at the
+         * latest.
+         * @return true if the client has disconnected; false otherwise
+         */
+        private boolean heartbeatFailed() {
+            if (System.nanoTime() - lastFlush < HEARTBEAT_NANOS) {
+                return false;
+            }
+            try {
+                out.write('\n');
+                flush();
+                return false;
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        private void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Semester and timeframe names become file names, so only letters, digits, spaces, underscores and hyphens are
+     * accepted.
+     * @throws IllegalArgumentException if name is not a safe file name
+     */
+    private static void checkName(String name) {
+        if (name.isEmpty() || !name.matches("[A-Za-z0-9 _-]+")) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static String describe(Semester semester) {
+        StringBuilder out = new StringBuilder("{\"name\":");
+        Json.quote(out, semester.courses.getName()).append(",\"timeframe\":");
+        Json.quote(out, semester.timeframe.getName());
+        out.append(",\"courses\":").append(semester.courses.getCourseList().length)
+                .append(",\"existingSchedules\":").append(semester.courses.getExistingScheduleCount()).append('}');
+        return out.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the course does not exist
+     */
+    private static void appendCourse(StringBuilder out, Semester semester, String name) {
+        CourseList courses = semester.courses;
+        int startTime = courses.getCourseStartTime(name);
+        int endTime = courses.getCourseEndTime(name);
+        long[] slots = courses.getCourseSlots(name);
+        out.append("{\"name\":");
+        Json.quote(out, name).append(",\"purpose\":");
+        Json.quote(out, courses.getCoursePurpose(name));
+        out.append(",\"startTime\":").append(startTime).append(",\"endTime\":").append(endTime)
+                .append(",\"credits\":").append(courses.getCourseCredits(name))
+                .append(",\"priority\":").append(courses.isCoursePriority(name)).append(",\"block\":");
+        Json.quote(out, semester.timeframe.floatToBlock(startTime)).append(",\"start\":");
+        Json.quote(out, semester.timeframe.floatToTime(startTime)).append(",\"end\":");
+        Json.quote(out, semester.timeframe.floatToTime(endTime)).append(",\"slots\":");
+        Json.quote(out, (slots != null) ? WeeklySlots.encode(slots) : null).append('}');
+    }
+
+    /**
+     * @return the course described by a JSON object; name and purpose may be null
+     * @throws IllegalArgumentException if a field is missing or of the wrong type
+     */
+    private static Course toCourse(Object value) {
+        Map<?, ?> fields = (Map<?, ?>) value;
+        String slots = (String) fields.get("slots");
+        return new Course((String) fields.get("name"), (String) fields.get("purpose"), intField(fields, "startTime"),
+                intField(fields, "endTime"), intField(fields, "credits"), false, true,
+                (slots != null) ? WeeklySlots.decode(slots) : null);
+    }
+
+    private static int intField(Map<?, ?> fields, String key) {
+        Object value = fields.get(key);
+        if (!(value instanceof Double) || (Double) value != Math.rint((Double) value)) {
+            throw new IllegalArgumentException();
+        }
+        return ((Double) value).intValue();
+    }
+
+    private static String required(Map<String, String> query, String key) {
+        String value = query.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        return value;
+    }
+
+    /**
+     * @return the decoded path segments after the leading slash, i.e. {"semesters", "Fall", "courses"}
+     */
+    private static String[] pathSegments(HttpExchange exchange) {
+        String[] segments = exchange.getRequestURI().getRawPath().substring(1).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            //Paths keep plus signs; only query strings encode spaces as plus
+            segments[i] = URLDecoder.decode(segments[i].replace("+", "%2B"), StandardCharsets.UTF_8);
+        }
+        return segments;
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals != -1) {
+                    query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    /**
+     * @return the request body, or null if it is longer than MAX_BODY_BYTES
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        return (body.length <= MAX_BODY_BYTES) ? new String(body, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * @param body the JSON response, or null for none
+     */
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Sends an error unless a response has already started, as a streamed one may have.
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        try {
+            send(exchange, status, "{\"error\":" + Json.quote(message) + "}");
+        } catch (IOException ignored) {
+            //The client has disconnected
+        }
+    }
+}
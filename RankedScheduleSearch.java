@@ -0,0 +1,133 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Branch-and-bound search for the k highest-scoring schedules of a ScheduleProblem. Walks the same tree as
+ * <a href="#{@link}">{@link BacktrackingEngine}</a>, keeps the best k schedules in a bounded heap, and skips every branch
+ * whose optimistic bound cannot beat the k-th best score. Pruned branches never produce schedules, so maximality is
+ * checked directly against the conflict rows instead of against earlier schedules.
+ */
+public class RankedScheduleSearch {
+    private final ScheduleProblem problem;
+    private final ScheduleScorer scorer;
+    private final int k;
+    //Worst entry first; among equal scores, the later find is worse
+    private final PriorityQueue<Entry> best;
+    private int found;
+
+    private RankedScheduleSearch(ScheduleProblem problem, ScheduleScorer scorer, int k) {
+        this.problem = problem;
+        this.scorer = scorer;
+        this.k = k;
+        best = new PriorityQueue<>(Comparator.comparingDouble((Entry e) -> e.score).thenComparingInt(e -> -e.order));
+    }
+
+    /**
+     * @param problem an unrestricted problem
+     * @param scorer the scoring function
+     * @param k the maximum number of schedules to return
+     * @return the up to k best schedules, best first; ties keep the order the search found them in
+     */
+    public static List<long[]> search(ScheduleProblem problem, ScheduleScorer scorer, int k) {
+        RankedScheduleSearch search = new RankedScheduleSearch(problem, scorer, k);
+        if (k > 0) {
+            search.selectPriority(0, new long[problem.words], problem.allCourses());
+        }
+        ArrayList<Entry> entries = new ArrayList<>(search.best);
+        entries.sort(Comparator.comparingDouble((Entry e) -> -e.score).thenComparingInt(e -> e.order));
+        ArrayList<long[]> schedules = new ArrayList<>();
+        for (Entry entry : entries) {
+            schedules.add(entry.schedule);
+        }
+        return schedules;
+    }
+
+    /**
+     * @param depth the number of priority picks made
+     * @param chosen the priority picks made
+     * @param avail the courses compatible with every pick
+     */
+    private void selectPriority(int depth, long[] chosen, long[] avail) {
+        if (depth == problem.priorityMasks.length) {
+            fill(chosen, depth, avail);
+            return;
+        }
+        long[] cand = new long[problem.words];
+        ConflictMatrix.and(avail, problem.priorityMasks[depth], cand);
+        for (int c = ConflictMatrix.nextSetBit(cand, 0); c != -1; c = ConflictMatrix.nextSetBit(cand, c + 1)) {
+            long[] newChosen = chosen.clone();
+            ConflictMatrix.set(newChosen, c);
+            if (depth + 1 == problem.maxCourses) {
+                offer(newChosen);
+                continue;
+            }
+            long[] newAvail = new long[problem.words];
+            ConflictMatrix.andNot(avail, problem.rows[c], newAvail);
+            selectPriority(depth + 1, newChosen, newAvail);
+        }
+    }
+
+    /**
+     * @param chosen the courses selected so far
+     * @param size the number of courses in chosen
+     * @param cand the untried courses compatible with chosen
+     */
+    private void fill(long[] chosen, int size, long[] cand) {
+        if (ConflictMatrix.isEmpty(cand)) {
+            if (size > 0 && size >= problem.minCourses && problem.isMaximal(chosen)) {
+                offer(chosen);
+            }
+            return;
+        }
+        if (size + ConflictMatrix.cardinality(cand) < problem.minCourses || !canImprove(chosen, size, cand)) {
+            return;
+        }
+        long[] remaining = cand.clone();
+        for (int c = ConflictMatrix.nextSetBit(cand, 0); c != -1; c = ConflictMatrix.nextSetBit(cand, c + 1)) {
+            if (size + ConflictMatrix.cardinality(remaining) < problem.minCourses) {
+                return;
+            }
+            ConflictMatrix.clear(remaining, c);
+            long[] newChosen = chosen.clone();
+            ConflictMatrix.set(newChosen, c);
+            if (size + 1 == problem.maxCourses) {
+                offer(newChosen);
+            } else {
+                long[] newCand = new long[problem.words];
+                ConflictMatrix.andNot(remaining, problem.rows[c], newCand);
+                fill(newChosen, size + 1, newCand);
+            }
+        }
+    }
+
+    /**
+     * @return false if the heap is full and no completion of chosen can beat its worst schedule; true otherwise
+     */
+    private boolean canImprove(long[] chosen, int size, long[] cand) {
+        return best.size() < k || scorer.bound(problem, chosen, size, cand) > best.peek().score;
+    }
+
+    private void offer(long[] schedule) {
+        Entry entry = new Entry(schedule, scorer.score(problem, schedule), found++);
+        if (best.size() < k) {
+            best.add(entry);
+        } else if (entry.score > best.peek().score) {
+            best.poll();
+            best.add(entry);
+        }
+    }
+
+    private static class Entry {
+        private final long[] schedule;
+        private final double score;
+        private final int order;
+
+        private Entry(long[] schedule, double score, int order) {
+            this.schedule = schedule;
+            this.score = score;
+            this.order = order;
+        }
+    }
+}
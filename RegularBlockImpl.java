@@ -1,6 +1,7 @@
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 
 public class RegularBlockImpl implements Block {
     private final String name;
@@ -9,6 +10,10 @@ public class RegularBlockImpl implements Block {
     private final Duration intervalLength;
     private final int numIntervals;
     private final int minInt;
+    //Compiled on construction: the float of every minute of the day, and the start and end time of every interval
+    private final MinuteTable minuteTable;
+    private final String[] startTimes;
+    private final String[] endTimes;
 
     /**
      * @param classLen in minutes
@@ -24,6 +29,18 @@ public class RegularBlockImpl implements Block {
             throw new IllegalArgumentException();
         }
         this.minInt = minInt;
+        minuteTable = new MinuteTable(this::timeToFloat);
+        //One extra start time, for the end of the day and floatToTime(getMaxInt())
+        startTimes = new String[numIntervals + 1];
+        endTimes = new String[numIntervals];
+        LocalTime time = this.startTime;
+        for (int i = 0; i <= numIntervals; i++) {
+            startTimes[i] = timeToString(time);
+            if (i < numIntervals) {
+                endTimes[i] = timeToString(time.plus(classLength));
+            }
+            time = time.plus(intervalLength);
+        }
     }
 
     /**
@@ -54,7 +71,7 @@ public class RegularBlockImpl implements Block {
 
     @Override
     public String getDayEndTime() {
-        return timeToString(startTime.plus(intervalLength.multipliedBy(numIntervals)));
+        return startTimes[numIntervals];
     }
 
     @Override
@@ -62,6 +79,16 @@ public class RegularBlockImpl implements Block {
         return minInt + numIntervals;
     }
 
+    @Override
+    public int getDays() {
+        return WeeklySlots.days(name);
+    }
+
+    @Override
+    public int toMinuteOfDay(float time) {
+        return startTime.toSecondOfDay() / 60 + Math.round((time - minInt) * intervalLength.toMinutes());
+    }
+
     @Override
     public String[] getInitData() {
         return new String[]{name, getDayStartTime(), getDayEndTime(), String.valueOf(classLength.getSeconds()/60), String.valueOf(intervalLength.minus(classLength).getSeconds()/60)};
@@ -69,24 +96,12 @@ public class RegularBlockImpl implements Block {
 
     @Override
     public String[] getStartTimes() {
-        String[] startTimes = new String[numIntervals];
-        LocalTime time = startTime;
-        for (int i=0; i < numIntervals; i++) {
-            startTimes[i] = timeToString(time);
-            time = time.plus(intervalLength);
-        }
-        return startTimes;
+        return Arrays.copyOf(startTimes, numIntervals);
     }
 
     @Override
     public String[] getEndTimes() {
-        String[] endTimes = new String[numIntervals];
-        LocalTime time = startTime.plus(classLength);
-        for (int i=0; i < numIntervals; i++) {
-            endTimes[i] = timeToString(time);
-            time = time.plus(intervalLength);
-        }
-        return endTimes;
+        return endTimes.clone();
     }
 
     @Override
@@ -96,12 +111,26 @@ public class RegularBlockImpl implements Block {
 
     @Override
     public float timeToFloat(String time) {
-        float afterStart = (float) Duration.between(startTime, LocalTime.parse(time)).toSeconds() / intervalLength.toSeconds();
+        int minute = MinuteTable.minuteOfDay(time);
+        return (minute != -1) ? minuteTable.get(minute) : timeToFloat(LocalTime.parse(time));
+    }
+
+    @Override
+    public float timeToFloat(int minuteOfDay) {
+        return minuteTable.get(minuteOfDay);
+    }
+
+    private float timeToFloat(LocalTime time) {
+        float afterStart = (float) Duration.between(startTime, time).toSeconds() / intervalLength.toSeconds();
         return (afterStart >= 0 && afterStart <= numIntervals) ? minInt+afterStart : -1;
     }
 
     @Override
     public String floatToTime(float time) {
-        return (time >= 0 && time <= numIntervals) ? timeToString(startTime.plus(intervalLength.multipliedBy((long) time - minInt))) : null;
+        if (time >= 0 && time <= numIntervals) {
+            long intervals = (long) time - minInt;
+            return (intervals >= 0 && intervals <= numIntervals) ? startTimes[(int) intervals] : timeToString(startTime.plus(intervalLength.multipliedBy(intervals)));
+        }
+        return null;
     }
 }
@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A ScheduleDominanceIndex answers "is this schedule a subset of a stored schedule" without comparing the query against
+ * every stored schedule. It keeps, for each course ordinal, the ids of the stored schedules containing it; a superset of
+ * the query must appear in the id list of every course in the query, so only the shortest of those lists is scanned.
+ */
+public class ScheduleDominanceIndex {
+    private final ArrayList<long[]> schedules;
+    private int[][] postings;
+    private int[] postingSizes;
+
+    public ScheduleDominanceIndex() {
+        schedules = new ArrayList<>();
+        postings = new int[64][];
+        postingSizes = new int[64];
+    }
+
+    /**
+     * @return the number of schedules added to the index
+     */
+    public int size() {
+        return schedules.size();
+    }
+
+    /**
+     * The index keeps a reference to schedule; callers must not modify it afterwards.
+     * @param schedule a bitset of course ordinals
+     */
+    public void add(long[] schedule) {
+        int id = schedules.size();
+        schedules.add(schedule);
+        for (int i = ConflictMatrix.nextSetBit(schedule, 0); i != -1; i = ConflictMatrix.nextSetBit(schedule, i + 1)) {
+            if (i >= postings.length) {
+                int capacity = Math.max(postings.length * 2, i + 1);
+                postings = Arrays.copyOf(postings, capacity);
+                postingSizes = Arrays.copyOf(postingSizes, capacity);
+            }
+            if (postings[i] == null) {
+                postings[i] = new int[4];
+            } else if (postingSizes[i] == postings[i].length) {
+                postings[i] = Arrays.copyOf(postings[i], postingSizes[i] * 2);
+            }
+            postings[i][postingSizes[i]++] = id;
+        }
+    }
+
+    /**
+     * @param schedule a bitset of course ordinals
+     * @return true if some stored schedule contains every course in schedule; false otherwise
+     */
+    public boolean containsSuperset(long[] schedule) {
+        int rarest = -1;
+        for (int i = ConflictMatrix.nextSetBit(schedule, 0); i != -1; i = ConflictMatrix.nextSetBit(schedule, i + 1)) {
+            if (i >= postings.length || postingSizes[i] == 0) {
+                return false;
+            }
+            if (rarest == -1 || postingSizes[i] < postingSizes[rarest]) {
+                rarest = i;
+            }
+        }
+        if (rarest == -1) {
+            return !schedules.isEmpty();
+        }
+        int[] ids = postings[rarest];
+        for (int j = 0; j < postingSizes[rarest]; j++) {
+            if (ConflictMatrix.containsAll(schedules.get(ids[j]), schedule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
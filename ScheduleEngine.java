@@ -0,0 +1,28 @@
+import java.util.Iterator;
+
+/**
+ * A ScheduleEngine enumerates the schedules of a <a href="#{@link}">{@link ScheduleProblem}</a>. Every engine produces
+ * the same set of schedules: each contains exactly one course of every priority purpose, has between minCourses and
+ * maxCourses courses, and either has maxCourses courses or cannot take any further course without a conflict.
+ * <p>
+ * Engines differ only in search strategy and in the order schedules are produced.
+ */
+public interface ScheduleEngine {
+    /**
+     * Schedules are produced lazily, as the search finds them.
+     * @param problem the snapshot to search
+     * @return an iterator over the schedules, each a bitset of course ordinals
+     */
+    default Iterator<long[]> search(ScheduleProblem problem) {
+        return search(problem, new SearchStatistics());
+    }
+
+    /**
+     * Same as <a href="#{@link}">{@link #search(ScheduleProblem) search}</a>, counting the search's work into
+     * statistics as it goes.
+     * @param problem the snapshot to search
+     * @param statistics the statistics to add to; only the returned iterator may update them
+     * @return an iterator over the schedules, each a bitset of course ordinals
+     */
+    Iterator<long[]> search(ScheduleProblem problem, SearchStatistics statistics);
+}
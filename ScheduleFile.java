@@ -0,0 +1,432 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A ScheduleFile stores a semester's saved schedules in a binary, append-only file. Course names are written once, to a
+ * dictionary, and schedules refer to them by fixed-width int ids, so a schedule takes 4 bytes per course.
+ * <p>
+ * The file starts with a magic number and a format version, followed by records, each tagged with one byte:
+ * <ul>
+ *     <li>NAME: length-prefixed UTF-8 course name; its id is the number of NAME records before it</li>
+ *     <li>SCHEDULE: course count, then that many name ids</li>
+ *     <li>REMOVAL: a name id; removes every earlier schedule containing that course</li>
+ * </ul>
+ * Saving new schedules or removing a course appends records without rewriting the file. A record cut short by a failed
+ * write is ignored and overwritten by the next append.
+ * <p>
+ * Opening the file only builds an index of the offsets of the remaining schedule records; schedules are decoded when a
+ * window of them is read. The file is compacted when it is indexed if removed schedules outnumber the remaining ones.
+ * <p>
+ * The file is read through a channel that is closed before each call returns, never mapped, so no open handle keeps
+ * it from being deleted or rewritten. A window of schedules is read into a single buffer, which holds at most
+ * Integer.MAX_VALUE bytes, so the file is kept within that length: an append that would take it further is undone and
+ * fails.
+ */
+public class ScheduleFile {
+    private static final int MAGIC = 0x43525353;
+    private static final int VERSION = 1;
+    private static final byte NAME = 1;
+    private static final byte SCHEDULE = 2;
+    private static final byte REMOVAL = 3;
+
+    private final Path path;
+    //Longest the file may grow to
+    private final long maxLength;
+    //The file's dictionary, by name and by id
+    private final Map<String, Integer> dictionary;
+    private final ArrayList<String> names;
+    //Length of the file up to the end of the last complete record
+    private long validLength;
+    //Offsets of the remaining schedule records, in save order; stale after a removal until the file is indexed again
+    private long[] offsets;
+    private int count;
+    private boolean indexed;
+
+    /**
+     * @param path the location of the file; it need not exist
+     */
+    public ScheduleFile(Path path) {
+        this(path, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param path the location of the file; it need not exist
+     * @param maxLength the longest the file may grow to, at most Integer.MAX_VALUE
+     */
+    ScheduleFile(Path path, long maxLength) {
+        this.path = path;
+        this.maxLength = maxLength;
+        dictionary = new HashMap<>();
+        names = new ArrayList<>();
+        offsets = new long[0];
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the file's course names, in id order
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * @return the offsets of the file's schedule records, in save order
+     * @throws IOException if the file must be indexed and cannot be read
+     */
+    public long[] getOffsets() throws IOException {
+        if (!indexed) {
+            index();
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Sets the dictionary and index instead of reading the file, for a semester restored from a
+     * <a href="#{@link}">{@link SemesterSnapshot}</a> taken while the file was unchanged.
+     * @param names the file's course names, in id order
+     * @param offsets the offsets of the file's schedule records, in save order
+     * @throws IOException if the file's size cannot be read
+     */
+    public void restore(List<String> names, long[] offsets) throws IOException {
+        dictionary.clear();
+        this.names.clear();
+        for (String name : names) {
+            addName(name);
+        }
+        this.offsets = offsets.clone();
+        count = offsets.length;
+        indexed = true;
+        validLength = exists() ? Files.size(path) : 0;
+    }
+
+    /**
+     * @return the number of schedules in the file
+     * @throws IOException if the file must be indexed and cannot be read
+     */
+    public int size() throws IOException {
+        if (!indexed) {
+            index();
+        }
+        return count;
+    }
+
+    /**
+     * @return true if the file exists; false otherwise
+     */
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    /**
+     * Reads the dictionary and the offset of every schedule record without decoding the schedules. Removals are
+     * replayed in a second pass over the schedule records, which is skipped if the file has none.
+     * @return the number of schedules in the file
+     * @throws IOException if the file cannot be read, is longer than it may grow to or is not a schedule file of a
+     * supported version
+     */
+    public int index() throws IOException {
+        dictionary.clear();
+        names.clear();
+        validLength = 0;
+        offsets = new long[16];
+        count = 0;
+        indexed = true;
+        if (!exists()) {
+            return 0;
+        }
+
+        //Number of schedule records before the last removal of each name id
+        Map<Integer, Integer> lastRemovals = new HashMap<>();
+        int removed = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > maxLength) {
+                throw new IOException();
+            }
+            DataInputStream in = open(channel);
+            if (length < 8 || in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException();
+            }
+            validLength = 8;
+            try {
+                while (validLength < length) {
+                    long start = validLength;
+                    byte tag = in.readByte();
+                    if (tag == NAME) {
+                        int nameLength = in.readInt();
+                        if (nameLength < 0 || nameLength > length - start - 5) {
+                            break;
+                        }
+                        byte[] bytes = new byte[nameLength];
+                        in.readFully(bytes);
+                        addName(new String(bytes, StandardCharsets.UTF_8));
+                        validLength = start + 5 + nameLength;
+                    } else if (tag == SCHEDULE) {
+                        int courses = in.readInt();
+                        if (courses < 0 || courses > (length - start - 5) / 4) {
+                            break;
+                        }
+                        in.skipNBytes(courses * 4L);
+                        addOffset(start);
+                        validLength = start + 5 + courses * 4L;
+                    } else if (tag == REMOVAL) {
+                        int id = in.readInt();
+                        if (id < 0 || id >= names.size()) {
+                            throw new IOException();
+                        }
+                        lastRemovals.put(id, count);
+                        validLength = start + 5;
+                    } else {
+                        throw new IOException();
+                    }
+                }
+            } catch (EOFException ignored) {
+                //The last record was cut short; everything before it is intact
+            }
+
+            if (!lastRemovals.isEmpty()) {
+                //A second pass over the records, reading the courses of each schedule record the first pass indexed
+                channel.position(0);
+                in = open(channel);
+                in.skipNBytes(8);
+                long position = 8;
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    in.skipNBytes(offsets[i] - position);
+                    in.readByte();
+                    int courses = in.readInt();
+                    position = offsets[i] + 5 + courses * 4L;
+                    boolean live = true;
+                    for (int j = 0; j < courses; j++) {
+                        Integer lastRemoval = lastRemovals.get(in.readInt());
+                        live &= lastRemoval == null || lastRemoval <= i;
+                    }
+                    if (live) {
+                        offsets[kept++] = offsets[i];
+                    }
+                }
+                removed = count - kept;
+                count = kept;
+            }
+        }
+
+        if (removed > count) {
+            rewrite(read(0, count));
+        }
+        return count;
+    }
+
+    /**
+     * Decodes only the requested window of schedules, reading the part of the file that holds them.
+     * @param offset the number of schedules to skip
+     * @param limit the maximum number of schedules to read
+     * @return the schedules in the window, in the order they were saved
+     * @throws IOException if the file cannot be read
+     */
+    public ArrayList<List<String>> read(int offset, int limit) throws IOException {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (!indexed) {
+            index();
+        }
+        ArrayList<List<String>> window = new ArrayList<>();
+        int end = (int) Math.min(count, (long) offset + limit);
+        if (offset >= end) {
+            return window;
+        }
+        long from = offsets[offset];
+        long to = (end < count) ? offsets[end] : validLength;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(to - from));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) {
+                    throw new IOException();
+                }
+            }
+            buffer.flip();
+            for (int i = offset; i < end; i++) {
+                buffer.position(Math.toIntExact(offsets[i] - from + 1));
+                String[] schedule = new String[buffer.getInt()];
+                for (int j = 0; j < schedule.length; j++) {
+                    schedule[j] = names.get(buffer.getInt());
+                }
+                window.add(Arrays.asList(schedule));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | ArithmeticException e) {
+            throw new IOException();
+        }
+        return window;
+    }
+
+    /**
+     * Appends schedules to the file, creating it if necessary.
+     * @param schedules the schedules to append
+     * @throws IOException if the file cannot be written to or would grow longer than it may; the file is then left as
+     * it was
+     */
+    public void append(List<List<String>> schedules) throws IOException {
+        boolean existed = exists();
+        long base = existed ? validLength : 0;
+        try (DataOutputStream out = openForAppend()) {
+            for (List<String> schedule : schedules) {
+                writeSchedule(out, base, schedule);
+            }
+        }
+        checkLength(existed, base);
+    }
+
+    /**
+     * Records that every schedule saved so far containing the course was removed.
+     * @param courseName the name of the removed course
+     * @throws IOException if the file cannot be written to or would grow longer than it may; the file is then left as
+     * it was
+     */
+    public void appendRemoval(String courseName) throws IOException {
+        Integer id = dictionary.get(courseName);
+        if (id == null) {
+            return;
+        }
+        long base = validLength;
+        try (DataOutputStream out = openForAppend()) {
+            out.writeByte(REMOVAL);
+            out.writeInt(id);
+        }
+        checkLength(true, base);
+        //Finding the removed schedules' records means reading them, which is left until the index is next needed
+        indexed = false;
+    }
+
+    /**
+     * Replaces the file's contents with schedules.
+     * @param schedules the schedules to keep
+     * @throws IOException if the file cannot be written to
+     */
+    public void rewrite(List<List<String>> schedules) throws IOException {
+        delete();
+        append(schedules);
+    }
+
+    /**
+     * Deletes the file, if it exists.
+     * @throws IOException if the file exists but cannot be deleted
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+        dictionary.clear();
+        names.clear();
+        validLength = 0;
+        offsets = new long[16];
+        count = 0;
+        indexed = true;
+    }
+
+    /**
+     * @return a stream reading channel from its position; closing the channel closes it
+     */
+    private static DataInputStream open(FileChannel channel) {
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+    }
+
+    /**
+     * Updates the valid length after an append, undoing the append if it took the file past maxLength.
+     * @param existed whether the file existed before the append
+     * @param base the file's valid length before the append
+     * @throws IOException if the append was undone
+     */
+    private void checkLength(boolean existed, long base) throws IOException {
+        validLength = Files.size(path);
+        if (validLength <= maxLength) {
+            return;
+        }
+        if (!existed) {
+            delete();
+        } else {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(base);
+            }
+            //Names and offsets the append added are in the dictionary and index, so both are read again
+            index();
+        }
+        throw new IOException();
+    }
+
+    /**
+     * Opens the file after its last complete record, writing the header first if the file is new.
+     */
+    private DataOutputStream openForAppend() throws IOException {
+        boolean isNew = !exists();
+        if (!isNew && Files.size(path) != validLength) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile(), true)));
+        if (isNew) {
+            dictionary.clear();
+            names.clear();
+            offsets = new long[16];
+            count = 0;
+            indexed = true;
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+        return out;
+    }
+
+    /**
+     * @param base the file's length when out was opened
+     */
+    private void writeSchedule(DataOutputStream out, long base, List<String> schedule) throws IOException {
+        int[] ids = new int[schedule.size()];
+        for (int i = 0; i < ids.length; i++) {
+            String name = schedule.get(i);
+            Integer id = dictionary.get(name);
+            if (id == null) {
+                id = addName(name);
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(NAME);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            ids[i] = id;
+        }
+        if (indexed) {
+            addOffset(base + out.size());
+        }
+        out.writeByte(SCHEDULE);
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    /**
+     * @return the name's new id
+     */
+    private int addName(String name) {
+        int id = names.size();
+        dictionary.put(name, id);
+        names.add(name);
+        return id;
+    }
+
+    private void addOffset(long offset) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2 + 1);
+        }
+        offsets[count++] = offset;
+    }
+}
@@ -0,0 +1,350 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * A ScheduleGenerator answers a CourseList's schedule generation calls from an immutable snapshot of its courses and
+ * priorities, so it is safe to use from any number of threads and unaffected by later edits. Bounds are checked the
+ * same way for every call: no schedules exist unless minCourses is at most maxCourses and at least the number of
+ * priorities, maxCourses is positive, and every priority purpose has a course.
+ * <p>
+ * <a href="#{@link}">{@link CourseListImpl}</a> takes a generator for each call;
+ * <a href="#{@link}">{@link ConcurrentCourseList}</a> keeps one per published snapshot.
+ */
+public class ScheduleGenerator {
+    private final String semesterName;
+    //Null if a priority purpose has no courses
+    private final ScheduleProblem base;
+    private final int priorityCount;
+    private final long[] newCourses;
+    private final int purposeCount;
+    private final ScheduleEngine engine;
+    private final SearchListener listener;
+
+    /**
+     * @param semesterName the semester's name, for search events
+     * @param base the courses and priorities to search, with any bounds; null if a priority purpose has no courses
+     * @param priorityCount the number of priority purposes
+     * @param newCourses a bitset of the ordinals of courses added since schedules were last saved
+     * @param purposeCount the number of distinct purposes, for search events
+     * @param engine the engine to search with
+     * @param listener the listener to report searches to, or null
+     */
+    public ScheduleGenerator(String semesterName, ScheduleProblem base, int priorityCount, long[] newCourses,
+                             int purposeCount, ScheduleEngine engine, SearchListener listener) {
+        this.semesterName = semesterName;
+        this.base = base;
+        this.priorityCount = priorityCount;
+        this.newCourses = newCourses;
+        this.purposeCount = purposeCount;
+        this.engine = engine;
+        this.listener = listener;
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#getSchedules(int, int, int) getSchedules}</a>.
+     */
+    public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException();
+        }
+        ScheduleProblem problem = createProblem(minCourses, maxCourses);
+        return (problem != null) ? search(problem, parallelism, SearchLimits.NONE).getSchedules() : new ArrayList<>();
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#getSchedules(int, int, int, SearchLimits) getSchedules}</a>.
+     */
+    public ScheduleResult getSchedules(int minCourses, int maxCourses, int parallelism, SearchLimits limits) {
+        if (parallelism < 1 || limits == null) {
+            throw new IllegalArgumentException();
+        }
+        ScheduleProblem problem = createProblem(minCourses, maxCourses);
+        if (problem == null) {
+            return new ScheduleResult(new ArrayList<>(), null, new SearchStatistics());
+        }
+        return search(problem, parallelism, limits);
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#getSchedules(int, int, int, int) getSchedules}</a>.
+     */
+    public ArrayList<List<String>> getSchedules(int minCourses, int maxCourses, int minCredits, int maxCredits) {
+        ScheduleProblem problem = createProblem(minCourses, maxCourses, minCredits, maxCredits);
+        return (problem != null && minCredits <= maxCredits)
+                ? search(problem, 1, SearchLimits.NONE).getSchedules() : new ArrayList<>();
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#getNewSchedules(int, int) getNewSchedules}</a>.
+     */
+    public ArrayList<List<String>> getNewSchedules(int minCourses, int maxCourses) {
+        ScheduleProblem problem = createProblem(minCourses, maxCourses);
+        if (problem == null) {
+            return new ArrayList<>();
+        }
+        //One subtree per new course, holding it and none of the new courses before it, so no schedule is found twice
+        List<ScheduleProblem> subtrees = new ArrayList<>();
+        long[] earlier = new long[problem.words];
+        int c = ConflictMatrix.nextSetBit(newCourses, 0);
+        for (; c != -1; c = ConflictMatrix.nextSetBit(newCourses, c + 1)) {
+            ScheduleProblem subtree = problem.include(c);
+            if (subtree != null) {
+                subtrees.add(ConflictMatrix.isEmpty(earlier) ? subtree : subtree.exclude(earlier));
+            }
+            ConflictMatrix.set(earlier, c);
+        }
+        return search(problem, subtrees, 1, SearchLimits.NONE).getSchedules();
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#getBestSchedules(int, int, ScheduleScorer, int) getBestSchedules}</a>.
+     */
+    public ArrayList<List<String>> getBestSchedules(int minCourses, int maxCourses, ScheduleScorer scorer, int k) {
+        if (scorer == null || k < 0) {
+            throw new IllegalArgumentException();
+        }
+        ArrayList<List<String>> finalSchedules = new ArrayList<>();
+        ScheduleProblem problem = createProblem(minCourses, maxCourses);
+        if (problem != null) {
+            for (long[] schedule : RankedScheduleSearch.search(problem, scorer, k)) {
+                finalSchedules.add(toNames(problem, schedule));
+            }
+        }
+        return finalSchedules;
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#scheduleIterator(int, int) scheduleIterator}</a>.
+     */
+    public Iterator<List<String>> scheduleIterator(int minCourses, int maxCourses) {
+        ScheduleProblem problem = createProblem(minCourses, maxCourses);
+        return (problem != null) ? scheduleIterator(problem) : Collections.emptyIterator();
+    }
+
+    /**
+     * Same as <a href="#{@link}">{@link #scheduleIterator(int, int) scheduleIterator}</a>, leaving out the excluded
+     * courses; the schedules must still be maximal in the whole catalog.
+     * @param excluded a bitset of the ordinals of courses no schedule may contain
+     */
+    public Iterator<List<String>> scheduleIterator(int minCourses, int maxCourses, long[] excluded) {
+        ScheduleProblem problem = createProblem(minCourses, maxCourses);
+        return (problem != null) ? scheduleIterator(problem.exclude(excluded)) : Collections.emptyIterator();
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#scheduleIterator(int, int, SearchLimits) scheduleIterator}</a>.
+     */
+    public BoundedScheduleIterator scheduleIterator(int minCourses, int maxCourses, SearchLimits limits) {
+        if (limits == null) {
+            throw new IllegalArgumentException();
+        }
+        AtomicReference<ScheduleResult.StopReason> stopReason = new AtomicReference<>();
+        ScheduleProblem problem = createProblem(minCourses, maxCourses);
+        if (problem == null) {
+            return new BoundedScheduleIterator(Collections.emptyIterator(), new SearchStatistics(), stopReason,
+                    limits.maxResults);
+        }
+        //The search runs on whichever thread iterates
+        SearchStatistics statistics = limitedStatistics(limits, limits.deadline(System.nanoTime()),
+                () -> Thread.currentThread().isInterrupted(), stopReason);
+        return new BoundedScheduleIterator(scheduleIterator(problem, engine.search(problem, statistics)), statistics,
+                stopReason, limits.maxResults);
+    }
+
+    /**
+     * @param problem the snapshot to search
+     * @return an iterator converting the engine's schedules to course names as they are found
+     */
+    private Iterator<List<String>> scheduleIterator(ScheduleProblem problem) {
+        return scheduleIterator(problem, engine.search(problem));
+    }
+
+    /**
+     * @param problem the snapshot being searched
+     * @param search the engine's search of problem
+     * @return an iterator converting the engine's schedules to course names as they are found
+     */
+    private static Iterator<List<String>> scheduleIterator(ScheduleProblem problem, Iterator<long[]> search) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return search.hasNext();
+            }
+
+            @Override
+            public List<String> next() {
+                return toNames(problem, search.next());
+            }
+        };
+    }
+
+    /**
+     * See <a href="#{@link}">{@link CourseList#streamSchedules(int, int) streamSchedules}</a>.
+     */
+    public Stream<List<String>> streamSchedules(int minCourses, int maxCourses) {
+        Spliterator<List<String>> spliterator = Spliterators.spliteratorUnknownSize(
+                scheduleIterator(minCourses, maxCourses), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Runs the engine over problem until it completes or a limit trips, then reports the search's statistics to the
+     * search listener and as a <a href="#{@link}">{@link ScheduleSearchEvent}</a>.
+     * @param problem the snapshot to search
+     * @param parallelism the number of threads to search with; 1 searches on the calling thread
+     * @param limits the limits to stop the search at
+     * @return the schedules, as course names
+     */
+    private ScheduleResult search(ScheduleProblem problem, int parallelism, SearchLimits limits) {
+        return search(problem, List.of(problem), parallelism, limits);
+    }
+
+    /**
+     * Same as <a href="#{@link}">{@link #search(ScheduleProblem, int, SearchLimits) search}</a>, searching parts of
+     * problem one after another as a single search.
+     * @param problem the snapshot the parts were made from, as reported in the search event
+     * @param parts problems whose schedules are the schedules wanted, with no schedule in two of them
+     */
+    private ScheduleResult search(ScheduleProblem problem, List<ScheduleProblem> parts, int parallelism,
+                                  SearchLimits limits) {
+        long start = System.nanoTime();
+        long deadline = limits.deadline(start);
+        //The first event created takes hundreds of milliseconds to register, so none are created unless a recording is
+        //or was running
+        ScheduleSearchEvent event = FlightRecorder.isInitialized() ? new ScheduleSearchEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        Thread caller = Thread.currentThread();
+        //The reason the stop condition last held; written by whichever thread evaluated it
+        AtomicReference<ScheduleResult.StopReason> stopReason = new AtomicReference<>();
+        SearchStatistics statistics = (limits == SearchLimits.NONE) ? new SearchStatistics()
+                : limitedStatistics(limits, deadline, caller::isInterrupted, stopReason);
+
+        ArrayList<List<String>> finalSchedules = new ArrayList<>();
+        boolean capped = false;
+        for (ScheduleProblem part : parts) {
+            if (capped || statistics.isStopped()) {
+                break;
+            }
+            if (parallelism == 1) {
+                Iterator<long[]> iterator = engine.search(part, statistics);
+                while (iterator.hasNext() && !capped) {
+                    if (finalSchedules.size() < limits.maxResults) {
+                        finalSchedules.add(toNames(problem, iterator.next()));
+                    } else {
+                        capped = true;
+                    }
+                }
+            } else {
+                //One schedule past the cap shows that the result is incomplete
+                long remaining = (long) limits.maxResults - finalSchedules.size();
+                List<long[]> found = ParallelScheduleSearch.search(engine, part, parallelism, statistics,
+                        remaining + 1);
+                capped = found.size() > remaining;
+                for (long[] schedule : found.subList(0, (int) Math.min(found.size(), remaining))) {
+                    finalSchedules.add(toNames(problem, schedule));
+                }
+            }
+        }
+        statistics.totalNanos = System.nanoTime() - start;
+        ScheduleResult.StopReason reason = null;
+        if (statistics.isStopped()) {
+            //Only an interrupt, which a parallel search passes to its workers directly, stops without a reason
+            reason = (stopReason.get() != null) ? stopReason.get() : ScheduleResult.StopReason.CANCELLED;
+        }
+        if (reason == null && capped) {
+            reason = ScheduleResult.StopReason.RESULT_CAP;
+        }
+        if (event != null) {
+            event.end();
+        }
+        if (event != null && event.shouldCommit()) {
+            event.semester = semesterName;
+            event.engine = engine.getClass().getSimpleName();
+            event.parallelism = parallelism;
+            event.courses = problem.courseCount;
+            event.purposes = purposeCount;
+            event.priorities = problem.priorityMasks.length;
+            event.minCourses = problem.minCourses;
+            event.maxCourses = problem.maxCourses;
+            event.nodes = statistics.nodes;
+            event.conflictChecks = statistics.conflictChecks;
+            event.backtracks = statistics.backtracks;
+            event.subsetRejections = statistics.subsetRejections;
+            event.emitted = statistics.emitted;
+            event.priorityPhase = statistics.priorityNanos;
+            event.fillPhase = statistics.fillNanos;
+            event.stopReason = (reason != null) ? reason.name() : null;
+            event.commit();
+        }
+        if (listener != null) {
+            listener.searchCompleted(statistics);
+        }
+        return new ScheduleResult(finalSchedules, reason, statistics);
+    }
+
+    /**
+     * @param deadline the System.nanoTime() at which the budget runs out, or Long.MAX_VALUE
+     * @param interrupted true once the thread that requested the search is interrupted
+     * @param stopReason set to the reason the stop condition holds, once it does
+     * @return statistics whose stop condition holds once the token is cancelled, the requester is interrupted or the
+     * deadline passes; the result cap is left to the caller
+     */
+    private static SearchStatistics limitedStatistics(SearchLimits limits, long deadline, BooleanSupplier interrupted,
+                                                      AtomicReference<ScheduleResult.StopReason> stopReason) {
+        return new SearchStatistics(() -> {
+            if ((limits.token != null && limits.token.isCancelled()) || interrupted.getAsBoolean()) {
+                stopReason.set(ScheduleResult.StopReason.CANCELLED);
+            } else if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+                stopReason.set(ScheduleResult.StopReason.DEADLINE);
+            }
+            return stopReason.get() != null;
+        });
+    }
+
+    /**
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @return the snapshot with the given bounds, or null if no schedule can meet the requirements
+     */
+    private ScheduleProblem createProblem(int minCourses, int maxCourses) {
+        return createProblem(minCourses, maxCourses, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param minCredits the minimum total credits of a schedule, inclusive
+     * @param maxCredits the maximum total credits of a schedule, inclusive
+     * @return the snapshot with the given bounds, or null if no schedule can meet the requirements
+     */
+    private ScheduleProblem createProblem(int minCourses, int maxCourses, int minCredits, int maxCredits) {
+        if (minCourses <= maxCourses && minCourses >= priorityCount && maxCourses > 0 && base != null) {
+            return base.withBounds(minCourses, maxCourses, minCredits, maxCredits);
+        }
+        return null;
+    }
+
+    /**
+     * @param problem the problem the schedule was generated from
+     * @param schedule a bitset of course ordinals
+     * @return the names of the courses in schedule, in ordinal order
+     */
+    private static List<String> toNames(ScheduleProblem problem, long[] schedule) {
+        ArrayList<String> names = new ArrayList<>();
+        for (int i = ConflictMatrix.nextSetBit(schedule, 0); i != -1; i = ConflictMatrix.nextSetBit(schedule, i + 1)) {
+            names.add(problem.names[i]);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,274 @@
+/**
+ * A ScheduleProblem is an immutable snapshot of everything a ScheduleEngine needs to generate schedules: the conflict
+ * rows, credits and times of every course, the courses of every priority purpose, and the size and credit bounds.
+ * Snapshots are independent of the CourseList they were taken from, so searches over them are unaffected by later edits.
+ * <p>
+ * A problem can be restricted to one subtree of the search: every schedule then contains the prefix courses, and only
+ * the candidate courses may be added to them. Priority purposes are already covered by the prefix of a restricted
+ * problem. A problem can also exclude courses from its schedules; like a restricted problem, its schedules must still be
+ * maximal in the whole catalog.
+ * <p>
+ * A problem can also include a course in every schedule. A course of a priority purpose becomes that purpose's only
+ * choice; any other course is selected first, like a priority purpose with one course, so the search only explores
+ * schedules that contain it.
+ */
+public class ScheduleProblem {
+    public final int courseCount;
+    public final int words;
+    public final String[] names;
+    public final long[][] rows;
+    public final int[] credits;
+    public final int[] startTimes;
+    public final int[] endTimes;
+    public final long[][] priorityMasks;
+    public final int minCourses;
+    public final int maxCourses;
+    public final int minCredits;
+    public final int maxCredits;
+    public final boolean creditBounded;
+    public final long[] prefix;
+    public final int prefixSize;
+    public final long[] candidates;
+    public final boolean restricted;
+    private final boolean nonNegativeCredits;
+
+    /**
+     * @param matrix the conflict matrix to copy
+     * @param priorityPurposes the interned ids of all priority purposes
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     */
+    public ScheduleProblem(ConflictMatrix matrix, int[] priorityPurposes, int minCourses, int maxCourses) {
+        this(matrix, priorityPurposes, minCourses, maxCourses, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param matrix the conflict matrix to copy
+     * @param priorityPurposes the interned ids of all priority purposes
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param minCredits the minimum total credits of a schedule, inclusive
+     * @param maxCredits the maximum total credits of a schedule, inclusive
+     */
+    public ScheduleProblem(ConflictMatrix matrix, int[] priorityPurposes, int minCourses, int maxCourses,
+                           int minCredits, int maxCredits) {
+        courseCount = matrix.size();
+        words = matrix.words();
+        names = new String[courseCount];
+        rows = new long[courseCount][];
+        credits = new int[courseCount];
+        startTimes = new int[courseCount];
+        endTimes = new int[courseCount];
+        for (int i = 0; i < courseCount; i++) {
+            Course course = matrix.course(i);
+            names[i] = course.name;
+            rows[i] = matrix.row(i).clone();
+            credits[i] = course.credits;
+            startTimes[i] = course.startTime;
+            endTimes[i] = course.endTime;
+        }
+        priorityMasks = new long[priorityPurposes.length][];
+        for (int i = 0; i < priorityPurposes.length; i++) {
+            priorityMasks[i] = matrix.purposeMask(priorityPurposes[i]).clone();
+        }
+        this.minCourses = minCourses;
+        this.maxCourses = maxCourses;
+        this.minCredits = minCredits;
+        this.maxCredits = maxCredits;
+        creditBounded = minCredits != Integer.MIN_VALUE || maxCredits != Integer.MAX_VALUE;
+        boolean nonNegative = true;
+        for (int credit : credits) {
+            nonNegative &= credit >= 0;
+        }
+        nonNegativeCredits = nonNegative;
+        prefix = new long[words];
+        prefixSize = 0;
+        candidates = allCourses();
+        restricted = false;
+    }
+
+    private ScheduleProblem(ScheduleProblem parent, long[][] priorityMasks, long[] prefix, long[] candidates,
+                            boolean restricted) {
+        this(parent, priorityMasks, prefix, candidates, restricted, parent.minCourses, parent.maxCourses,
+                parent.minCredits, parent.maxCredits);
+    }
+
+    private ScheduleProblem(ScheduleProblem parent, long[][] priorityMasks, long[] prefix, long[] candidates,
+                            boolean restricted, int minCourses, int maxCourses, int minCredits, int maxCredits) {
+        courseCount = parent.courseCount;
+        words = parent.words;
+        names = parent.names;
+        rows = parent.rows;
+        credits = parent.credits;
+        startTimes = parent.startTimes;
+        endTimes = parent.endTimes;
+        this.priorityMasks = priorityMasks;
+        this.minCourses = minCourses;
+        this.maxCourses = maxCourses;
+        this.minCredits = minCredits;
+        this.maxCredits = maxCredits;
+        creditBounded = minCredits != Integer.MIN_VALUE || maxCredits != Integer.MAX_VALUE;
+        nonNegativeCredits = parent.nonNegativeCredits;
+        this.prefix = prefix.clone();
+        prefixSize = ConflictMatrix.cardinality(prefix);
+        this.candidates = candidates.clone();
+        this.restricted = restricted;
+    }
+
+    /**
+     * Shares this problem's course data, so problems with different bounds can be made from one snapshot without
+     * copying the conflict rows again.
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @param minCredits the minimum total credits of a schedule, inclusive
+     * @param maxCredits the maximum total credits of a schedule, inclusive
+     * @return a copy of this problem with the given bounds
+     */
+    public ScheduleProblem withBounds(int minCourses, int maxCourses, int minCredits, int maxCredits) {
+        return new ScheduleProblem(this, priorityMasks, prefix, candidates, restricted, minCourses, maxCourses,
+                minCredits, maxCredits);
+    }
+
+    /**
+     * @param prefix compatible courses covering every priority purpose, contained in every schedule of the subproblem
+     * @param candidates courses compatible with prefix that the subproblem may add
+     * @return the subproblem
+     */
+    public ScheduleProblem restrict(long[] prefix, long[] candidates) {
+        return new ScheduleProblem(this, new long[0][], prefix, candidates, true);
+    }
+
+    /**
+     * @param courses a bitset of course ordinals
+     * @return a copy of this problem whose schedules contain none of courses
+     */
+    public ScheduleProblem exclude(long[] courses) {
+        long[] remaining = new long[words];
+        ConflictMatrix.andNot(candidates, courses, remaining);
+        return new ScheduleProblem(this, priorityMasks, prefix, remaining, true);
+    }
+
+    /**
+     * @param course a course ordinal
+     * @return a copy of this problem whose schedules all contain course, or null if its schedules cannot: course is
+     * not a candidate, or it is of no priority purpose and the priority courses already take maxCourses
+     */
+    public ScheduleProblem include(int course) {
+        if (!ConflictMatrix.get(candidates, course)) {
+            return null;
+        }
+        long[] only = new long[words];
+        ConflictMatrix.set(only, course);
+        for (int i = 0; i < priorityMasks.length; i++) {
+            if (ConflictMatrix.get(priorityMasks[i], course)) {
+                long[][] masks = priorityMasks.clone();
+                masks[i] = only;
+                return new ScheduleProblem(this, masks, prefix, candidates, restricted);
+            }
+        }
+        if (prefixSize + priorityMasks.length >= maxCourses) {
+            return null;
+        }
+        long[][] masks = new long[priorityMasks.length + 1][];
+        masks[0] = only;
+        System.arraycopy(priorityMasks, 0, masks, 1, priorityMasks.length);
+        return new ScheduleProblem(this, masks, prefix, candidates, restricted);
+    }
+
+    /**
+     * @return a bitset containing every course
+     */
+    public long[] allCourses() {
+        return ConflictMatrix.firstBits(words, courseCount);
+    }
+
+    /**
+     * @param ordinals a bitset of course ordinals
+     * @return the bitset of courses compatible with every course in ordinals
+     */
+    public long[] compatibleWith(long[] ordinals) {
+        long[] compatible = allCourses();
+        for (int i = ConflictMatrix.nextSetBit(ordinals, 0); i != -1; i = ConflictMatrix.nextSetBit(ordinals, i + 1)) {
+            ConflictMatrix.andNot(compatible, rows[i], compatible);
+        }
+        return compatible;
+    }
+
+    /**
+     * @param ordinals a bitset of course ordinals
+     * @return true if no course outside ordinals can be added to them without a conflict; false otherwise
+     */
+    public boolean isMaximal(long[] ordinals) {
+        return ConflictMatrix.isEmpty(compatibleWith(ordinals));
+    }
+
+    /**
+     * @param ordinals a bitset of course ordinals
+     * @return the total credits of the courses in ordinals
+     */
+    public int creditsOf(long[] ordinals) {
+        int total = 0;
+        for (int i = ConflictMatrix.nextSetBit(ordinals, 0); i != -1; i = ConflictMatrix.nextSetBit(ordinals, i + 1)) {
+            total += credits[i];
+        }
+        return total;
+    }
+
+    /**
+     * @param totalCredits the total credits of a schedule
+     * @return true if totalCredits is within the credit bounds; false otherwise
+     */
+    public boolean creditsInRange(int totalCredits) {
+        return totalCredits >= minCredits && totalCredits <= maxCredits;
+    }
+
+    /**
+     * The best completion adds the highest-credit candidates that still fit. Never prunes if a course has negative
+     * credits, since adding courses could then lower the total.
+     * @param totalCredits the total credits of the courses selected so far
+     * @param size the number of courses selected so far
+     * @param candidates the courses that may still be added
+     * @return false if no completion of the selection can be within the credit bounds; true otherwise
+     */
+    public boolean canReachCredits(int totalCredits, int size, long[] candidates) {
+        if (!nonNegativeCredits) {
+            return true;
+        }
+        return totalCredits <= maxCredits && (minCredits == Integer.MIN_VALUE
+                || totalCredits + largestSum(credits, candidates, maxCourses - size) >= minCredits);
+    }
+
+    /**
+     * @param values a value per course ordinal
+     * @param ordinals a bitset of course ordinals
+     * @param count the number of values to add up
+     * @return the sum of the count largest values among ordinals, or of all of them if there are fewer
+     */
+    public static int largestSum(int[] values, long[] ordinals, int count) {
+        if (count <= 0) {
+            return 0;
+        }
+        //Keep the largest values seen so far in descending order
+        int[] largest = new int[count];
+        int found = 0;
+        for (int i = ConflictMatrix.nextSetBit(ordinals, 0); i != -1; i = ConflictMatrix.nextSetBit(ordinals, i + 1)) {
+            int value = values[i];
+            if (found < count) {
+                found++;
+            } else if (value <= largest[count - 1]) {
+                continue;
+            }
+            int j = found - 1;
+            while (j > 0 && largest[j - 1] < value) {
+                largest[j] = largest[j - 1];
+                j--;
+            }
+            largest[j] = value;
+        }
+        int sum = 0;
+        for (int j = 0; j < found; j++) {
+            sum += largest[j];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ScheduleResult holds the schedules of a bounded search, from
+ * <a href="#{@link}">{@link CourseList#getSchedules(int, int, int, SearchLimits) getSchedules}</a>, and whether the
+ * search ran to completion.
+ */
+public class ScheduleResult {
+    public enum StopReason {
+        //The time budget ran out
+        DEADLINE,
+        //More schedules existed than the maximum result count
+        RESULT_CAP,
+        //The token was cancelled or the requesting thread was interrupted
+        CANCELLED
+    }
+
+    private final ArrayList<List<String>> schedules;
+    private final StopReason stopReason;
+    private final SearchStatistics statistics;
+
+    /**
+     * @param stopReason why the search stopped early, or null if it ran to completion
+     */
+    public ScheduleResult(ArrayList<List<String>> schedules, StopReason stopReason, SearchStatistics statistics) {
+        this.schedules = schedules;
+        this.stopReason = stopReason;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return the schedules found; those of an incomplete result are a part of the complete result, in the same
+     * relative order
+     */
+    public ArrayList<List<String>> getSchedules() {
+        return schedules;
+    }
+
+    /**
+     * @return true if the search ran to completion and the result holds every schedule; false otherwise
+     */
+    public boolean isComplete() {
+        return stopReason == null;
+    }
+
+    /**
+     * @return why the search stopped early, or null if it ran to completion
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * @return the search's statistics
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * A ScheduleScorer ranks schedules for <a href="#{@link}">{@link CourseList#getBestSchedules getBestSchedules}</a>.
+ * Higher scores are better. The bound lets the search skip every branch that cannot beat the schedules it already
+ * holds, so it must never underestimate.
+ */
+public interface ScheduleScorer {
+    /**
+     * @param problem the problem the schedule belongs to
+     * @param schedule a bitset of course ordinals
+     * @return the schedule's score
+     */
+    double score(ScheduleProblem problem, long[] schedule);
+
+    /**
+     * @param problem the problem being searched
+     * @param partial a bitset of the courses selected so far
+     * @param size the number of courses in partial
+     * @param candidates the courses that may still be added to partial
+     * @return an upper bound on the score of any schedule made of partial plus at most maxCourses - size candidates
+     */
+    double bound(ScheduleProblem problem, long[] partial, int size, long[] candidates);
+}
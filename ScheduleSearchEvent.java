@@ -0,0 +1,71 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event committed by every schedule search a CourseList runs, including ones stopped by a limit,
+ * carrying the search's <a href="#{@link}">{@link SearchStatistics}</a> and the shape of the catalog it searched, so
+ * slow calls in a recording can be told apart by catalog; the stopReason field tells limited searches apart.
+ * Schedules found lazily through scheduleIterator or streamSchedules are not recorded. Enabled by default with no
+ * threshold; recordings can set one on CourseRegAssistant.ScheduleSearch to keep only slow calls. Searches are only
+ * recorded once Flight Recorder has been started in the JVM, since registering the first event is slow.
+ */
+@Name("CourseRegAssistant.ScheduleSearch")
+@Label("Schedule Search")
+@Category("Course Registration Assistant")
+@Description("A schedule search, including one stopped by a limit, with its work counts and catalog shape")
+public class ScheduleSearchEvent extends Event {
+    @Label("Semester")
+    String semester;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Parallelism")
+    int parallelism;
+
+    @Label("Courses")
+    int courses;
+
+    @Label("Purposes")
+    int purposes;
+
+    @Label("Priorities")
+    int priorities;
+
+    @Label("Min Courses")
+    int minCourses;
+
+    @Label("Max Courses")
+    int maxCourses;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Conflict Checks")
+    long conflictChecks;
+
+    @Label("Backtracks")
+    long backtracks;
+
+    @Label("Subset Rejections")
+    long subsetRejections;
+
+    @Label("Schedules Emitted")
+    long emitted;
+
+    @Label("Priority Phase")
+    @Timespan(Timespan.NANOSECONDS)
+    long priorityPhase;
+
+    @Label("Fill Phase")
+    @Timespan(Timespan.NANOSECONDS)
+    long fillPhase;
+
+    @Label("Stop Reason")
+    @Description("Why a bounded search stopped before completing, or null if it completed")
+    String stopReason;
+}
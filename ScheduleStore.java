@@ -0,0 +1,315 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A ScheduleStore holds the schedules saved in a CourseList, in the order they were saved, and indexes them by course
+ * and by purpose. Finding or removing the schedules that use a course, or that cover a purpose, costs time proportional
+ * to the number of matching schedules rather than to the number stored.
+ * <p>
+ * Schedules are kept as course name ids, back to back in one int array, so a stored schedule costs a few bytes per
+ * course instead of a list object and its references. Schedules are read through lightweight views that resolve ids to
+ * names on access.
+ * <p>
+ * Ids are positions in save order. Removed schedules leave a gap that is skipped by every query; once gaps outnumber
+ * the stored schedules, the store is compacted and ids are renumbered.
+ */
+public class ScheduleStore {
+    private final Map<String, Course> courses;
+    //Course name dictionary
+    private ArrayList<String> names;
+    private Map<String, Integer> nameIds;
+    //Schedule id's name ids are arena[starts[id]] to arena[starts[id + 1] - 1]
+    private int[] arena;
+    private int[] starts;
+    private int idLimit;
+    private long[] removed;
+    private int size;
+    //Schedule ids per name id, and per purpose id of the scheduled courses
+    private Postings postings;
+    private Map<String, Integer> purposeIds;
+    private Postings purposePostings;
+
+    /**
+     * @param courses the course list's courses, used to look up the purposes of scheduled courses
+     */
+    public ScheduleStore(Map<String, Course> courses) {
+        this.courses = courses;
+        clear();
+    }
+
+    /**
+     * @return the number of stored schedules
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return one more than the largest id in use
+     */
+    public int idLimit() {
+        return idLimit;
+    }
+
+    /**
+     * @param id a schedule id
+     * @return an unmodifiable view of the schedule, or null if it was removed
+     */
+    public List<String> get(int id) {
+        if (id < 0 || id >= idLimit) {
+            throw new IndexOutOfBoundsException();
+        }
+        return ConflictMatrix.get(removed, id) ? null : new ScheduleView(arena, starts[id], starts[id + 1], names);
+    }
+
+    /**
+     * Stores a schedule after all others.
+     * @param schedule the names of the schedule's courses
+     * @return the schedule's id
+     */
+    public int add(List<String> schedule) {
+        int id = idLimit++;
+        if (idLimit + 1 > starts.length) {
+            starts = Arrays.copyOf(starts, grow(starts.length));
+        }
+        if (idLimit > removed.length * 64) {
+            removed = Arrays.copyOf(removed, removed.length * 2);
+        }
+        int start = starts[id];
+        if (start + schedule.size() > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(grow(arena.length), start + schedule.size()));
+        }
+        for (String courseName : schedule) {
+            int nameId = nameId(courseName);
+            arena[start++] = nameId;
+            postings.add(nameId, id);
+            //A course removed from the list can no longer be looked up, and no longer matches a purpose
+            Course course = courses.get(courseName);
+            if (course != null) {
+                Integer purposeId = purposeIds.get(course.purpose);
+                if (purposeId == null) {
+                    purposeId = purposeIds.size();
+                    purposeIds.put(course.purpose, purposeId);
+                }
+                purposePostings.add(purposeId, id);
+            }
+        }
+        starts[idLimit] = start;
+        size++;
+        return id;
+    }
+
+    /**
+     * @param courseName the name of a course
+     * @return the ids of the schedules containing the course, ascending
+     */
+    public List<Integer> withCourse(String courseName) {
+        Integer nameId = nameIds.get(courseName);
+        return (nameId != null) ? postings.live(nameId, removed) : new ArrayList<>();
+    }
+
+    /**
+     * @param purpose a course purpose
+     * @return the ids of the schedules containing a course of purpose, ascending
+     */
+    public List<Integer> withPurpose(String purpose) {
+        Integer purposeId = purposeIds.get(purpose);
+        return (purposeId != null) ? purposePostings.live(purposeId, removed) : new ArrayList<>();
+    }
+
+    /**
+     * Removes every schedule containing the course.
+     * @param courseName the name of a course
+     * @return the number of schedules removed
+     */
+    public int removeCourse(String courseName) {
+        Integer nameId = nameIds.get(courseName);
+        if (nameId == null) {
+            return 0;
+        }
+        int removedCount = 0;
+        for (int id : postings.live(nameId, removed)) {
+            ConflictMatrix.set(removed, id);
+            removedCount++;
+        }
+        size -= removedCount;
+        if (idLimit - size > size) {
+            compact();
+        }
+        return removedCount;
+    }
+
+    /**
+     * Removes every schedule whose id is not in ids. Only the kept schedules are visited.
+     * @param ids the ids of the schedules to keep, ascending
+     */
+    public void retainAll(List<Integer> ids) {
+        ArrayList<List<String>> kept = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            kept.add(get(id));
+        }
+        rebuild(kept);
+    }
+
+    public void clear() {
+        rebuild(new ArrayList<>());
+    }
+
+    /**
+     * @return the number of courses in the smallest stored schedule, or 0 if there are none
+     */
+    public int minScheduleSize() {
+        int min = Integer.MAX_VALUE;
+        for (int id = 0; id < idLimit; id++) {
+            if (!ConflictMatrix.get(removed, id)) {
+                min = Math.min(min, starts[id + 1] - starts[id]);
+            }
+        }
+        return (size == 0) ? 0 : min;
+    }
+
+    /**
+     * @return the number of courses in the largest stored schedule, or 0 if there are none
+     */
+    public int maxScheduleSize() {
+        int max = 0;
+        for (int id = 0; id < idLimit; id++) {
+            if (!ConflictMatrix.get(removed, id)) {
+                max = Math.max(max, starts[id + 1] - starts[id]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Arrays grow by half rather than double, since their unused capacity is most of the store's overhead.
+     * @return the capacity to grow an array of the given length to
+     */
+    private static int grow(int length) {
+        return length + (length >> 1) + 1;
+    }
+
+    /**
+     * @return the name's id, adding it to the dictionary if it is new
+     */
+    private int nameId(String courseName) {
+        Integer nameId = nameIds.get(courseName);
+        if (nameId == null) {
+            nameId = names.size();
+            names.add(courseName);
+            nameIds.put(courseName, nameId);
+        }
+        return nameId;
+    }
+
+    private void compact() {
+        ArrayList<List<String>> kept = new ArrayList<>(size);
+        for (int id = 0; id < idLimit; id++) {
+            if (!ConflictMatrix.get(removed, id)) {
+                kept.add(get(id));
+            }
+        }
+        rebuild(kept);
+    }
+
+    /**
+     * Replaces the store's contents with kept. Views of kept stay valid, since they hold on to the old arrays.
+     */
+    private void rebuild(List<List<String>> kept) {
+        names = new ArrayList<>();
+        nameIds = new HashMap<>();
+        arena = new int[64];
+        starts = new int[16];
+        idLimit = 0;
+        removed = new long[1];
+        size = 0;
+        postings = new Postings();
+        purposeIds = new HashMap<>();
+        purposePostings = new Postings();
+        for (List<String> schedule : kept) {
+            add(schedule);
+        }
+    }
+
+    /**
+     * Schedule ids per key, ascending. Ids of removed schedules stay in a key's list until it is next read.
+     */
+    private static class Postings {
+        private int[][] lists = new int[16][];
+        private int[] sizes = new int[16];
+
+        /**
+         * @param id a schedule id larger than any in key's list
+         */
+        private void add(int key, int id) {
+            if (key >= lists.length) {
+                lists = Arrays.copyOf(lists, Math.max(key + 1, lists.length * 2));
+                sizes = Arrays.copyOf(sizes, lists.length);
+            }
+            if (lists[key] == null) {
+                lists[key] = new int[4];
+            } else if (sizes[key] > 0 && lists[key][sizes[key] - 1] == id) {
+                //Already listed through another course of the schedule
+                return;
+            } else if (sizes[key] == lists[key].length) {
+                lists[key] = Arrays.copyOf(lists[key], grow(sizes[key]));
+            }
+            lists[key][sizes[key]++] = id;
+        }
+
+        /**
+         * Drops removed schedules from key's list.
+         * @return the ids in key's list that are not removed
+         */
+        private List<Integer> live(int key, long[] removed) {
+            int[] ids = lists[key];
+            int kept = 0;
+            for (int i = 0; i < sizes[key]; i++) {
+                if (!ConflictMatrix.get(removed, ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            sizes[key] = kept;
+            ArrayList<Integer> live = new ArrayList<>(kept);
+            for (int i = 0; i < kept; i++) {
+                live.add(ids[i]);
+            }
+            return live;
+        }
+    }
+
+    private static class ScheduleView extends AbstractList<String> {
+        private final int[] arena;
+        private final int from;
+        private final int to;
+        private final List<String> names;
+
+        private ScheduleView(int[] arena, int from, int to, List<String> names) {
+            this.arena = arena;
+            this.from = from;
+            this.to = to;
+            this.names = names;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException();
+            }
+            return names.get(arena[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * SearchLimits bound a call to
+ * <a href="#{@link}">{@link CourseList#getSchedules(int, int, int, SearchLimits) getSchedules}</a>: a wall-clock budget,
+ * a maximum number of schedules, and a cancellation token. The search also stops if the thread that requested it is
+ * interrupted. A search that stops early returns the schedules found so far, flagged as incomplete.
+ * <p>
+ * Engines check the budget, token and interrupt status once every 64 search nodes, so a search overruns its budget by
+ * at most 64 nodes of work on each thread searching.
+ */
+public class SearchLimits {
+    public static final SearchLimits NONE = new SearchLimits(Long.MAX_VALUE, Integer.MAX_VALUE, null);
+
+    public final long timeBudgetMillis;
+    public final int maxResults;
+    public final CancellationToken token;
+
+    /**
+     * @param timeBudgetMillis the longest the search may run, in milliseconds; Long.MAX_VALUE for no budget
+     * @param maxResults the maximum number of schedules to return; Integer.MAX_VALUE for no cap
+     * @param token a token another thread can cancel the search with, or null
+     * @throws IllegalArgumentException if timeBudgetMillis or maxResults is negative
+     */
+    public SearchLimits(long timeBudgetMillis, int maxResults, CancellationToken token) {
+        if (timeBudgetMillis < 0 || maxResults < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxResults = maxResults;
+        this.token = token;
+    }
+
+    /**
+     * @param startNanos when the search started, from System.nanoTime()
+     * @return the System.nanoTime() at which the budget runs out, or Long.MAX_VALUE if it never does
+     */
+    public long deadline(long startNanos) {
+        long budgetNanos = (timeBudgetMillis >= Long.MAX_VALUE / 1000000) ? Long.MAX_VALUE : timeBudgetMillis * 1000000;
+        return (budgetNanos > Long.MAX_VALUE - startNanos) ? Long.MAX_VALUE : startNanos + budgetNanos;
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * A SearchListener receives the <a href="#{@link}">{@link SearchStatistics}</a> of every schedule search a CourseList
+ * runs, including ones stopped by a limit; see
+ * <a href="#{@link}">{@link CourseList#setSearchListener(SearchListener) setSearchListener}</a>. It is called on the
+ * thread that requested the schedules, after the search and before the schedules are returned.
+ */
+public interface SearchListener {
+    /**
+     * @param statistics the search's statistics; not updated after the call
+     */
+    void searchCompleted(SearchStatistics statistics);
+}
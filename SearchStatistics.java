@@ -0,0 +1,201 @@
+import java.util.function.BooleanSupplier;
+
+/**
+ * SearchStatistics counts the work a <a href="#{@link}">{@link ScheduleEngine}</a> did in one search, to explain why a
+ * call was slow: how many branches it tried and abandoned, how much conflict checking it did, how many complete
+ * schedules it threw away as subsets of others, and how its time splits between selecting priority courses and filling
+ * schedules with non-priority courses.
+ * <p>
+ * A conflict check is one course's conflict row applied to a set of courses, which checks them all at once. Phase
+ * timings cover time spent inside the engine only, not time the caller spends between schedules; a parallel search adds
+ * up the time of every thread, so its phases can exceed the wall-clock total.
+ * <p>
+ * A limited search also carries its stop condition here, since engines already update the statistics at every node; see
+ * shouldStop().
+ * <p>
+ * Not thread-safe: every thread of a search counts into its own statistics, which are merged with add().
+ */
+public class SearchStatistics {
+    //The stop condition is evaluated on one poll in STOP_POLL_INTERVAL, a power of two
+    private static final int STOP_POLL_INTERVAL = 64;
+
+    long nodes;
+    long conflictChecks;
+    long backtracks;
+    long subsetRejections;
+    long emitted;
+    long priorityNanos;
+    long fillNanos;
+    long totalNanos;
+    //The phase being timed, if any, and when it started
+    private boolean timing;
+    private boolean priorityPhase;
+    private long phaseStart;
+    //Null if the search runs to completion
+    private final BooleanSupplier stopCondition;
+    private int polls;
+    private boolean stopped;
+
+    public SearchStatistics() {
+        this(null);
+    }
+
+    /**
+     * @param stopCondition true once the search should stop early, or null for a search that runs to completion; may
+     * be evaluated on several threads at once
+     */
+    public SearchStatistics(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * @param alsoStopWhen a further stop condition
+     * @return new statistics for one subtree of a parallel search, stopping when either condition holds
+     * @throws IllegalStateException if these statistics have no stop condition
+     */
+    SearchStatistics forSubtree(BooleanSupplier alsoStopWhen) {
+        if (stopCondition == null) {
+            throw new IllegalStateException();
+        }
+        return new SearchStatistics(() -> stopCondition.getAsBoolean() || alsoStopWhen.getAsBoolean());
+    }
+
+    /**
+     * @return true if the search has a stop condition; false if it runs to completion
+     */
+    boolean hasStopCondition() {
+        return stopCondition != null;
+    }
+
+    /**
+     * @return the number of courses tried as the next selection of a schedule
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the number of course conflict rows applied to a set of courses
+     */
+    public long getConflictChecks() {
+        return conflictChecks;
+    }
+
+    /**
+     * @return the number of times the search ran out of choices at a depth and returned to the one above
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * @return the number of complete schedules rejected because a course could still be added to them
+     */
+    public long getSubsetRejections() {
+        return subsetRejections;
+    }
+
+    /**
+     * @return the number of schedules produced
+     */
+    public long getEmitted() {
+        return emitted;
+    }
+
+    /**
+     * @return nanoseconds spent selecting one course of every priority purpose
+     */
+    public long getPriorityNanos() {
+        return priorityNanos;
+    }
+
+    /**
+     * @return nanoseconds spent adding non-priority courses to the priority selections
+     */
+    public long getFillNanos() {
+        return fillNanos;
+    }
+
+    /**
+     * @return wall-clock nanoseconds of the whole call, including converting schedules to course names; 0 if the
+     * statistics were not taken by a CourseList
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return true if the search stopped early because its stop condition held; false otherwise
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Engines call this once per step of their search, and end the search as soon as it returns true. The stop
+     * condition is only evaluated every STOP_POLL_INTERVAL calls, which keeps its cost out of the search without letting
+     * a search overrun by more than a few dozen steps.
+     * @return true once the stop condition has held; false otherwise
+     */
+    boolean shouldStop() {
+        if (!stopped && stopCondition != null && (polls++ & (STOP_POLL_INTERVAL - 1)) == 0) {
+            stopped = stopCondition.getAsBoolean();
+        }
+        return stopped;
+    }
+
+    /**
+     * Charges the time since the last call to the phase that was running, and starts timing the given phase. Engines
+     * call this when the search resumes and whenever it crosses between phases.
+     * @param priority true for priority selection; false for the non-priority fill
+     */
+    void enterPhase(boolean priority) {
+        long now = System.nanoTime();
+        if (timing) {
+            charge(now);
+        }
+        timing = true;
+        priorityPhase = priority;
+        phaseStart = now;
+    }
+
+    /**
+     * Charges the time since the last call to the phase that was running, and stops timing until enterPhase().
+     * Engines call this before handing a schedule to the caller.
+     */
+    void pause() {
+        if (timing) {
+            charge(System.nanoTime());
+            timing = false;
+        }
+    }
+
+    private void charge(long now) {
+        if (priorityPhase) {
+            priorityNanos += now - phaseStart;
+        } else {
+            fillNanos += now - phaseStart;
+        }
+    }
+
+    /**
+     * Adds other's counts and timings to these, i.e. to combine the subtrees of a parallel search.
+     */
+    public void add(SearchStatistics other) {
+        nodes += other.nodes;
+        conflictChecks += other.conflictChecks;
+        backtracks += other.backtracks;
+        subsetRejections += other.subsetRejections;
+        emitted += other.emitted;
+        priorityNanos += other.priorityNanos;
+        fillNanos += other.fillNanos;
+        totalNanos += other.totalNanos;
+        stopped |= other.stopped;
+    }
+
+    public String toString() {
+        return "nodes=" + nodes + ", conflictChecks=" + conflictChecks + ", backtracks=" + backtracks
+                + ", subsetRejections=" + subsetRejections + ", emitted=" + emitted + ", priorityNanos=" + priorityNanos
+                + ", fillNanos=" + fillNanos + ", totalNanos=" + totalNanos;
+    }
+}
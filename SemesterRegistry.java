@@ -0,0 +1,563 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A SemesterRegistry hands out shared, already-loaded semesters and timeframes, so each is read from its files once
+ * rather than on every request. Loaded instances are kept in one least-recently-used cache, bounded by a number of
+ * entries and by an estimate of their memory; the least recently used are evicted once either budget is exceeded.
+ * <p>
+ * Semesters are <a href="#{@link}">{@link ConcurrentCourseList}</a> instances and are leased: an evicted semester is
+ * only closed once every lease on it is released, and acquiring it again before then reuses it, so no two instances of
+ * a semester are ever open because of eviction. Timeframes are not edited after loading and need no lease.
+ * <p>
+ * A cached instance is reloaded if its files were changed by another process, checked at most once every
+ * RELOAD_CHECK_MILLIS per instance: for timeframes, the timeframe file; for semesters, the course log and the schedule
+ * file, apart from changes made through the instance itself. A semester keeps the timeframe range it was loaded with
+ * until it is reloaded or evicted.
+ * <p>
+ * A semester whose files changed is dropped at once, but a new instance is only loaded after every lease on the old one
+ * is released and it is discarded, so two instances never write the same files; requests for it wait in the meantime.
+ * <p>
+ * Files are read and written outside the registry's lock: while one instance loads or closes, requests for others are
+ * answered, and concurrent requests for that one wait for it rather than load it again.
+ */
+public class SemesterRegistry implements Closeable {
+    public static final long RELOAD_CHECK_MILLIS = 1000;
+    //Estimates of the memory held by a loaded instance
+    private static final long TIMEFRAME_BYTES = 8 * 1024;
+    private static final long SEMESTER_BYTES = 4 * 1024;
+    //A course's fields, names and map entries, in the list and in its published snapshot
+    private static final long COURSE_BYTES = 512;
+    private static final long SCHEDULE_BYTES = 128;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    //Access-ordered, so iteration starts with the least recently used entry
+    private final LinkedHashMap<String, Entry> entries;
+    //Evicted semesters that are still leased, by name
+    private final Map<String, Entry> retired;
+    //Semesters that are stale and still leased, or waiting to be closed, by name; none is loaded again until it is gone
+    private final Map<String, Entry> departing;
+    //Instances being loaded, by name, completed once the load succeeds or fails
+    private final Map<String, CompletableFuture<Void>> loading;
+    //Departing semesters to be closed once the lock is released
+    private final List<Entry> toClose;
+    private boolean closed;
+    private long estimatedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long reloads;
+
+    /**
+     * A cached semester or timeframe.
+     */
+    private static class Entry {
+        private final String key;
+        //Exactly one of semester and timeframe is set
+        private final ConcurrentCourseList semester;
+        private final String timeframeName;
+        private final Timeframe timeframe;
+        private final long[] timeframeStamp;
+        //Completed once a departing semester is closed
+        private final CompletableFuture<Void> gone;
+        private long bytes;
+        private long lastCheck;
+        private int leases;
+        private boolean stale;
+        private boolean queued;
+
+        private Entry(String key, ConcurrentCourseList semester, String timeframeName, Timeframe timeframe,
+                      long[] timeframeStamp) {
+            this.key = key;
+            this.semester = semester;
+            this.timeframeName = timeframeName;
+            this.timeframe = timeframe;
+            this.timeframeStamp = timeframeStamp;
+            gone = new CompletableFuture<>();
+            lastCheck = System.nanoTime();
+        }
+    }
+
+    /**
+     * A leased semester, to be released once the caller is done with it.
+     */
+    public class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * @return the semester; only valid until the lease is released
+         */
+        public CourseList get() {
+            return entry.semester;
+        }
+
+        /**
+         * Releases the lease, closing the semester if it was evicted or dropped and this was its last lease. Releasing
+         * twice does nothing.
+         * @throws IOException if the semester had to be closed and could not be
+         */
+        @Override
+        public void close() throws IOException {
+            synchronized (SemesterRegistry.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                release(entry);
+            }
+            rethrow(closePending());
+        }
+    }
+
+    /**
+     * @param maxEntries the maximum number of semesters and timeframes kept loaded; the most recently used one is kept
+     * even if it alone exceeds a budget
+     * @param maxBytes the maximum estimated memory of the semesters and timeframes kept loaded
+     * @throws IllegalArgumentException if maxEntries is less than 1 or maxBytes is negative
+     */
+    public SemesterRegistry(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        retired = new HashMap<>();
+        departing = new HashMap<>();
+        loading = new HashMap<>();
+        toClose = new ArrayList<>();
+    }
+
+    /**
+     * @param name the name of the timeframe
+     * @return the loaded timeframe
+     * @throws IllegalStateException if the registry is closed
+     * @throws java.io.FileNotFoundException if the timeframe does not exist
+     * @throws IOException if the timeframe cannot be read
+     */
+    public Timeframe getTimeframe(String name) throws IOException {
+        String key = "timeframe:" + name;
+        try {
+            while (true) {
+                CompletableFuture<Void> pending;
+                synchronized (this) {
+                    checkOpen();
+                    Entry entry = entries.get(key);
+                    //A stamp is only the file's attributes, so it is taken under the lock
+                    if (entry != null && dueForCheck(entry)
+                            && !Arrays.equals(SemesterSnapshot.stamp(timeframePath(name)), entry.timeframeStamp)) {
+                        reloads++;
+                        entries.remove(key);
+                        estimatedBytes -= entry.bytes;
+                        entry = null;
+                    }
+                    if (entry != null) {
+                        hits++;
+                        return entry.timeframe;
+                    }
+                    pending = loading.get(key);
+                    if (pending == null) {
+                        misses++;
+                        loading.put(key, new CompletableFuture<>());
+                    }
+                }
+                if (pending == null) {
+                    return loadTimeframe(key, name);
+                }
+                await(pending);
+            }
+        } finally {
+            rethrow(closePending());
+        }
+    }
+
+    /**
+     * Leases a semester, loading it if it is not cached. Its course times are checked against the timeframe's range.
+     * @param name the name of the semester
+     * @param timeframeName the name of the semester's timeframe
+     * @return a lease on the loaded semester, to be closed once the caller is done with it
+     * @throws IllegalArgumentException if the semester is loaded with another timeframe
+     * @throws IllegalStateException if the registry is closed
+     * @throws java.io.FileNotFoundException if the timeframe does not exist
+     * @throws IOException if the semester or timeframe cannot be read, or the semester cannot be created
+     */
+    public Lease acquireSemester(String name, String timeframeName) throws IOException {
+        Lease lease = null;
+        try {
+            lease = lease("semester:" + name, name, timeframeName);
+            return lease;
+        } finally {
+            IOException failure = closePending();
+            if (failure != null && lease != null) {
+                lease.close();
+            }
+            rethrow(failure);
+        }
+    }
+
+    /**
+     * @return the number of requests answered from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of requests that loaded from files, including reloads
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of instances evicted to stay within the budgets
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of instances dropped because their files changed
+     */
+    public synchronized long getReloads() {
+        return reloads;
+    }
+
+    /**
+     * @return the number of semesters and timeframes cached
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated memory of the cached semesters and timeframes, in bytes
+     */
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "entries=" + entries.size() + ", estimatedBytes=" + estimatedBytes + ", hits=" + hits + ", misses="
+                + misses + ", evictions=" + evictions + ", reloads=" + reloads;
+    }
+
+    /**
+     * Closes every cached semester, including evicted and dropped ones still leased; their leases must not be used
+     * afterwards. Semesters still loading are closed once loaded.
+     * @throws IOException if a semester cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            List<Entry> open = new ArrayList<>(entries.values());
+            open.addAll(retired.values());
+            open.addAll(departing.values());
+            for (Entry entry : open) {
+                if (entry.semester != null) {
+                    depart(entry, false);
+                    queue(entry);
+                }
+            }
+            entries.clear();
+            retired.clear();
+            estimatedBytes = 0;
+        }
+        rethrow(closePending());
+    }
+
+    /**
+     * Finds a semester in the cache, waiting for any load or close of it in progress, or loads it.
+     */
+    private Lease lease(String key, String name, String timeframeName) throws IOException {
+        while (true) {
+            Entry entry;
+            CompletableFuture<Void> pending = null;
+            boolean check = false;
+            synchronized (this) {
+                checkOpen();
+                entry = entries.get(key);
+                if (entry == null && retired.containsKey(key)) {
+                    //Evicted but still leased, so still the only open instance
+                    entry = retired.remove(key);
+                    insert(entry);
+                }
+                if (entry != null) {
+                    if (!entry.timeframeName.equals(timeframeName)) {
+                        throw new IllegalArgumentException();
+                    }
+                    //Taken before checking, so the semester stays open while its files are checked
+                    entry.leases++;
+                    check = dueForCheck(entry);
+                    if (!check) {
+                        hits++;
+                        return new Lease(entry);
+                    }
+                } else if (departing.containsKey(key)) {
+                    pending = departing.get(key).gone;
+                } else if (loading.containsKey(key)) {
+                    pending = loading.get(key);
+                } else {
+                    misses++;
+                    loading.put(key, new CompletableFuture<>());
+                }
+            }
+            if (entry == null && pending == null) {
+                return loadSemester(key, name, timeframeName);
+            }
+            if (entry == null) {
+                await(pending);
+                continue;
+            }
+            //Takes the semester's lock, which an edit may hold for a while
+            if (!entry.semester.filesChanged()) {
+                synchronized (this) {
+                    hits++;
+                }
+                return new Lease(entry);
+            }
+            synchronized (this) {
+                reloads++;
+                depart(entry, true);
+                release(entry);
+            }
+            //Closes it now if it was not leased elsewhere; the next pass waits until it is closed
+            rethrow(closePending());
+        }
+    }
+
+    /**
+     * Loads a timeframe this thread registered as loading.
+     */
+    private Timeframe loadTimeframe(String key, String name) throws IOException {
+        try {
+            //Stamped before reading, so a change made while reading is caught by the next check
+            long[] stamp = SemesterSnapshot.stamp(timeframePath(name));
+            Timeframe timeframe = new TimeframeImpl(name, true);
+            synchronized (this) {
+                checkOpen();
+                Entry entry = new Entry(key, null, null, timeframe, stamp);
+                entry.bytes = TIMEFRAME_BYTES;
+                insert(entry);
+            }
+            return timeframe;
+        } finally {
+            loaded(key);
+        }
+    }
+
+    /**
+     * Loads a semester this thread registered as loading, and leases it.
+     */
+    private Lease loadSemester(String key, String name, String timeframeName) throws IOException {
+        try {
+            Timeframe timeframe = getTimeframe(timeframeName);
+            Files.createDirectories(Path.of("semesters"));
+            Entry entry = new Entry(key, new ConcurrentCourseList(name, timeframe.getMaxInt()), timeframeName, null,
+                    null);
+            synchronized (this) {
+                if (closed) {
+                    queue(entry);
+                    throw new IllegalStateException();
+                }
+                entry.leases++;
+                insert(entry);
+                resize(entry);
+            }
+            return new Lease(entry);
+        } finally {
+            loaded(key);
+        }
+    }
+
+    /**
+     * Ends a load, successful or not, and wakes the requests waiting for it.
+     */
+    private void loaded(String key) {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            pending = loading.remove(key);
+        }
+        pending.complete(null);
+    }
+
+    /**
+     * Waits for a load or close to end, however it ends.
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    private static void await(CompletableFuture<Void> pending) throws InterruptedIOException {
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException ignored) {
+            //Only the outcome's timing matters
+        }
+    }
+
+    /**
+     * Updates a semester's memory estimate after an edit through a lease may have changed it, and evicts if it no
+     * longer fits the budget. A semester that has left the cache is queued to close with its last lease.
+     */
+    private void release(Entry entry) {
+        entry.leases--;
+        if (entries.get(entry.key) == entry) {
+            resize(entry);
+        } else if (entry.leases == 0 && !entry.queued) {
+            depart(entry, false);
+            queue(entry);
+        }
+    }
+
+    /**
+     * Re-estimates a cached semester's memory and evicts down to the budgets.
+     */
+    private void resize(Entry entry) {
+        estimatedBytes -= entry.bytes;
+        ConcurrentCourseList semester = entry.semester;
+        int courses = semester.courseCount();
+        //Conflict rows of the course list's matrix and of its snapshot
+        long rowBytes = 2L * courses * ((courses + 63) / 64) * Long.BYTES;
+        entry.bytes = SEMESTER_BYTES + courses * COURSE_BYTES + rowBytes
+                + (long) semester.getExistingScheduleCount() * SCHEDULE_BYTES;
+        estimatedBytes += entry.bytes;
+        evict(entry);
+    }
+
+    private void insert(Entry entry) {
+        entries.put(entry.key, entry);
+        estimatedBytes += entry.bytes;
+        evict(entry);
+    }
+
+    /**
+     * Evicts least recently used entries until the cache fits its budgets, keeping keep. Evicted semesters are set
+     * aside until their leases are released, or queued to close.
+     */
+    private void evict(Entry keep) {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || estimatedBytes > maxBytes) && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (entry != keep) {
+                eldest.remove();
+                estimatedBytes -= entry.bytes;
+                evictions++;
+                if (entry.semester != null && entry.leases > 0) {
+                    retired.put(entry.key, entry);
+                } else if (entry.semester != null) {
+                    depart(entry, false);
+                    queue(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a semester out of the cache for good. Requests for it wait until it is closed.
+     * @param stale true if its files changed, so it is discarded rather than closed
+     */
+    private void depart(Entry entry, boolean stale) {
+        if (entries.remove(entry.key, entry)) {
+            estimatedBytes -= entry.bytes;
+        }
+        retired.remove(entry.key, entry);
+        departing.put(entry.key, entry);
+        entry.stale |= stale;
+    }
+
+    private void queue(Entry entry) {
+        if (!entry.queued) {
+            entry.queued = true;
+            toClose.add(entry);
+        }
+    }
+
+    /**
+     * Closes the queued semesters outside the lock and wakes the requests waiting for them.
+     * @return the last failure to close one, or null
+     */
+    private IOException closePending() {
+        List<Entry> closing;
+        synchronized (this) {
+            if (toClose.isEmpty()) {
+                return null;
+            }
+            closing = new ArrayList<>(toClose);
+            toClose.clear();
+        }
+        IOException failure = null;
+        for (Entry entry : closing) {
+            try {
+                closeEntry(entry);
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                synchronized (this) {
+                    departing.remove(entry.key, entry);
+                }
+                entry.gone.complete(null);
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Closes a semester; one whose files changed is discarded, so its out-of-date state is not written back.
+     */
+    private static void closeEntry(Entry entry) throws IOException {
+        if (entry.stale) {
+            entry.semester.discard();
+        } else {
+            entry.semester.close();
+        }
+    }
+
+    private static void rethrow(IOException failure) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * @return true, and restarts the interval, if the entry's files were last checked over RELOAD_CHECK_MILLIS ago
+     */
+    private boolean dueForCheck(Entry entry) {
+        long now = System.nanoTime();
+        if (now - entry.lastCheck < RELOAD_CHECK_MILLIS * 1_000_000) {
+            return false;
+        }
+        entry.lastCheck = now;
+        return true;
+    }
+
+    private static Path timeframePath(String name) {
+        return Path.of("timeframes").resolve(name + "timeframe.txt");
+    }
+}
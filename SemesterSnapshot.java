@@ -0,0 +1,249 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * A SemesterSnapshot is a binary copy of a semester's courses, priorities and schedule file index, or of a timeframe's
+ * blocks, that is loaded with a single bulk read instead of parsing text files and replaying the course log. Saved
+ * schedules themselves stay in the <a href="#{@link}">{@link ScheduleFile}</a> and are only read when requested.
+ * <p>
+ * A snapshot records a stamp (size and modification time) of every file it was taken from, and is only read while
+ * those stamps are unchanged. Otherwise the text files remain the source of truth and the snapshot is ignored until it
+ * is written again.
+ * <p>
+ * The file starts with a magic number, a format version and the source stamps, followed by a string table. Every
+ * string in the rest of the file is an index into the table, so each course name and purpose is stored once.
+ */
+public class SemesterSnapshot {
+    private static final int MAGIC = 0x43525345;
+    private static final int VERSION = 4;
+
+    //Courses in conflict matrix order; their priority field is not stored
+    public final ArrayList<Course> courses;
+    public final ArrayList<String> priorities;
+    //Each block's init data
+    public final ArrayList<String[]> blocks;
+    //The schedule file's name dictionary, in id order
+    public final ArrayList<String> scheduleNames;
+    //Offsets of the schedule file's schedule records, in save order
+    public long[] scheduleOffsets;
+    //Records in the course log when the snapshot was taken
+    public int logRecords;
+
+    public SemesterSnapshot() {
+        courses = new ArrayList<>();
+        priorities = new ArrayList<>();
+        blocks = new ArrayList<>();
+        scheduleNames = new ArrayList<>();
+        scheduleOffsets = new long[0];
+    }
+
+    /**
+     * @param path a source file
+     * @return the file's size and modification time, or -1 for both if it does not exist
+     */
+    public static long[] stamp(Path path) {
+        try {
+            return new long[]{Files.size(path), Files.getLastModifiedTime(path).toMillis()};
+        } catch (IOException e) {
+            return absent();
+        }
+    }
+
+    /**
+     * @return the stamp of a file that does not exist
+     */
+    public static long[] absent() {
+        return new long[]{-1, -1};
+    }
+
+    /**
+     * @param path the location of the snapshot
+     * @param sources the current stamps of the snapshot's source files
+     * @return the snapshot, or null if it does not exist, cannot be read, or was taken from different sources
+     */
+    public static SemesterSnapshot read(Path path, long[][] sources) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long[][] stamps = new long[length(buffer, 16)][2];
+            for (long[] stamp : stamps) {
+                stamp[0] = buffer.getLong();
+                stamp[1] = buffer.getLong();
+            }
+            if (!Arrays.deepEquals(stamps, sources)) {
+                return null;
+            }
+
+            String[] strings = new String[length(buffer, 4)];
+            for (int i = 0; i < strings.length; i++) {
+                int length = length(buffer, 1);
+                strings[i] = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+
+            SemesterSnapshot snapshot = new SemesterSnapshot();
+            snapshot.logRecords = buffer.getInt();
+            for (int i = length(buffer, 25); i > 0; i--) {
+                String name = strings[buffer.getInt()];
+                String purpose = strings[buffer.getInt()];
+                int startTime = buffer.getInt();
+                int endTime = buffer.getInt();
+                int credits = buffer.getInt();
+                boolean isNew = buffer.get() != 0;
+                long[] slots = null;
+                int words = length(buffer, 8);
+                if (words > 0) {
+                    slots = new long[words];
+                    for (int j = 0; j < words; j++) {
+                        slots[j] = buffer.getLong();
+                    }
+                }
+                snapshot.courses.add(new Course(name, purpose, startTime, endTime, credits, false, isNew, slots));
+            }
+            for (int i = length(buffer, 4); i > 0; i--) {
+                snapshot.priorities.add(strings[buffer.getInt()]);
+            }
+            for (int i = length(buffer, 4); i > 0; i--) {
+                snapshot.blocks.add(readStrings(buffer, strings));
+            }
+            for (int i = length(buffer, 4); i > 0; i--) {
+                snapshot.scheduleNames.add(strings[buffer.getInt()]);
+            }
+            snapshot.scheduleOffsets = new long[length(buffer, 8)];
+            for (int i = 0; i < snapshot.scheduleOffsets.length; i++) {
+                snapshot.scheduleOffsets[i] = buffer.getLong();
+            }
+            return snapshot;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Atomically replaces the snapshot file.
+     * @param path the location of the snapshot
+     * @param sources the stamps of the source files the snapshot's contents were taken from
+     * @param body the snapshot's contents, from encode()
+     * @throws IOException if the file cannot be written to
+     */
+    public static void write(Path path, long[][] sources, byte[] body) throws IOException {
+        Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpPath.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sources.length);
+            for (long[] stamp : sources) {
+                out.writeLong(stamp[0]);
+                out.writeLong(stamp[1]);
+            }
+            out.write(body);
+        }
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Encoding is separate from writing so that contents can be captured on one thread and written on another.
+     * @return the snapshot's contents, from the string table on
+     */
+    public byte[] encode() {
+        Map<String, Integer> table = new LinkedHashMap<>();
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        ByteArrayOutputStream allBytes = new ByteArrayOutputStream();
+        DataOutputStream all = new DataOutputStream(allBytes);
+        try {
+            body.writeInt(logRecords);
+            body.writeInt(courses.size());
+            for (Course course : courses) {
+                body.writeInt(stringId(table, course.name));
+                body.writeInt(stringId(table, course.purpose));
+                body.writeInt(course.startTime);
+                body.writeInt(course.endTime);
+                body.writeInt(course.credits);
+                body.writeBoolean(course.isNew);
+                //0 words for a course without slots
+                body.writeInt((course.slots != null) ? course.slots.length : 0);
+                if (course.slots != null) {
+                    for (long word : course.slots) {
+                        body.writeLong(word);
+                    }
+                }
+            }
+            body.writeInt(priorities.size());
+            for (String purpose : priorities) {
+                body.writeInt(stringId(table, purpose));
+            }
+            body.writeInt(blocks.size());
+            for (String[] block : blocks) {
+                writeStrings(body, table, Arrays.asList(block));
+            }
+            body.writeInt(scheduleNames.size());
+            for (String name : scheduleNames) {
+                body.writeInt(stringId(table, name));
+            }
+            body.writeInt(scheduleOffsets.length);
+            for (long offset : scheduleOffsets) {
+                body.writeLong(offset);
+            }
+
+            all.writeInt(table.size());
+            for (String string : table.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                all.writeInt(bytes.length);
+                all.write(bytes);
+            }
+            bodyBytes.writeTo(all);
+        } catch (IOException e) {
+            //Byte array streams do not throw
+            throw new RuntimeException();
+        }
+        return allBytes.toByteArray();
+    }
+
+    /**
+     * Reads a count and checks that the buffer could hold that many entries of the given minimum size, so that a
+     * corrupt count fails before anything is allocated.
+     */
+    private static int length(ByteBuffer buffer, int entryBytes) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / entryBytes) {
+            throw new IllegalArgumentException();
+        }
+        return length;
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, String[] strings) {
+        String[] read = new String[length(buffer, 4)];
+        for (int i = 0; i < read.length; i++) {
+            read[i] = strings[buffer.getInt()];
+        }
+        return read;
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> table, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeInt(stringId(table, string));
+        }
+    }
+
+    /**
+     * @return the string's index in the table, adding it if it is new
+     */
+    private static int stringId(Map<String, Integer> table, String string) {
+        Integer id = table.get(string);
+        if (id == null) {
+            id = table.size();
+            table.put(string, id);
+        }
+        return id;
+    }
+}
@@ -5,8 +5,11 @@ import java.io.IOException;
  * between CourseList (float format) and the user (String format). The addBlock function allows for flexibility,
  * depending on how many blocks a schedule contains.
  * <p>
- * Limitations: Does not account for courses that don't fit perfectly into one block, such as a Monday-only class in a
- * MWF/TTh block schedule. Blocks cannot be edited or removed; rather, a new Timeframe object must be created.
+ * Courses that don't fit one block, such as a class with a lecture and a lab, or a Monday-only class in a MWF/TTh block
+ * schedule, are described by the <a href="#{@link}">{@link WeeklySlots}</a> of their meetings; see
+ * <a href="#{@link}">{@link #getWeeklySlots(float, float) getWeeklySlots}</a>.
+ * <p>
+ * Limitations: Blocks cannot be edited or removed; rather, a new Timeframe object must be created.
  */
 public interface Timeframe {
     /**
@@ -80,6 +83,15 @@ public interface Timeframe {
      */
     float timeToFloat(String time, String blockName);
 
+    /**
+     * Combine the slots of a course's meetings with <a href="#{@link}">{@link WeeklySlots#or(long[], long[]) or}</a>.
+     * @param startTime the int representation of a meeting's start
+     * @param endTime the int representation of the meeting's end, in the same block
+     * @return null if the times are out of range or in different blocks, or if the block's name does not name days;
+     * otherwise, the meeting's slots on each of the block's days
+     */
+    long[] getWeeklySlots(float startTime, float endTime);
+
     /**
      * @param timeNum in military time, i.e. 17:35 instead of 5:35 PM
      * @return null if timeNum is out of range; otherwise, the name of the block containing the requested time
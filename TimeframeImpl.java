@@ -1,16 +1,30 @@
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 public class TimeframeImpl implements Timeframe {
     private final String name;
     private final ArrayList<Block> blocks;
+    //Compiled lookups, extended as blocks are added
+    private final Map<String, Block> blocksByName;
+    //Blocks' max ints, ascending since each block's range starts after the previous one's
+    private int[] maxInts;
+    //Per minute of the day, the float from the first block where the time is valid, or -1
+    private final float[] firstMatches;
 
     /**
-     * Initializes timeframe and, if load, loads timeframe data from named file
+     * Initializes timeframe and, if load, loads timeframe data from named file. Loading only reads: the binary snapshot
+     * is used if it matches the text file, which is parsed otherwise, and is written only when blocks are added.
      * @param name the name of this timeframe
+     * @throws IOException if the file cannot be read or is malformed, including irregular blocks saved before their
+     * ints counted hours rather than tenths of an hour
      */
     public TimeframeImpl(String name, boolean load) throws IOException {
         if (name == null) {
@@ -18,19 +32,43 @@ public class TimeframeImpl implements Timeframe {
         }
         this.name = name;
         blocks = new ArrayList<>();
+        blocksByName = new HashMap<>();
+        maxInts = new int[0];
+        firstMatches = new float[MinuteTable.MINUTES_PER_DAY];
+        Arrays.fill(firstMatches, -1);
 
         Path folderPath = Path.of("timeframes");
         Path tfPath = folderPath.resolve(name + "timeframe.txt");
         if (load) {
             if (Files.exists(tfPath)) {
+                Path snapshotPath = folderPath.resolve(name + "timeframe.bin");
+                long[][] sources = {SemesterSnapshot.stamp(tfPath)};
+                SemesterSnapshot snapshot = SemesterSnapshot.read(snapshotPath, sources);
+                List<String[]> blockData;
+                if (snapshot != null) {
+                    blockData = snapshot.blocks;
+                } else {
+                    blockData = new ArrayList<>();
+                    BufferedReader reader = new BufferedReader(new FileReader(tfPath.toFile()));
+                    String line;
+                    while ((line = reader.readLine()) != null && !line.equals("")) {
+                        blockData.add(line.split(", "));
+                    }
+                    reader.close();
+                }
+
                 int minInt = 0;
-                BufferedReader reader = new BufferedReader(new FileReader(tfPath.toFile()));
-                String line;
-                while ((line = reader.readLine()) != null && !line.equals("")) {
-                    String[] lineArr = line.split(", ");
-                    blocks.add((lineArr.length == 5) ? new RegularBlockImpl(lineArr, minInt) : new BlockImpl(lineArr, minInt));
-                    minInt = blocks.get(blocks.size() - 1).getMaxInt() + 1;
+                try {
+                    for (String[] lineArr : blockData) {
+                        add((lineArr.length == 5) ? new RegularBlockImpl(lineArr, minInt)
+                                : new BlockImpl(lineArr, minInt));
+                        minInt = blocks.get(blocks.size() - 1).getMaxInt() + 1;
+                    }
+                } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                    //Malformed, or an irregular block saved before its ints counted hours
+                    throw new IOException();
                 }
+
             } else {
                 throw new FileNotFoundException();
             }
@@ -82,6 +120,25 @@ public class TimeframeImpl implements Timeframe {
         } catch (IOException e) {
             saveTimeframe();
         }
+        saveSnapshot();
+    }
+
+    /**
+     * Writes the binary snapshot of the blocks, stamped with the text file just written, so the next load can skip
+     * parsing it.
+     */
+    private void saveSnapshot() {
+        Path folderPath = Path.of("timeframes");
+        SemesterSnapshot snapshot = new SemesterSnapshot();
+        for (Block block : blocks) {
+            snapshot.blocks.add(block.getInitData());
+        }
+        try {
+            long[][] sources = {SemesterSnapshot.stamp(folderPath.resolve(name + "timeframe.txt"))};
+            SemesterSnapshot.write(folderPath.resolve(name + "timeframe.bin"), sources, snapshot.encode());
+        } catch (IOException ignored) {
+            //The text file is parsed instead
+        }
     }
 
     @Override
@@ -99,22 +156,14 @@ public class TimeframeImpl implements Timeframe {
 
     @Override
     public String[] getStartTimes(String blockName) {
-        for (Block block : blocks) {
-            if (block.getName().equals(blockName)) {
-                return block.getStartTimes();
-            }
-        }
-        return null;
+        Block block = blocksByName.get(blockName);
+        return (block != null) ? block.getStartTimes() : null;
     }
 
     @Override
     public String[] getEndTimes(String blockName) {
-        for (Block block : blocks) {
-            if (block.getName().equals(blockName)) {
-                return block.getEndTimes();
-            }
-        }
-        return null;
+        Block block = blocksByName.get(blockName);
+        return (block != null) ? block.getEndTimes() : null;
     }
 
     @Override
@@ -124,43 +173,42 @@ public class TimeframeImpl implements Timeframe {
 
     @Override
     public boolean isRegular(String blockName) {
-        for (Block block : blocks) {
-            if (block.getName().equals(blockName)) {
-                return block.isRegular();
-            }
+        Block block = blocksByName.get(blockName);
+        if (block == null) {
+            throw new IllegalArgumentException();
         }
-        throw new IllegalArgumentException();
+        return block.isRegular();
     }
 
     @Override
     public boolean addBlock(String name, String startTime, String endTime) throws IOException {
-        for (Block block : blocks) {
-            if (block.getName().equals(name)) {
-                return false;
-            }
+        if (blocksByName.containsKey(name)) {
+            return false;
         }
 
         int minInt = (blocks.size() > 0) ? blocks.get(blocks.size()-1).getMaxInt()+1 : 0;
-        blocks.add(new BlockImpl(name, startTime, endTime, minInt));
+        add(new BlockImpl(name, startTime, endTime, minInt));
         saveNewBlock();
         return true;
     }
 
     @Override
     public boolean addBlock(String name, String startTime, String endTime, int classLen, int breakLen) throws IOException {
-        for (Block block : blocks) {
-            if (block.getName().equals(name)) {
-                return false;
-            }
+        if (blocksByName.containsKey(name)) {
+            return false;
         }
 
         int minInt = (blocks.size() > 0) ? blocks.get(blocks.size()-1).getMaxInt()+1 : 0;
-        blocks.add(new RegularBlockImpl(name, startTime, endTime, classLen, breakLen, minInt));
+        add(new RegularBlockImpl(name, startTime, endTime, classLen, breakLen, minInt));
         saveNewBlock();
         return true;
     }
 
     public float timeToFloat(String time) {
+        int minute = MinuteTable.minuteOfDay(time);
+        if (minute != -1) {
+            return firstMatches[minute];
+        }
         for (Block block : blocks) {
             if (block.timeToFloat(time) != -1) {
                 return block.timeToFloat(time);
@@ -170,33 +218,68 @@ public class TimeframeImpl implements Timeframe {
     }
 
     public float timeToFloat(String time, String blockName) {
-        for (Block block : blocks) {
-            if (block.getName().equals(blockName)) {
-                return block.timeToFloat(time);
-            }
-        }
-        return -1;
+        Block block = blocksByName.get(blockName);
+        return (block != null) ? block.timeToFloat(time) : -1;
     }
 
     public String floatToBlock(float time) {
         if (time < 0) {
             return null;
         }
-        for (Block block : blocks) {
-            if (time <= block.getMaxInt()) {
-                return block.getName();
-            }
-        }
-        return null;
+        int index = blockIndex(time);
+        return (index != -1) ? blocks.get(index).getName() : null;
     }
 
     @Override
     public String floatToTime(float time) {
-        for (Block block : blocks) {
-            if (time <= block.getMaxInt()) {
-                return block.floatToTime(time);
+        int index = blockIndex(time);
+        return (index != -1) ? blocks.get(index).floatToTime(time) : null;
+    }
+
+    @Override
+    public long[] getWeeklySlots(float startTime, float endTime) {
+        int index = blockIndex(startTime);
+        if (startTime < 0 || startTime >= endTime || index == -1 || endTime > maxInts[index]
+                || (index > 0 && startTime < maxInts[index - 1] + 1)) {
+            //Out of range, spanning blocks, or between the last int of one block and the first of the next
+            return null;
+        }
+        Block block = blocks.get(index);
+        int days = block.getDays();
+        return (days != 0) ? WeeklySlots.of(days, block.toMinuteOfDay(startTime), block.toMinuteOfDay(endTime)) : null;
+    }
+
+    /**
+     * Binary search of the blocks' ranges.
+     * @return the index of the first block whose max int is at least time, or -1 if there is none
+     */
+    private int blockIndex(float time) {
+        int low = 0;
+        int high = maxInts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (time <= maxInts[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return (low < maxInts.length) ? low : -1;
+    }
+
+    /**
+     * Adds block after all others and extends the compiled lookups with it.
+     */
+    private void add(Block block) {
+        blocks.add(block);
+        //A name loaded twice from a file keeps resolving to its first block
+        blocksByName.putIfAbsent(block.getName(), block);
+        maxInts = Arrays.copyOf(maxInts, maxInts.length + 1);
+        maxInts[maxInts.length - 1] = block.getMaxInt();
+        for (int minute = 0; minute < firstMatches.length; minute++) {
+            if (firstMatches[minute] == -1) {
+                firstMatches[minute] = block.timeToFloat(minute);
             }
         }
-        return null;
     }
 }
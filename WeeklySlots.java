@@ -0,0 +1,131 @@
+/**
+ * WeeklySlots describes when a course meets as a bitmap of the week: 7 days of 5-minute slots, packed into 32 longs,
+ * Monday first. Courses with several meetings, such as a lecture and a lab, OR their meetings' bitmaps together, and two
+ * courses overlap if their bitmaps share a bit, which is a fixed number of word-wise ANDs.
+ * <p>
+ * Days are given as a bitmask with bit 0 for Monday through bit 6 for Sunday, and are usually read from a block name
+ * such as MWF or TTh.
+ */
+public class WeeklySlots {
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+
+    //Longest first, so that a longer abbreviation is tried before a shorter one followed by another day
+    private static final String[] DAY_NAMES = {"THURS", "TUES", "THUR", "MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN",
+            "TU", "TH", "SA", "SU", "M", "T", "W", "R", "F", "S", "U"};
+    private static final int[] DAY_BITS = {1 << 3, 1 << 1, 1 << 3, 1, 1 << 1, 1 << 2, 1 << 3, 1 << 4, 1 << 5, 1 << 6,
+            1 << 1, 1 << 3, 1 << 5, 1 << 6, 1, 1 << 1, 1 << 2, 1 << 3, 1 << 4, 1 << 5, 1 << 6};
+
+    /**
+     * @param days a bitmask of days, bit 0 for Monday
+     * @param startMinute the meeting's start, in minutes since midnight
+     * @param endMinute the meeting's end, in minutes since midnight; a meeting past midnight is cut off at midnight
+     * @return the slots covered by the meeting on each of the days, including partly covered slots
+     */
+    public static long[] of(int days, int startMinute, int endMinute) {
+        if (startMinute < 0 || startMinute >= endMinute) {
+            throw new IllegalArgumentException();
+        }
+        long[] slots = new long[WORDS];
+        int first = startMinute / SLOT_MINUTES;
+        int last = Math.min(SLOTS_PER_DAY, (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        for (int day = 0; day < 7; day++) {
+            if ((days & (1 << day)) != 0) {
+                for (int slot = first; slot < last; slot++) {
+                    ConflictMatrix.set(slots, day * SLOTS_PER_DAY + slot);
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * @return a new bitmap holding the slots of both a and b
+     */
+    public static long[] or(long[] a, long[] b) {
+        long[] slots = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            slots[i] = a[i] | b[i];
+        }
+        return slots;
+    }
+
+    /**
+     * Reads day abbreviations, ignoring case: M or Mon, T, Tu, Tue or Tues, W or Wed, R, Th, Thu, Thur or Thurs, F or
+     * Fri, S, Sa or Sat, and U, Su or Sun. Each abbreviation is read as the longest one that still lets the rest of
+     * the name be read, so Thu is Thursday rather than Thursday and Sunday, and ThurSat is Thursday and Saturday.
+     * @param blockName the name of a block, i.e. MWF
+     * @return the bitmask of the named days, or 0 if the name is not made of day abbreviations only
+     */
+    public static int days(String blockName) {
+        return Math.max(0, days(blockName.toUpperCase(), 0));
+    }
+
+    /**
+     * @return the bitmask of the days named from index i on, or -1 if the rest of the name is not made of day
+     * abbreviations only
+     */
+    private static int days(String name, int i) {
+        if (i == name.length()) {
+            return 0;
+        }
+        for (int d = 0; d < DAY_NAMES.length; d++) {
+            if (name.startsWith(DAY_NAMES[d], i)) {
+                int rest = days(name, i + DAY_NAMES[d].length());
+                if (rest != -1) {
+                    return DAY_BITS[d] | rest;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * For saving slots to a text file: the runs of set slots as start-end pairs, end exclusive, joined by semicolons.
+     * @return the encoded slots, or an empty string if none are set
+     */
+    public static String encode(long[] slots) {
+        StringBuilder encoded = new StringBuilder();
+        int start = ConflictMatrix.nextSetBit(slots, 0);
+        while (start != -1) {
+            int end = start + 1;
+            while (end < slots.length * 64 && ConflictMatrix.get(slots, end)) {
+                end++;
+            }
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            encoded.append(start).append('-').append(end);
+            start = ConflictMatrix.nextSetBit(slots, end);
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @param encoded slots from encode()
+     * @return the slots
+     * @throws IllegalArgumentException if encoded is malformed
+     */
+    public static long[] decode(String encoded) {
+        long[] slots = new long[WORDS];
+        if (encoded.isEmpty()) {
+            return slots;
+        }
+        for (String run : encoded.split(";")) {
+            int dash = run.indexOf('-');
+            if (dash == -1) {
+                throw new IllegalArgumentException();
+            }
+            int start = Integer.parseInt(run.substring(0, dash));
+            int end = Integer.parseInt(run.substring(dash + 1));
+            if (start < 0 || start >= end || end > WORDS * 64) {
+                throw new IllegalArgumentException();
+            }
+            for (int slot = start; slot < end; slot++) {
+                ConflictMatrix.set(slots, slot);
+            }
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.function.IntSupplier;
+import benchmarks.Fixtures;
+
+/**
+ * The operations the JMH benchmarks measure, over semesters and timeframes created in the working directory. Each
+ * fixture is a <a href="#{@link}">{@link Callable}</a> running one measured invocation and a
+ * <a href="#{@link}">{@link Closeable}</a> deleting its files. Registered as the
+ * <a href="#{@link}">{@link Fixtures}</a> service, through which the benchmarks package reaches it.
+ */
+public class BenchmarkFixtures implements Fixtures {
+    @Override
+    public Fixture schedules(int sections, String distribution, int priorities, int limit, long seed)
+            throws IOException {
+        CourseListImpl courseList = createSemester("bench-schedules", new CatalogGenerator(seed, sections,
+                sections / 4, CatalogGenerator.TimeDistribution.valueOf(distribution), priorities, false));
+        SearchLimits limits = new SearchLimits(Long.MAX_VALUE, (limit > 0) ? limit : Integer.MAX_VALUE, null);
+        return fixture(() -> courseList.getSchedules(Math.max(1, priorities), MAX_COURSES, 1, limits),
+                () -> delete(courseList));
+    }
+
+    @Override
+    public Fixture load(int courses, boolean fromSnapshot, long seed) throws IOException {
+        CatalogGenerator generator = catalog(courses, seed);
+        TimeframeImpl timeframe = generator.createTimeframe("bench-load");
+        generator.createCourseList("bench-load", timeframe).close();
+        if (!fromSnapshot) {
+            //Loading does not write a snapshot; only close() does
+            Files.delete(Path.of("semesters", "bench-load", "bench-loadsemester.bin"));
+        }
+        return fixture(() -> {
+            CourseListImpl loaded = new CourseListImpl("bench-load", timeframe.getMaxInt());
+            //Closing would write a snapshot
+            loaded.discard();
+            return loaded;
+        }, () -> delete("bench-load"));
+    }
+
+    @Override
+    public Fixture persist(int courses, long seed) throws IOException {
+        CourseListImpl courseList = createSemester("bench-persist", catalog(courses, seed));
+        int[] next = new int[1];
+        return fixture(() -> {
+            String name = "X" + next[0]++;
+            courseList.addCourse(name, "P0", 0, 1, 3);
+            courseList.removeCourse(name);
+            return name;
+        }, () -> delete(courseList));
+    }
+
+    @Override
+    public Fixture dominance(int sections, int purposes, int maxCourses, int candidates, String distribution,
+                             String method, long seed) throws IOException {
+        CatalogGenerator generator = new CatalogGenerator(seed, sections, purposes,
+                CatalogGenerator.TimeDistribution.valueOf(distribution), 0, false);
+        ConflictMatrix matrix = new ConflictMatrix();
+        try {
+            for (Course course : generator.createCourses(generator.createTimeframe("bench-dominance"))) {
+                matrix.add(course);
+            }
+        } finally {
+            CatalogGenerator.deleteTimeframe("bench-dominance");
+        }
+        long[][] schedules = dominanceCandidates(matrix, maxCourses, candidates, new Random(seed));
+        IntSupplier linear = () -> {
+            ArrayList<long[]> maxSchedules = new ArrayList<>();
+            for (long[] candidate : schedules) {
+                boolean add = true;
+                for (long[] exSchedule : maxSchedules) {
+                    if (ConflictMatrix.containsAll(exSchedule, candidate)) {
+                        add = false;
+                        break;
+                    }
+                }
+                if (add) {
+                    maxSchedules.add(candidate);
+                }
+            }
+            return maxSchedules.size();
+        };
+        IntSupplier index = () -> {
+            ScheduleDominanceIndex dominance = new ScheduleDominanceIndex();
+            for (long[] candidate : schedules) {
+                if (!dominance.containsSuperset(candidate)) {
+                    dominance.add(candidate);
+                }
+            }
+            return dominance.size();
+        };
+        IntSupplier operation;
+        switch (method) {
+            case "linear":
+                operation = linear;
+                break;
+            case "index":
+                operation = index;
+                break;
+            default:
+                throw new IllegalArgumentException();
+        }
+        //Both ways keep the same schedules, or the comparison means nothing
+        if (linear.getAsInt() != index.getAsInt()) {
+            throw new IllegalStateException();
+        }
+        return fixture(operation::getAsInt, () -> { });
+    }
+
+    @Override
+    public Fixture timeConversion(String conversion) throws IOException {
+        Files.createDirectories(Path.of("timeframes"));
+        TimeframeImpl timeframe = new TimeframeImpl("bench-time", false);
+        timeframe.addBlock("MWF", "08:00", "17:00", 50, 10);
+        timeframe.addBlock("TTh", "08:00", "18:00");
+        String[] times = new String[CONVERSION_BATCH];
+        float[] values = new float[CONVERSION_BATCH];
+        for (int i = 0; i < CONVERSION_BATCH; i++) {
+            times[i] = String.format("%02d:%02d", i / 60, i % 60);
+            values[i] = (float) i * timeframe.getMaxInt() / CONVERSION_BATCH;
+        }
+        Callable<Object> operation;
+        switch (conversion) {
+            case "timeToFloat":
+                operation = () -> {
+                    float sum = 0;
+                    for (String time : times) {
+                        sum += timeframe.timeToFloat(time);
+                    }
+                    return sum;
+                };
+                break;
+            case "timeToFloatByBlock":
+                operation = () -> {
+                    float sum = 0;
+                    for (String time : times) {
+                        sum += timeframe.timeToFloat(time, "TTh");
+                    }
+                    return sum;
+                };
+                break;
+            case "floatToTime":
+                operation = () -> {
+                    int length = 0;
+                    for (float value : values) {
+                        String time = timeframe.floatToTime(value);
+                        length += (time != null) ? time.length() : 0;
+                    }
+                    return length;
+                };
+                break;
+            default:
+                throw new IllegalArgumentException();
+        }
+        return fixture(operation, () -> CatalogGenerator.deleteTimeframe("bench-time"));
+    }
+
+    private static Fixture fixture(Callable<Object> operation, Closeable files) {
+        return new Fixture() {
+            @Override
+            public Object call() throws Exception {
+                return operation.call();
+            }
+
+            @Override
+            public void close() throws IOException {
+                files.close();
+            }
+        };
+    }
+
+    /**
+     * @return the engine's schedules for the matrix, in the engine's order, each followed with probability one half by a
+     * copy of an earlier one with one course dropped
+     */
+    private static long[][] dominanceCandidates(ConflictMatrix matrix, int maxCourses, int count, Random random) {
+        Iterator<long[]> schedules = new BacktrackingEngine().search(new ScheduleProblem(matrix, new int[0], 1,
+                maxCourses));
+        List<long[]> candidates = new ArrayList<>();
+        List<long[]> produced = new ArrayList<>();
+        while (candidates.size() < count && schedules.hasNext()) {
+            long[] schedule = schedules.next();
+            candidates.add(schedule);
+            produced.add(schedule);
+            if (random.nextBoolean()) {
+                long[] bits = produced.get(random.nextInt(produced.size())).clone();
+                int drop = random.nextInt(ConflictMatrix.cardinality(bits));
+                int course = ConflictMatrix.nextSetBit(bits, 0);
+                for (int j = 0; j < drop; j++) {
+                    course = ConflictMatrix.nextSetBit(bits, course + 1);
+                }
+                ConflictMatrix.clear(bits, course);
+                if (!ConflictMatrix.isEmpty(bits) && candidates.size() < count) {
+                    candidates.add(bits);
+                }
+            }
+        }
+        return candidates.toArray(new long[0][]);
+    }
+
+    /**
+     * @return a catalog of the given number of sections over 10 purposes, none of them priorities
+     */
+    private static CatalogGenerator catalog(int sections, long seed) {
+        return new CatalogGenerator(seed, sections, 10, CatalogGenerator.TimeDistribution.UNIFORM, 0, false);
+    }
+
+    /**
+     * Creates a fresh semester of the generator's catalog, with a timeframe of the same name.
+     */
+    private static CourseListImpl createSemester(String name, CatalogGenerator generator) throws IOException {
+        return generator.createCourseList(name, generator.createTimeframe(name));
+    }
+
+    private static void delete(CourseListImpl courseList) throws IOException {
+        courseList.close();
+        delete(courseList.getName());
+    }
+
+    private static void delete(String name) throws IOException {
+        CatalogGenerator.deleteSemester(name);
+        CatalogGenerator.deleteTimeframe(name);
+    }
+}
@@ -0,0 +1,256 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Load test for <a href="#{@link}">{@link PlanningServer}</a>. Simulated students each send requests back to back for a
+ * fixed time: course lookups, time conversions and streamed schedule generation, in a fixed mix. Requests completed
+ * during a warmup are not counted; afterwards, throughput and latency percentiles are reported per endpoint and overall.
+ * <p>
+ * Without a URL, a server is started in a second JVM on a free port, over a generated semester. Semesters and timeframes
+ * are kept relative to the working directory, so that JVM runs in a new temporary directory, which is deleted
+ * afterwards. With a URL, that server must already have the semester and timeframe named loadtest, as the harness
+ * creates them when it starts its own. The students run on virtual threads where the JVM has them, like the server's
+ * requests, and otherwise on a platform thread each, so every student runs for the whole test.
+ * <p>
+ * Usage: java PlanningLoadHarness [students=256] [seconds=10] [seed=42] [url]
+ * <p>
+ * Run from the test classpath with
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=PlanningLoadHarness -Djmh.args="256 10"
+ */
+public class PlanningLoadHarness {
+    //First argument of the second JVM, followed by the seed
+    private static final String SERVE = "serve";
+    //Printed by the second JVM once it listens
+    private static final String LISTENING = "Listening on port ";
+    private static final String NAME = "loadtest";
+    private static final int SECTIONS = 48;
+    private static final int PURPOSES = 12;
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final int SCHEDULE_LIMIT = 20;
+    //Out of every 10 requests: 5 course lookups, 3 time conversions, 2 schedule streams
+    private static final String[] MIX = {"course", "time", "course", "schedules", "course", "time", "course", "time",
+            "course", "schedules"};
+    private static final String[] TIMES = {"08:00", "09:00", "10:30", "12:00", "13:30", "15:00", "16:30"};
+
+    /**
+     * One student's latencies and failures, by request type.
+     */
+    private static class Results {
+        private final long[][] latencies = new long[MIX.length][16];
+        private final int[] counts = new int[MIX.length];
+        private int errors;
+
+        private void add(int type, long nanos) {
+            if (counts[type] == latencies[type].length) {
+                latencies[type] = Arrays.copyOf(latencies[type], counts[type] * 2);
+            }
+            latencies[type][counts[type]++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals(SERVE)) {
+            serve(Long.parseLong(args[1]));
+            return;
+        }
+        int students = (args.length > 0) ? Integer.parseInt(args[0]) : 256;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 42;
+        if (args.length > 3) {
+            run(args[3], students, seconds);
+            return;
+        }
+        Path folder = Files.createTempDirectory("planning-load");
+        Process server = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-classpath", System.getProperty("java.class.path"), PlanningLoadHarness.class.getName(), SERVE,
+                Long.toString(seed)).directory(folder.toFile()).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try {
+            BufferedReader output = new BufferedReader(new InputStreamReader(server.getInputStream(),
+                    StandardCharsets.UTF_8));
+            String line = output.readLine();
+            if (line == null || !line.startsWith(LISTENING)) {
+                throw new IOException("Server did not start: " + line);
+            }
+            run("http://localhost:" + line.substring(LISTENING.length()), students, seconds);
+        } finally {
+            server.destroy();
+            server.waitFor();
+            try (var paths = Files.walk(folder)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the semester and timeframe in the working directory and serves them until the JVM is stopped.
+     */
+    private static void serve(long seed) throws IOException {
+        CatalogGenerator generator = new CatalogGenerator(seed, SECTIONS, PURPOSES,
+                CatalogGenerator.TimeDistribution.UNIFORM, 1, false);
+        Timeframe timeframe = generator.createTimeframe(NAME);
+        generator.createCourseList(NAME, timeframe).close();
+        PlanningServer server = new PlanningServer(0);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                //The directory is deleted once the JVM exits
+            }
+        }));
+        server.start();
+        System.out.println(LISTENING + server.getPort());
+    }
+
+    /**
+     * Opens the semester, runs the students against url and prints the report.
+     */
+    private static void run(String url, int students, int seconds) throws Exception {
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10)).build();
+        HttpResponse<String> opened = client.send(HttpRequest.newBuilder(URI.create(url + "/semesters/" + NAME
+                + "?timeframe=" + NAME)).PUT(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (opened.statusCode() != 200) {
+            throw new IOException("Could not open semester: " + opened.statusCode() + " " + opened.body());
+        }
+        HttpResponse<String> courses = client.send(HttpRequest.newBuilder(URI.create(url + "/semesters/" + NAME
+                + "/courses")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        List<String> courseNames = new ArrayList<>();
+        for (Object course : (List<?>) Json.parse(courses.body())) {
+            courseNames.add((String) ((Map<?, ?>) course).get("name"));
+        }
+        if (courseNames.isEmpty()) {
+            throw new IOException("Semester has no courses");
+        }
+
+        System.out.printf("students=%d seconds=%d url=%s%n", students, seconds, url);
+        long start = System.nanoTime();
+        long measureStart = start + WARMUP_NANOS;
+        long end = measureStart + seconds * 1_000_000_000L;
+        ExecutorService executor = PlanningServer.newRequestExecutor(students);
+        List<Future<Results>> futures = new ArrayList<>();
+        for (int s = 0; s < students; s++) {
+            int student = s;
+            futures.add(executor.submit(() -> runStudent(client, url, courseNames, student, measureStart, end)));
+        }
+        Results[] results = new Results[students];
+        for (int s = 0; s < students; s++) {
+            results[s] = futures.get(s).get();
+        }
+        executor.shutdown();
+        //Only requests sent and answered between measureStart and end are counted
+        report(results, (end - measureStart) / 1e9);
+    }
+
+    /**
+     * Sends requests in the order of MIX, starting at an offset so students do not move in lockstep, until end.
+     */
+    private static Results runStudent(HttpClient client, String url, List<String> courseNames, int student,
+                                      long measureStart, long end) {
+        Results results = new Results();
+        String semester = url + "/semesters/" + NAME;
+        for (int i = student; System.nanoTime() < end; i++) {
+            int type = i % MIX.length;
+            String target;
+            switch (MIX[type]) {
+                case "course":
+                    target = semester + "/courses/" + encode(courseNames.get(i % courseNames.size()));
+                    break;
+                case "time":
+                    target = url + "/timeframes/" + NAME + "/to-float?time=" + TIMES[i % TIMES.length];
+                    break;
+                default:
+                    target = semester + "/schedules?min=1&max=4&limit=" + SCHEDULE_LIMIT;
+            }
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(target)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                long received = System.nanoTime();
+                if (response.statusCode() != 200) {
+                    results.errors++;
+                } else if (sent >= measureStart && received <= end) {
+                    results.add(type, received - sent);
+                }
+            } catch (IOException e) {
+                results.errors++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Prints count, throughput and latency percentiles for each request type and for all requests.
+     */
+    private static void report(Results[] results, double measuredSeconds) {
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s%n", "request", "count", "req/s", "p50 ms", "p99 ms",
+                "p99.9 ms", "max ms");
+        List<String> types = new ArrayList<>();
+        for (String type : MIX) {
+            if (!types.contains(type)) {
+                types.add(type);
+            }
+        }
+        types.add("all");
+        int errors = 0;
+        for (Results result : results) {
+            errors += result.errors;
+        }
+        for (String type : types) {
+            long[] merged = new long[0];
+            for (Results result : results) {
+                for (int t = 0; t < MIX.length; t++) {
+                    if (type.equals("all") || MIX[t].equals(type)) {
+                        int length = merged.length;
+                        merged = Arrays.copyOf(merged, length + result.counts[t]);
+                        System.arraycopy(result.latencies[t], 0, merged, length, result.counts[t]);
+                    }
+                }
+            }
+            Arrays.sort(merged);
+            System.out.printf("%-10s %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n", type, merged.length,
+                    merged.length / measuredSeconds, percentile(merged, 0.5), percentile(merged, 0.99),
+                    percentile(merged, 0.999), percentile(merged, 1));
+        }
+        System.out.println("errors: " + errors);
+    }
+
+    /**
+     * @param sorted latencies in nanoseconds, ascending
+     * @return the nearest-rank percentile, in milliseconds; 0 if there are no latencies
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sweeps catalogs from <a href="#{@link}">{@link CatalogGenerator}</a> over section counts, purpose counts, time
+ * distributions and priority counts, and prints one CSV row per catalog and engine: wall time, schedules produced, peak
+ * heap, and the sizes of the semester's files once the schedules are saved. Results of every engine are checked against
+ * <a href="#{@link}">{@link BacktrackingEngine}</a>, the reference; a mismatch is reported on stderr and makes the
+ * harness exit with status 1.
+ * <p>
+ * Peak heap is the sum of the heap pools' peak usage during a single run, after a collection, so it is an upper bound
+ * that includes garbage not yet collected.
+ * <p>
+ * Usage: java ScheduleScalingHarness [sections] [purposes] [distributions] [priorities] [maxCourses] [seed] [csvFile]
+ * <p>
+ * sections, purposes, distributions and priorities are comma-separated lists, swept in every combination; by default
+ * 16,32,48 sections, 6,12 purposes, every distribution, and 0,2 priorities. Run from the test classpath with
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=ScheduleScalingHarness -Djmh.args="16,32 12 UNIFORM 0"
+ */
+public class ScheduleScalingHarness {
+    private static final String TIMEFRAME = "scaling";
+    private static final String SEMESTER = "scaling";
+
+    private static final String[] ENGINES = {"backtracking", "bron-kerbosch", "parallel"};
+
+    public static void main(String[] args) throws IOException {
+        int[] sectionCounts = ints((args.length > 0) ? args[0] : "16,32,48");
+        int[] purposeCounts = ints((args.length > 1) ? args[1] : "6,12");
+        List<CatalogGenerator.TimeDistribution> distributions = new ArrayList<>();
+        if (args.length > 2) {
+            for (String name : args[2].split(",")) {
+                distributions.add(CatalogGenerator.TimeDistribution.valueOf(name));
+            }
+        } else {
+            distributions.addAll(List.of(CatalogGenerator.TimeDistribution.values()));
+        }
+        int[] priorityCounts = ints((args.length > 3) ? args[3] : "0,2");
+        int maxCourses = (args.length > 4) ? Integer.parseInt(args[4]) : 4;
+        long seed = (args.length > 5) ? Long.parseLong(args[5]) : 42;
+        PrintStream out = (args.length > 6) ? new PrintStream(Files.newOutputStream(Path.of(args[6]))) : System.out;
+
+        out.println("seed,sections,purposes,distribution,priorities,engine,wallMs,schedules,peakHeapBytes,"
+                + "matchesReference,courseFileBytes,logBytes,scheduleFileBytes,snapshotBytes");
+        boolean allMatch = true;
+        Timeframe timeframe = new CatalogGenerator(seed, 0, 1, CatalogGenerator.TimeDistribution.UNIFORM, 0, false)
+                .createTimeframe(TIMEFRAME);
+        for (int sections : sectionCounts) {
+            for (int purposes : purposeCounts) {
+                for (CatalogGenerator.TimeDistribution distribution : distributions) {
+                    for (int priorityCount : priorityCounts) {
+                        CatalogGenerator generator = new CatalogGenerator(seed, sections, purposes, distribution,
+                                priorityCount, false);
+                        String config = String.format("%d,%d,%d,%s,%d", seed, sections, purposes, distribution,
+                                priorityCount);
+                        allMatch &= sweep(out, config, generator, timeframe, Math.max(1, priorityCount),
+                                Math.min(purposes, maxCourses));
+                    }
+                }
+            }
+        }
+        CatalogGenerator.deleteTimeframe(TIMEFRAME);
+        if (out != System.out) {
+            out.close();
+        }
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs every engine on one catalog, then saves the reference schedules and prints a row per engine.
+     * @return true if every engine matched the reference
+     */
+    private static boolean sweep(PrintStream out, String config, CatalogGenerator generator, Timeframe timeframe,
+                                 int minCourses, int maxCourses) throws IOException {
+        CourseListImpl courseList = generator.createCourseList(SEMESTER, timeframe);
+        ArrayList<List<String>> reference = null;
+        List<String> canonicalReference = null;
+        String[] rows = new String[ENGINES.length];
+        boolean allMatch = true;
+        for (int e = 0; e < ENGINES.length; e++) {
+            courseList.setScheduleEngine(ENGINES[e].equals("bron-kerbosch")
+                    ? new BronKerboschEngine() : new BacktrackingEngine());
+            int parallelism = ENGINES[e].equals("parallel")
+                    ? Math.max(2, Runtime.getRuntime().availableProcessors()) : 1;
+
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    pool.resetPeakUsage();
+                    heapPools.add(pool);
+                }
+            }
+            long start = System.nanoTime();
+            ArrayList<List<String>> schedules = courseList.getSchedules(minCourses, maxCourses, parallelism);
+            long wallTime = System.nanoTime() - start;
+            long peakHeap = 0;
+            for (MemoryPoolMXBean pool : heapPools) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+
+            List<String> canonical = canonicalize(schedules);
+            boolean matches = true;
+            if (reference == null) {
+                reference = schedules;
+                canonicalReference = canonical;
+            } else if (!canonical.equals(canonicalReference)) {
+                matches = false;
+                System.err.printf("%s: %s produced %d schedules that differ from the reference's %d%n", config,
+                        ENGINES[e], schedules.size(), reference.size());
+            }
+            allMatch &= matches;
+            rows[e] = String.format("%s,%s,%.3f,%d,%d,%b", config, ENGINES[e], wallTime / 1e6, schedules.size(),
+                    peakHeap, matches);
+        }
+
+        courseList.addSchedules(reference);
+        courseList.close();
+        Path folderPath = Path.of("semesters", SEMESTER);
+        String sizes = String.format("%d,%d,%d,%d", size(folderPath.resolve(SEMESTER + "courses.txt")),
+                size(folderPath.resolve(SEMESTER + "courses.log")), size(folderPath.resolve(SEMESTER + "schedules.bin")),
+                size(folderPath.resolve(SEMESTER + "semester.bin")));
+        for (String row : rows) {
+            out.println(row + "," + sizes);
+        }
+        out.flush();
+        CatalogGenerator.deleteSemester(SEMESTER);
+        return allMatch;
+    }
+
+    /**
+     * Engines may order schedules, and the courses in them, differently.
+     * @return each schedule as its sorted course names joined by commas, sorted
+     */
+    private static List<String> canonicalize(List<List<String>> schedules) {
+        ArrayList<String> canonical = new ArrayList<>(schedules.size());
+        for (List<String> schedule : schedules) {
+            ArrayList<String> sorted = new ArrayList<>(schedule);
+            Collections.sort(sorted);
+            canonical.add(String.join(",", sorted));
+        }
+        Collections.sort(canonical);
+        return canonical;
+    }
+
+    /**
+     * @param list comma-separated integers, i.e. 16,32,48
+     */
+    private static int[] ints(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i]);
+        }
+        return values;
+    }
+
+    /**
+     * @return the size of the file, or 0 if it does not exist
+     */
+    private static long size(Path path) throws IOException {
+        return Files.exists(path) ? Files.size(path) : 0;
+    }
+}
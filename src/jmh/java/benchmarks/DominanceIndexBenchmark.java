@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rejecting subsets of schedules already produced, by the linear containsAll scan getSchedules used to run or by
+ * ScheduleDominanceIndex, over the candidates a generation meets: the engine's schedules for a generated catalog,
+ * interleaved with subsets of earlier ones. Scores are per pass over all candidates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DominanceIndexBenchmark {
+    @Param({"96"})
+    public int sections;
+
+    @Param({"12"})
+    public int purposes;
+
+    @Param({"6"})
+    public int maxCourses;
+
+    @Param({"40000"})
+    public int candidates;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public String distribution;
+
+    @Param({"linear", "index"})
+    public String method;
+
+    private Fixtures.Fixture fixture;
+
+    @Setup
+    public void setUp() throws IOException {
+        fixture = Fixtures.INSTANCE.dominance(sections, purposes, maxCourses, candidates, distribution, method,
+                Fixtures.SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object check() throws Exception {
+        return fixture.call();
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+
+/**
+ * The operations the benchmarks measure. JMH only accepts benchmarks in a named package, which cannot refer to the
+ * application's classes in the default package, so the fixtures are implemented by BenchmarkFixtures in the default
+ * package and found once through <a href="#{@link}">{@link ServiceLoader}</a>. Every call after that, in setup and in
+ * measured invocations alike, is a plain interface call.
+ */
+public interface Fixtures {
+    long SEED = 42;
+    //Time conversions are measured in batches of every minute of the day
+    int CONVERSION_BATCH = 24 * 60;
+    //A full-time load; catalogs of hundreds of sections have too many larger schedules to search
+    int MAX_COURSES = 6;
+    Fixtures INSTANCE = ServiceLoader.load(Fixtures.class).findFirst().orElseThrow();
+
+    /**
+     * A measured operation and the files it was set up with.
+     */
+    interface Fixture extends Callable<Object>, Closeable {
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * getSchedules of up to MAX_COURSES courses over a CatalogGenerator catalog of 4 sections per purpose.
+     * @param distribution the name of the CatalogGenerator.TimeDistribution the sections' start times are drawn from
+     * @param priorities the number of purposes set as priorities
+     * @param limit the number of schedules after which the search stops, as a page of results would; 0 for no limit
+     */
+    Fixture schedules(int sections, String distribution, int priorities, int limit, long seed) throws IOException;
+
+    /**
+     * The CourseListImpl constructor, from the course file or from the binary snapshot written by close().
+     * @param fromSnapshot false to load from the course file, true to load from the snapshot
+     */
+    Fixture load(int courses, boolean fromSnapshot, long seed) throws IOException;
+
+    /**
+     * addCourse followed by removeCourse of the same course, each appending to the course log.
+     */
+    Fixture persist(int courses, long seed) throws IOException;
+
+    /**
+     * One pass of maximality checks over candidate schedules: each is dropped if a schedule kept so far contains it, and
+     * kept otherwise. The candidates are the schedules BacktrackingEngine produces for a CatalogGenerator catalog, each
+     * followed, with probability one half, by a copy of an earlier one with a course dropped, as the search meets when it
+     * backtracks past a course it already tried.
+     * @param maxCourses the largest schedule searched for
+     * @param candidates the number of candidates; the search is stopped once that many are produced
+     * @param distribution the name of the CatalogGenerator.TimeDistribution the sections' start times are drawn from
+     * @param method linear, for a containsAll scan of the kept schedules, or index, for ScheduleDominanceIndex
+     * @throws IllegalArgumentException if method is neither of those
+     */
+    Fixture dominance(int sections, int purposes, int maxCourses, int candidates, String distribution, String method,
+                      long seed) throws IOException;
+
+    /**
+     * CONVERSION_BATCH conversions through a timeframe with a regular and an irregular block.
+     * @param conversion timeToFloat, timeToFloatByBlock or floatToTime
+     * @throws IllegalArgumentException if conversion is none of those
+     */
+    Fixture timeConversion(String conversion) throws IOException;
+}
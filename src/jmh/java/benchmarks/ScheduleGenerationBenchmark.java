@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * getSchedules across catalog sizes, conflict densities and priority counts. Catalogs come from CatalogGenerator, with 4
+ * sections per purpose; the more the distribution bunches start times together, the more often sections conflict.
+ * Schedules have up to Fixtures.MAX_COURSES courses, and the search stops after limit of them: a registrar's catalog
+ * of hundreds of sections has far more schedules than anyone pages through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleGenerationBenchmark {
+    @Param({"16", "32", "300", "500"})
+    public int sections;
+
+    @Param({"UNIFORM", "PEAKED", "CLUSTERED"})
+    public String distribution;
+
+    @Param({"0", "2"})
+    public int priorities;
+
+    //0 for every schedule, which is only practical up to about 32 sections
+    @Param({"1000"})
+    public int limit;
+
+    private Fixtures.Fixture fixture;
+
+    @Setup
+    public void setUp() throws IOException {
+        fixture = Fixtures.INSTANCE.schedules(sections, distribution, priorities, limit, Fixtures.SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object getSchedules() throws Exception {
+        return fixture.call();
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Timeframe time conversion through a timeframe with a regular and an irregular block: timeToFloat over every minute of
+ * the day, with and without a block, and floatToTime over as many values spread across the timeframe. Scores are per
+ * conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeConversionBenchmark {
+    @Param({"timeToFloat", "timeToFloatByBlock", "floatToTime"})
+    public String conversion;
+
+    private Fixtures.Fixture fixture;
+
+    @Setup
+    public void setUp() throws IOException {
+        fixture = Fixtures.INSTANCE.timeConversion(conversion);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.CONVERSION_BATCH)
+    public Object convert() throws Exception {
+        return fixture.call();
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Reference answers for the schedule searches, found by trying every subset of a small catalog against the definition
+ * in <a href="#{@link}">{@link ScheduleEngine}</a>, and small random catalogs to try them on.
+ */
+class BruteForceSchedules {
+    private BruteForceSchedules() {
+    }
+
+    /**
+     * @param courses at most 20 courses
+     * @param priorities the priority purposes
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @return every schedule, as sorted course names
+     */
+    static Set<List<String>> schedules(List<Course> courses, Set<String> priorities, int minCourses, int maxCourses) {
+        Set<List<String>> schedules = new HashSet<>();
+        int n = courses.size();
+        //The empty set is never a schedule
+        for (int subset = 1; subset < 1 << n; subset++) {
+            int size = Integer.bitCount(subset);
+            if (size < minCourses || size > maxCourses || !compatible(courses, subset)
+                    || !coversPriorities(courses, subset, priorities)) {
+                continue;
+            }
+            boolean extendable = false;
+            for (int i = 0; i < n && !extendable; i++) {
+                extendable = (subset & 1 << i) == 0 && compatible(courses, subset | 1 << i);
+            }
+            if (size == maxCourses || !extendable) {
+                schedules.add(names(courses, subset));
+            }
+        }
+        return schedules;
+    }
+
+    /**
+     * @param schedules schedules as course names, in any order
+     * @return the schedules, each with its names sorted
+     */
+    static List<List<String>> sorted(List<List<String>> schedules) {
+        List<List<String>> sorted = new ArrayList<>();
+        for (List<String> schedule : schedules) {
+            List<String> copy = new ArrayList<>(schedule);
+            Collections.sort(copy);
+            sorted.add(copy);
+        }
+        return sorted;
+    }
+
+    /**
+     * @param problem the problem the schedules belong to
+     * @param schedules bitsets of course ordinals
+     * @return the schedules as sorted course names
+     */
+    static List<List<String>> names(ScheduleProblem problem, List<long[]> schedules) {
+        List<List<String>> named = new ArrayList<>();
+        for (long[] bits : schedules) {
+            List<String> names = new ArrayList<>();
+            for (int i = ConflictMatrix.nextSetBit(bits, 0); i != -1; i = ConflictMatrix.nextSetBit(bits, i + 1)) {
+                names.add(problem.names[i]);
+            }
+            Collections.sort(names);
+            named.add(names);
+        }
+        return named;
+    }
+
+    /**
+     * @param size the number of courses
+     * @param purposes the number of purposes, P0 up
+     * @param maxTime the latest end time
+     * @return courses C0 up with random times of 1 to 3 ints and 1 to 4 credits
+     */
+    static List<Course> catalog(Random random, int size, int purposes, int maxTime) {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int length = 1 + random.nextInt(3);
+            int start = random.nextInt(maxTime - length + 1);
+            courses.add(new Course("C" + i, "P" + random.nextInt(purposes), start, start + length,
+                    1 + random.nextInt(4), false, true));
+        }
+        return courses;
+    }
+
+    /**
+     * @param courses the catalog
+     * @param priorities the priority purposes; each must have a course
+     * @param minCourses the minimum number of courses in a schedule, inclusive
+     * @param maxCourses the maximum number of courses in a schedule, inclusive
+     * @return the problem an engine searches for the catalog
+     */
+    static ScheduleProblem problem(List<Course> courses, Set<String> priorities, int minCourses, int maxCourses) {
+        ConflictMatrix matrix = new ConflictMatrix();
+        for (Course course : courses) {
+            matrix.add(course);
+        }
+        int[] ids = priorities.stream().mapToInt(matrix::purposeId).sorted().toArray();
+        return new ScheduleProblem(matrix, ids, minCourses, maxCourses);
+    }
+
+    private static boolean compatible(List<Course> courses, int subset) {
+        for (int i = 0; i < courses.size(); i++) {
+            for (int j = i + 1; j < courses.size(); j++) {
+                if ((subset & 1 << i) != 0 && (subset & 1 << j) != 0 && courses.get(i).conflicts(courses.get(j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean coversPriorities(List<Course> courses, int subset, Set<String> priorities) {
+        Set<String> covered = new HashSet<>();
+        for (int i = 0; i < courses.size(); i++) {
+            if ((subset & 1 << i) != 0) {
+                covered.add(courses.get(i).purpose);
+            }
+        }
+        return covered.containsAll(priorities);
+    }
+
+    private static List<String> names(List<Course> courses, int subset) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < courses.size(); i++) {
+            if ((subset & 1 << i) != 0) {
+                names.add(courses.get(i).name);
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+}
@@ -0,0 +1,156 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentCourseListTest {
+    private static final String SEMESTER = "test-concurrent";
+    private static final int BATCH = 10;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void createFolders() throws IOException {
+        Files.createDirectories(Path.of("semesters"));
+        CatalogGenerator.deleteSemester(SEMESTER);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void deleteSemester() throws Exception {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        CatalogGenerator.deleteSemester(SEMESTER);
+    }
+
+    @Test
+    void behavesLikeTheListItWraps() throws IOException {
+        ConcurrentCourseList concurrent = new ConcurrentCourseList(SEMESTER, TestSemesters.MAX_TIME);
+        TestSemesters.fill(concurrent, 9);
+        List<String> expected = TestSemesters.describe(concurrent);
+        ArrayList<List<String>> schedules = concurrent.getSchedules(1, 4);
+        ArrayList<List<String>> best = concurrent.getBestSchedules(1, 4, new CreditScorer(), 5);
+        concurrent.close();
+
+        CourseListImpl plain = TestSemesters.reload(SEMESTER, true);
+        assertEquals(expected, TestSemesters.describe(plain));
+        assertEquals(schedules, plain.getSchedules(1, 4));
+        assertEquals(best, plain.getBestSchedules(1, 4, new CreditScorer(), 5));
+        plain.close();
+    }
+
+    @Test
+    void readersOnlySeeCompletedEdits() throws Exception {
+        ConcurrentCourseList courseList = new ConcurrentCourseList(SEMESTER, TestSemesters.MAX_TIME);
+        courseList.setPriority("P0", true);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Future<?> writer = executor.submit(() -> {
+            try {
+                //Each batch is one edit: a course of P0 and BATCH - 1 others
+                for (int b = 0; b < 40; b++) {
+                    List<Course> batch = new ArrayList<>();
+                    for (int i = 0; i < BATCH; i++) {
+                        int start = (b + i) % (TestSemesters.MAX_TIME - 1);
+                        batch.add(new Course("B" + b + "-" + i, "P" + i, start, start + 1, 3, false, true));
+                    }
+                    courseList.addCourses(batch);
+                    if (b % 4 == 3) {
+                        courseList.removeCourse("B" + (b - 3) + "-5");
+                        courseList.addCourse("B" + (b - 3) + "-5", "P5", 0, 1, 3);
+                    }
+                }
+            } finally {
+                writing.set(false);
+            }
+            return null;
+        });
+
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(executor.submit(() -> {
+                int reads = 0;
+                while (writing.get() || reads == 0) {
+                    String[] courses = courseList.getCourseList();
+                    //Removing and adding a course back are two edits
+                    assertTrue(courses.length % BATCH == 0 || courses.length % BATCH == BATCH - 1, courses.length
+                            + " courses");
+                    //Courses may be removed between calls, so each check uses one call only; a -0 course is of P0
+                    for (List<String> schedule : courseList.getSchedules(1, 3)) {
+                        assertTrue(schedule.stream().anyMatch(name -> name.endsWith("-0")), String.valueOf(schedule));
+                    }
+                    reads++;
+                }
+                return reads;
+            }));
+        }
+        writer.get(60, TimeUnit.SECONDS);
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+        }
+        assertEquals(40 * BATCH, courseList.getCourseList().length);
+        courseList.close();
+    }
+
+    @Test
+    void searchKeepsTheSnapshotItStartedWith() throws IOException {
+        ConcurrentCourseList courseList = new ConcurrentCourseList(SEMESTER, TestSemesters.MAX_TIME);
+        TestSemesters.fill(courseList, 10);
+        ArrayList<List<String>> expected = courseList.getSchedules(1, 4);
+        Iterator<List<String>> iterator = courseList.scheduleIterator(1, 4);
+        for (String name : courseList.getCourseList()) {
+            if (!courseList.isCoursePriority(name)) {
+                courseList.removeCourse(name);
+            }
+        }
+        courseList.setPriority("P2", true);
+
+        List<List<String>> found = new ArrayList<>();
+        iterator.forEachRemaining(found::add);
+        assertEquals(expected, found);
+        assertFalse(courseList.getSchedules(1, 4).equals(expected));
+        courseList.close();
+    }
+
+    @Test
+    void concurrentWritersAreSerialized() throws Exception {
+        ConcurrentCourseList courseList = new ConcurrentCourseList(SEMESTER, TestSemesters.MAX_TIME);
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < 8; w++) {
+            int writer = w;
+            writers.add(() -> {
+                for (int i = 0; i < 50; i++) {
+                    assertTrue(courseList.addCourse("W" + writer + "-" + i, "P" + i % 5, i % 20, i % 20 + 1, 3));
+                }
+                courseList.setPriority("P" + writer % 5, writer % 2 == 0);
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(writers)) {
+            future.get();
+        }
+        assertEquals(400, courseList.getCourseList().length);
+        List<String> expected = TestSemesters.describe(courseList);
+        courseList.close();
+
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, false);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        assertArrayEquals(courseList.getCourseList(), reloaded.getCourseList());
+        reloaded.close();
+    }
+}
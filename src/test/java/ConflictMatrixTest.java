@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ConflictMatrixTest {
+    @Test
+    void rowsMatchPairwiseConflictsThroughAddsAndRemovals() {
+        Random random = new Random(42);
+        ConflictMatrix matrix = new ConflictMatrix();
+        List<String> names = new ArrayList<>();
+        //Past 64 and 128 courses, so rows are widened, then back down, so ordinals are moved
+        for (int step = 0; step < 600; step++) {
+            boolean add = names.isEmpty() || (step < 300 ? random.nextInt(4) != 0 : random.nextInt(4) == 0);
+            if (add) {
+                int start = random.nextInt(40);
+                String name = "C" + step;
+                long[] slots = (step % 3 == 0) ? WeeklySlots.of(1 << random.nextInt(5), 480 + start * 15,
+                        510 + start * 15) : null;
+                Course course = new Course(name, "P" + random.nextInt(12), start, start + 1 + random.nextInt(3), 3,
+                        false, false, slots);
+                assertEquals(names.size(), matrix.add(course));
+                names.add(name);
+            } else {
+                String name = names.remove(random.nextInt(names.size()));
+                assertTrue(matrix.remove(name));
+                assertFalse(matrix.remove(name));
+                assertEquals(-1, matrix.ordinal(name));
+            }
+            if (step % 25 == 0 || step == 599) {
+                assertConsistent(matrix, names);
+            }
+        }
+    }
+
+    @Test
+    void bitsetHelpersWorkAcrossWords() {
+        assertArrayEquals(new long[] {0, 0}, ConflictMatrix.firstBits(2, 0));
+        assertArrayEquals(new long[] {(1L << 63) - 1, 0}, ConflictMatrix.firstBits(2, 63));
+        assertArrayEquals(new long[] {-1L, 0}, ConflictMatrix.firstBits(2, 64));
+        assertArrayEquals(new long[] {-1L, 1}, ConflictMatrix.firstBits(2, 65));
+        assertArrayEquals(new long[] {-1L, -1L}, ConflictMatrix.firstBits(2, 128));
+
+        long[] a = new long[3];
+        for (int index : new int[] {0, 63, 64, 130}) {
+            ConflictMatrix.set(a, index);
+        }
+        assertEquals(4, ConflictMatrix.cardinality(a));
+        assertEquals(0, ConflictMatrix.nextSetBit(a, 0));
+        assertEquals(63, ConflictMatrix.nextSetBit(a, 1));
+        assertEquals(64, ConflictMatrix.nextSetBit(a, 64));
+        assertEquals(130, ConflictMatrix.nextSetBit(a, 65));
+        assertEquals(-1, ConflictMatrix.nextSetBit(a, 131));
+        assertEquals(-1, ConflictMatrix.nextSetBit(a, 192));
+        ConflictMatrix.clear(a, 63);
+        assertFalse(ConflictMatrix.get(a, 63));
+        assertTrue(ConflictMatrix.get(a, 64));
+
+        long[] b = new long[3];
+        ConflictMatrix.set(b, 64);
+        ConflictMatrix.set(b, 100);
+        assertTrue(ConflictMatrix.intersects(a, b));
+        assertFalse(ConflictMatrix.containsAll(a, b));
+        long[] both = new long[3];
+        ConflictMatrix.and(a, b, both);
+        assertEquals(List.of(64), setBits(both));
+        assertTrue(ConflictMatrix.containsAll(a, both));
+        ConflictMatrix.andNot(a, b, a);
+        assertEquals(List.of(0, 130), setBits(a));
+        assertFalse(ConflictMatrix.intersects(a, b));
+        assertTrue(ConflictMatrix.isEmpty(new long[3]));
+        assertFalse(ConflictMatrix.isEmpty(b));
+    }
+
+    /**
+     * Checks every row and purpose mask against the courses' own conflict checks and purposes.
+     */
+    private static void assertConsistent(ConflictMatrix matrix, List<String> names) {
+        assertEquals(names.size(), matrix.size());
+        assertTrue(matrix.words() * 64 >= matrix.size());
+        for (String name : names) {
+            int ordinal = matrix.ordinal(name);
+            assertEquals(name, matrix.course(ordinal).name);
+        }
+        for (int i = 0; i < matrix.size(); i++) {
+            Course course = matrix.course(i);
+            long[] row = matrix.row(i);
+            assertEquals(matrix.words(), row.length);
+            assertEquals(matrix.purposeId(course.purpose), matrix.purpose(i));
+            //Nothing set past the last ordinal
+            assertEquals(-1, ConflictMatrix.nextSetBit(row, matrix.size()));
+            for (int j = 0; j < matrix.size(); j++) {
+                boolean conflicts = i == j || course.conflicts(matrix.course(j));
+                assertEquals(conflicts, ConflictMatrix.get(row, j), course.name + " " + matrix.course(j).name);
+                assertEquals(course.purpose.equals(matrix.course(j).purpose),
+                        ConflictMatrix.get(matrix.purposeMask(matrix.purpose(i)), j));
+            }
+        }
+    }
+
+    private static List<Integer> setBits(long[] bits) {
+        List<Integer> set = new ArrayList<>();
+        for (int i = ConflictMatrix.nextSetBit(bits, 0); i != -1; i = ConflictMatrix.nextSetBit(bits, i + 1)) {
+            set.add(i);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,128 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CourseImportTest {
+    private static final String SEMESTER = "test-course-import";
+
+    @AfterEach
+    void deleteSemester() throws IOException {
+        CatalogGenerator.deleteSemester(SEMESTER);
+    }
+
+    @Test
+    void addCoursesReportsEveryCourse() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        courseList.addCourse("A", "P0", 0, 2, 3);
+        courseList.setPriority("P1", true);
+        long[] monday = WeeklySlots.of(1, 480, 530);
+
+        ImportReport report = courseList.addCourses(List.of(
+                new Course("B", "P1", 1, 3, 4, false, false),
+                new Course("A", "P2", 3, 4, 3, false, false),
+                new Course("C", "P0", 5, 6, 2, true, false, monday),
+                new Course("C", "P3", 6, 7, 2, false, false),
+                new Course("D", "P2", -1, 2, 3, false, false),
+                new Course("E", "P2", 2, TestSemesters.MAX_TIME + 1, 3, false, false),
+                new Course("F", "P2", 4, 4, 3, false, false),
+                new Course("G", "P2", 4, 5, 3, false, false, new long[WeeklySlots.WORDS]),
+                new Course("H", "P2", 4, 5, 3, false, false, new long[1])));
+        assertEquals(List.of("1, B, ADDED", "2, A, DUPLICATE", "3, C, ADDED", "4, C, DUPLICATE", "5, D, OUT_OF_RANGE",
+                "6, E, OUT_OF_RANGE", "7, F, OUT_OF_RANGE", "8, G, MALFORMED", "9, H, MALFORMED"), rows(report));
+        assertEquals(2, report.getAddedCount());
+        assertEquals(7, report.getRejectedCount());
+
+        //Priorities follow the course list's purposes, not the given courses' fields
+        assertTrue(courseList.isCoursePriority("B"));
+        assertFalse(courseList.isCoursePriority("C"));
+        assertEquals(4, courseList.getCourseCredits("B"));
+        assertEquals(5, courseList.getCourseStartTime("C"));
+        assertArrayEquals(monday, courseList.getCourseSlots("C"));
+        //The existing course is unchanged
+        assertEquals("P0", courseList.getCoursePurpose("A"));
+        courseList.close();
+    }
+
+    @Test
+    void importCoursesReadsCsvRowsByLineNumber() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        courseList.addCourse("A", "P0", 0, 2, 3);
+        String csv = "name, purpose, start, end, credits, slots\n"
+                + "B, P1, 1, 3, 4\n"
+                + "\n"
+                + "C, P2, 5, 6, 2, " + WeeklySlots.encode(WeeklySlots.of(2, 600, 650)) + "\n"
+                + "A, P3, 3, 4, 3\n"
+                + "B, P3, 3, 4, 3\n"
+                + "D, P2, 5, 5, 3\n"
+                + "E, P2, five, 6, 3\n"
+                + "F, P2, 5, 6\n"
+                + "G, P2, 5, 6, 3, 96-106, 7\n"
+                + "H, P2, 5, 6, 3, 106-96\n"
+                + ", P2, 5, 6, 3\n"
+                + "I, P2, 7, 8, 1";
+        ImportReport report = courseList.importCourses(new StringReader(csv));
+        assertEquals(List.of("2, B, ADDED", "4, C, ADDED", "5, A, DUPLICATE", "6, B, DUPLICATE", "7, D, OUT_OF_RANGE",
+                "8, E, MALFORMED", "9, F, MALFORMED", "10, G, MALFORMED", "11, H, MALFORMED", "12, null, MALFORMED",
+                "13, I, ADDED"), rows(report));
+        assertEquals(3, report.getAddedCount());
+        assertEquals(8, report.getRejectedCount());
+        assertArrayEquals(WeeklySlots.of(2, 600, 650), courseList.getCourseSlots("C"));
+        assertNull(courseList.getCourseSlots("B"));
+
+        //A first line is only a header if it starts with name
+        ImportReport noHeader = courseList.importCourses(new StringReader("J, P4, 1, 2, 3"));
+        assertEquals(List.of("1, J, ADDED"), rows(noHeader));
+        courseList.close();
+    }
+
+    @Test
+    void importedCoursesAreLoggedTogetherAndSurviveReload() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 11);
+        courseList.close();
+        courseList = TestSemesters.reload(SEMESTER, false);
+        Path log = Path.of("semesters", SEMESTER, SEMESTER + "courses.log");
+        long logLines = Files.exists(log) ? Files.readAllLines(log).size() : 0;
+
+        ImportReport report = courseList.importCourses(new StringReader("X1, P1, 1, 2, 3\nX2, P7, 2, 3, 3\n"
+                + "C0, P1, 1, 2, 3\nX3, P7, 3, 99, 3"));
+        assertEquals(2, report.getAddedCount());
+        //One record per added course, and none for rejected ones
+        assertEquals(logLines + 2, Files.readAllLines(log).size());
+        List<String> expected = TestSemesters.describe(courseList);
+        //Not closed, so only the log holds the imported courses
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, false);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        reloaded.close();
+        courseList.discard();
+    }
+
+    @Test
+    void reportCountsAddedAndRejectedRows() {
+        ImportReport report = new ImportReport();
+        assertEquals(0, report.getAddedCount());
+        assertEquals(0, report.getRejectedCount());
+        report.add(1, "A", ImportReport.Status.ADDED);
+        report.add(3, null, ImportReport.Status.MALFORMED);
+        report.add(4, "A", ImportReport.Status.DUPLICATE);
+        assertEquals(1, report.getAddedCount());
+        assertEquals(2, report.getRejectedCount());
+        assertEquals(List.of("1, A, ADDED", "3, null, MALFORMED", "4, A, DUPLICATE"), rows(report));
+        assertThrows(UnsupportedOperationException.class, () -> report.getRows().clear());
+    }
+
+    private static List<String> rows(ImportReport report) {
+        return report.getRows().stream().map(ImportReport.Row::toString).toList();
+    }
+}
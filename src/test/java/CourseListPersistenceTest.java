@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CourseListPersistenceTest {
+    private static final String SEMESTER = "test-persistence";
+
+    @AfterEach
+    void deleteSemester() throws IOException {
+        CatalogGenerator.deleteSemester(SEMESTER);
+    }
+
+    @Test
+    void reloadFromCourseFileAndLogRestoresEverything() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 1);
+        assertFalse(courseList.getSavedSchedules(0, 1).isEmpty());
+        List<String> expected = TestSemesters.describe(courseList);
+        List<List<String>> schedules = courseList.getSchedules(1, 4);
+        courseList.close();
+
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, false);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        assertEquals(schedules, reloaded.getSchedules(1, 4));
+        reloaded.close();
+    }
+
+    @Test
+    void reloadWithoutClosingReplaysTheLog() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 2);
+        List<String> expected = TestSemesters.describe(courseList);
+        //Not closed, as after a crash: only the log holds the changes
+        assertFalse(Files.exists(TestSemesters.snapshotPath(SEMESTER)));
+
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, false);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        reloaded.close();
+        courseList.discard();
+    }
+
+    @Test
+    void reloadAfterCompactionRestoresEverything() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 3);
+        //Enough changes to compact the log more than once
+        for (int i = 0; i < 3 * CourseLog.DEFAULT_COMPACTION_THRESHOLD; i++) {
+            courseList.addCourse("X" + i % 7, "P" + i % 3, 0, 1, 3);
+            courseList.removeCourse("X" + (i + 3) % 7);
+        }
+        List<String> expected = TestSemesters.describe(courseList);
+        courseList.close();
+        Path log = Path.of("semesters", SEMESTER, SEMESTER + "courses.log");
+        assertTrue(!Files.exists(log) || Files.readAllLines(log).size() < 2 * CourseLog.DEFAULT_COMPACTION_THRESHOLD);
+
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, false);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        reloaded.close();
+    }
+
+    @Test
+    void namesAndPurposesTheLogCannotStoreAreRejected() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        courseList.addCourse("A", "P0", 0, 2, 3);
+        for (String field : new String[] {"B, C", "B\nC", "B\rC"}) {
+            assertThrows(IllegalArgumentException.class, () -> courseList.addCourse(field, "P1", 0, 2, 3), field);
+            assertThrows(IllegalArgumentException.class, () -> courseList.addCourse("B", field, 0, 2, 3), field);
+        }
+        assertThrows(IllegalArgumentException.class, () -> courseList.addCourse("", "P1", 0, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> courseList.addCourse(null, "P1", 0, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> courseList.addCourse("B", null, 0, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> courseList.setPriority("P0, P1", true));
+        assertThrows(IllegalArgumentException.class, () -> courseList.setPriority("P0\n", true));
+        //An empty purpose can be stored, so only a course needs a name
+        courseList.addCourse("D", "", 0, 2, 3);
+
+        ImportReport report = courseList.addCourses(Arrays.asList(new Course("B, C", "P1", 0, 2, 3, false, false),
+                new Course("E", "P1\nP2", 0, 2, 3, false, false), null, new Course("F", "P1", 0, 2, 3, false, false)));
+        assertEquals(List.of("1, B, C, MALFORMED", "2, E, MALFORMED", "3, null, MALFORMED", "4, F, ADDED"),
+                report.getRows().stream().map(ImportReport.Row::toString).toList());
+        report = courseList.importCourses(new StringReader(",P1,0,2,3\nG,,0,2,3\nH,P1,0,2,3"));
+        assertEquals(List.of("1, null, MALFORMED", "2, G, MALFORMED", "3, H, ADDED"),
+                report.getRows().stream().map(ImportReport.Row::toString).toList());
+
+        //Nothing rejected reached the log
+        List<String> expected = TestSemesters.describe(courseList);
+        assertEquals(List.of("A", "D", "F", "H"), Arrays.stream(courseList.getCourseList()).sorted().toList());
+        courseList.close();
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, false);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        reloaded.close();
+    }
+}
@@ -0,0 +1,145 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CourseLogTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void appendedRecordsAreLoadedInOrder() throws IOException {
+        CourseLog log = new CourseLog(folder, "s", 4);
+        log.appendAll(records("add, A, P0, 0, 1, 3", "priority, P0, true"));
+        log.appendAll(records("remove, A"));
+        log.close();
+        assertEquals(3, log.getLogRecords());
+
+        CourseLog reopened = new CourseLog(folder, "s", 4);
+        List<String[]> loaded = reopened.load();
+        assertEquals(3, reopened.getLogRecords());
+        assertRecords(List.of("add, A, P0, 0, 1, 3", "priority, P0, true", "remove, A"), loaded);
+    }
+
+    @Test
+    void courseFileIsReplayedBeforeTheLog() throws IOException {
+        CourseLog log = new CourseLog(folder, "s", 4);
+        log.appendAll(records("add, A, P0, 0, 1, 3"));
+        log.compact(List.of("A, P0, 0, 1, 3, true", "saved", "B, P1, 1, 2, 4, false, 0-12"));
+        assertFalse(Files.exists(log.getLogPath()));
+        assertEquals(0, log.getLogRecords());
+        log.appendAll(records("remove, B"));
+        log.close();
+
+        assertRecords(List.of("priority, P0, true", "add, A, P0, 0, 1, 3", "saved", "add, B, P1, 1, 2, 4, 0-12",
+                "remove, B"), new CourseLog(folder, "s", 4).load());
+    }
+
+    @Test
+    void logIsCompactedInTheBackgroundOncePastTheThreshold() throws IOException {
+        CourseLog log = new CourseLog(folder, "s", 4);
+        for (int i = 0; i < 4; i++) {
+            log.appendAll(records("add, C" + i + ", P0, 0, 1, 3"));
+        }
+        assertFalse(log.needsCompaction(2));
+        log.appendAll(records("remove, C0"));
+        //Never compacted while shorter than the number of courses
+        assertFalse(log.needsCompaction(5));
+        assertTrue(log.needsCompaction(3));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        log.compactInBackground(List.of("C1, P0, 0, 1, 3, false", "C2, P0, 0, 1, 3, false", "C3, P0, 0, 1, 3, false"),
+                () -> ran.set(true));
+        //Changes made during the compaction go to a fresh log
+        log.appendAll(records("remove, C1"));
+        log.close();
+        assertTrue(ran.get());
+        assertFalse(Files.exists(log.getCompactingPath()));
+        assertEquals(3, Files.readAllLines(log.getSnapshotPath()).size());
+
+        assertRecords(List.of("add, C1, P0, 0, 1, 3", "add, C2, P0, 0, 1, 3", "add, C3, P0, 0, 1, 3", "remove, C1"),
+                new CourseLog(folder, "s", 4).load());
+    }
+
+    @Test
+    void interruptedCompactionIsReplayed() throws IOException {
+        CourseLog log = new CourseLog(folder, "s", 4);
+        Files.writeString(log.getSnapshotPath(), "A, P0, 0, 1, 3, false");
+        //The set-aside log a compaction left behind when it stopped before writing the course file
+        Files.writeString(log.getCompactingPath(), "add, B, P0, 1, 2, 3" + System.lineSeparator());
+        log.appendAll(records("remove, A"));
+        log.close();
+
+        CourseLog reopened = new CourseLog(folder, "s", 4);
+        assertRecords(List.of("add, A, P0, 0, 1, 3", "add, B, P0, 1, 2, 3", "remove, A"), reopened.load());
+        assertEquals(2, reopened.getLogRecords());
+
+        //The next compaction takes both logs in
+        reopened.compact(List.of("B, P0, 1, 2, 3, false"));
+        reopened.close();
+        assertFalse(Files.exists(reopened.getCompactingPath()));
+        assertFalse(Files.exists(reopened.getLogPath()));
+        assertRecords(List.of("add, B, P0, 1, 2, 3"), new CourseLog(folder, "s", 4).load());
+    }
+
+    @Test
+    void compactionStoppedAfterWritingTheCourseFileKeepsNewCourses() throws IOException {
+        String semester = "test-course-log";
+        TestSemesters.create(semester).close();
+        try {
+            CourseLog log = new CourseLog(Path.of("semesters", semester), semester, 4);
+            //The compaction wrote the course file but stopped before deleting the set-aside log it covers
+            Files.write(log.getSnapshotPath(), List.of("A, P0, 0, 1, 3, false", "C, P1, 0, 1, 3, false",
+                    "D, P2, 3, 4, 3, false", "saved", "B, P3, 3, 4, 3, false"));
+            Files.write(log.getCompactingPath(), List.of("add, A, P0, 0, 1, 3", "add, C, P1, 0, 1, 3",
+                    "add, D, P2, 3, 4, 3", "saved", "add, B, P3, 3, 4, 3"));
+            Files.deleteIfExists(log.getLogPath());
+            assertRecords(List.of("add, A, P0, 0, 1, 3", "add, C, P1, 0, 1, 3", "add, D, P2, 3, 4, 3", "saved",
+                    "add, B, P3, 3, 4, 3", "add, A, P0, 0, 1, 3", "add, C, P1, 0, 1, 3", "add, D, P2, 3, 4, 3",
+                    "saved", "add, B, P3, 3, 4, 3"), log.load());
+
+            //Replaying the covered records leaves B the only new course
+            CourseListImpl courseList = TestSemesters.reload(semester, false);
+            List<List<String>> schedules = new ArrayList<>();
+            for (List<String> schedule : courseList.getNewSchedules(1, 2)) {
+                List<String> sorted = new ArrayList<>(schedule);
+                sorted.sort(null);
+                schedules.add(sorted);
+            }
+            schedules.sort(Comparator.comparing(Object::toString));
+            assertEquals(List.of(List.of("A", "B"), List.of("B", "C")), schedules);
+            courseList.close();
+        } finally {
+            CatalogGenerator.deleteSemester(semester);
+        }
+    }
+
+    /**
+     * @param lines records as they appear in the log
+     * @return each record's fields
+     */
+    private static List<String[]> records(String... lines) {
+        List<String[]> records = new ArrayList<>();
+        for (String line : lines) {
+            records.add(line.split(", "));
+        }
+        return records;
+    }
+
+    private static void assertRecords(List<String> expected, List<String[]> records) {
+        List<String> joined = new ArrayList<>();
+        for (String[] record : records) {
+            joined.add(String.join(", ", record));
+        }
+        assertEquals(expected, joined);
+    }
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CreditBoundedSearchTest {
+    @Test
+    void boundedSearchKeepsExactlyTheSchedulesInRange() {
+        Random random = new Random(19);
+        for (int c = 0; c < 200; c++) {
+            List<Course> courses = BruteForceSchedules.catalog(random, random.nextInt(13), 4, 10);
+            Set<String> priorities = courses.isEmpty() ? Set.of() : Set.of(courses.get(0).purpose);
+            int minCourses = priorities.size() + random.nextInt(2);
+            int maxCourses = Math.max(minCourses, 1) + random.nextInt(4);
+            int minCredits = random.nextInt(8);
+            int maxCredits = minCredits + random.nextInt(6);
+            Set<List<String>> expected = new HashSet<>();
+            for (List<String> schedule : BruteForceSchedules.schedules(courses, priorities, minCourses, maxCourses)) {
+                int credits = 0;
+                for (Course course : courses) {
+                    credits += schedule.contains(course.name) ? course.credits : 0;
+                }
+                if (credits >= minCredits && credits <= maxCredits) {
+                    expected.add(schedule);
+                }
+            }
+            ScheduleProblem problem = BruteForceSchedules.problem(courses, priorities, minCourses, maxCourses)
+                    .withBounds(minCourses, maxCourses, minCredits, maxCredits);
+            for (ScheduleEngine engine : new ScheduleEngine[]{new BacktrackingEngine(), new BronKerboschEngine()}) {
+                List<List<String>> found = BruteForceSchedules.names(problem, collect(engine, problem,
+                        new SearchStatistics()));
+                String context = engine.getClass().getSimpleName() + ", catalog " + c + ": " + courses + ", "
+                        + minCredits + " to " + maxCredits + " credits";
+                assertEquals(expected, new HashSet<>(found), context);
+                assertEquals(found.size(), new HashSet<>(found).size(), context);
+            }
+        }
+    }
+
+    @Test
+    void unreachableCreditsArePruned() {
+        List<Course> courses = BruteForceSchedules.catalog(new Random(23), 60, 10, 12);
+        ScheduleProblem unbounded = BruteForceSchedules.problem(courses, Set.of(), 1, 6);
+        //No schedule of 6 courses of at most 4 credits reaches 25 credits
+        ScheduleProblem bounded = unbounded.withBounds(1, 6, 25, Integer.MAX_VALUE);
+        for (ScheduleEngine engine : new ScheduleEngine[]{new BacktrackingEngine(), new BronKerboschEngine()}) {
+            SearchStatistics full = new SearchStatistics();
+            assertTrue(collect(engine, unbounded, full).size() > 0);
+            SearchStatistics pruned = new SearchStatistics();
+            assertEquals(0, collect(engine, bounded, pruned).size());
+            assertTrue(pruned.nodes * 10 < full.nodes, engine.getClass().getSimpleName() + ": " + pruned.nodes
+                    + " of " + full.nodes + " nodes");
+        }
+    }
+
+    private static List<long[]> collect(ScheduleEngine engine, ScheduleProblem problem, SearchStatistics statistics) {
+        List<long[]> schedules = new ArrayList<>();
+        Iterator<long[]> iterator = engine.search(problem, statistics);
+        while (iterator.hasNext()) {
+            schedules.add(iterator.next());
+        }
+        return schedules;
+    }
+}
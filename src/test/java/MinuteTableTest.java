@@ -0,0 +1,29 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalTime;
+import org.junit.jupiter.api.Test;
+
+class MinuteTableTest {
+    @Test
+    void everyMinuteHoldsTheConversionsResult() {
+        MinuteTable table = new MinuteTable(time -> time.toSecondOfDay() / 60.0 - 480);
+        for (int minute = 0; minute < MinuteTable.MINUTES_PER_DAY; minute++) {
+            LocalTime time = LocalTime.ofSecondOfDay(minute * 60L);
+            assertEquals(minute - 480, table.get(minute), time.toString());
+            assertEquals(minute, MinuteTable.minuteOfDay(time.toString()), time.toString());
+        }
+    }
+
+    @Test
+    void onlyTimesInHhMmFormatAreRead() {
+        assertEquals(0, MinuteTable.minuteOfDay("00:00"));
+        assertEquals(17 * 60 + 35, MinuteTable.minuteOfDay("17:35"));
+        assertEquals(MinuteTable.MINUTES_PER_DAY - 1, MinuteTable.minuteOfDay("23:59"));
+
+        //Left to LocalTime.parse, which reads some of these and rejects the rest
+        for (String time : new String[] {null, "", "9:30", "09:30:00", "0930", "09-30", "24:00", "09:60", "-1:30",
+                "0a:30", "09:3 ", " 9:30"}) {
+            assertEquals(-1, MinuteTable.minuteOfDay(time), time);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NewSchedulesTest {
+    private static final String SEMESTER = "test-new-schedules";
+
+    @AfterEach
+    void deleteSemester() throws IOException {
+        CatalogGenerator.deleteSemester(SEMESTER);
+    }
+
+    @Test
+    void newSchedulesAreTheSchedulesWithACourseAddedSinceSaving() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 6);
+        assertEquals(List.of(), courseList.getNewSchedules(1, 4));
+
+        courseList.addCourse("N1", "P2", 3, 4, 3);
+        courseList.addCourse("N2", "P4", 10, 12, 2);
+        List<List<String>> expected = courseList.getSchedules(1, 4).stream()
+                .filter(schedule -> schedule.contains("N1") || schedule.contains("N2")).collect(Collectors.toList());
+        assertFalse(expected.isEmpty());
+        assertSameSchedules(expected, courseList.getNewSchedules(1, 4));
+
+        courseList.addSchedules(new ArrayList<>(expected));
+        assertEquals(List.of(), courseList.getNewSchedules(1, 4));
+        courseList.close();
+    }
+
+    @Test
+    void newCoursesStayNewAcrossReloads() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 7);
+        courseList.addCourse("N1", "P2", 3, 4, 3);
+        List<List<String>> expected = courseList.getNewSchedules(1, 4);
+        assertFalse(expected.isEmpty());
+        courseList.close();
+
+        for (boolean fromSnapshot : new boolean[]{true, false}) {
+            CourseListImpl reloaded = TestSemesters.reload(SEMESTER, fromSnapshot);
+            assertSameSchedules(expected, reloaded.getNewSchedules(1, 4));
+            reloaded.close();
+        }
+
+        //Compaction writes the course file with a saved line between old and new courses, which also reorders them
+        compact();
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, false);
+        assertSameSchedules(expected, reloaded.getNewSchedules(1, 4));
+
+        //Saving clears the flag, and that is kept too
+        reloaded.addSchedules(new ArrayList<>(expected));
+        reloaded.close();
+        for (boolean fromSnapshot : new boolean[]{true, false}) {
+            CourseListImpl saved = TestSemesters.reload(SEMESTER, fromSnapshot);
+            assertEquals(List.of(), saved.getNewSchedules(1, 4), "from snapshot: " + fromSnapshot);
+            saved.close();
+        }
+    }
+
+    @Test
+    void courseFileWithoutSavedLineCountsEveryCourseAsSaved() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 8);
+        courseList.addCourse("N1", "P2", 3, 4, 3);
+        List<String> expected = TestSemesters.describe(courseList);
+        courseList.close();
+
+        //As written before saved records existed: courses only, with schedules saved
+        compact();
+        Path courseFile = Path.of("semesters", SEMESTER, SEMESTER + "courses.txt");
+        List<String> lines = new ArrayList<>(Files.readAllLines(courseFile));
+        assertTrue(lines.remove("saved"));
+        Files.write(courseFile, lines);
+
+        CourseListImpl legacy = TestSemesters.reload(SEMESTER, false);
+        assertEquals(expected, TestSemesters.describe(legacy));
+        assertEquals(List.of(), legacy.getNewSchedules(1, 4));
+        legacy.close();
+    }
+
+    @Test
+    void newSchedulesMatchBruteForce() {
+        for (ScheduleEngine engine : new ScheduleEngine[]{new BacktrackingEngine(), new BronKerboschEngine()}) {
+            Random random = new Random(11);
+            for (int c = 0; c < 200; c++) {
+                List<Course> courses = BruteForceSchedules.catalog(random, 1 + random.nextInt(12), 2 + random.nextInt(4),
+                        10);
+                Set<String> used = new TreeSet<>();
+                for (Course course : courses) {
+                    used.add(course.purpose);
+                }
+                Set<String> priorities = new HashSet<>();
+                for (String purpose : used) {
+                    if (priorities.size() < 2 && random.nextInt(3) == 0) {
+                        priorities.add(purpose);
+                    }
+                }
+                Set<String> newNames = new HashSet<>();
+                long[] newCourses = new long[1];
+                for (int i = 0; i < courses.size(); i++) {
+                    if (random.nextInt(4) == 0) {
+                        newNames.add(courses.get(i).name);
+                        ConflictMatrix.set(newCourses, i);
+                    }
+                }
+                int minCourses = priorities.size() + random.nextInt(3);
+                int maxCourses = Math.max(minCourses, 1) + random.nextInt(4);
+                ScheduleGenerator generator = new ScheduleGenerator("test", BruteForceSchedules.problem(courses,
+                        priorities, 0, 0), priorities.size(), newCourses, used.size(), engine, null);
+
+                List<List<String>> found = BruteForceSchedules.sorted(generator.getNewSchedules(minCourses, maxCourses));
+                Set<List<String>> expected = new HashSet<>();
+                for (List<String> schedule : BruteForceSchedules.schedules(courses, priorities, minCourses,
+                        maxCourses)) {
+                    if (schedule.stream().anyMatch(newNames::contains)) {
+                        expected.add(schedule);
+                    }
+                }
+                String context = engine.getClass().getSimpleName() + ", catalog " + c + ": " + courses + ", new "
+                        + newNames + ", priorities " + priorities + ", " + minCourses + " to " + maxCourses;
+                assertEquals(expected, new HashSet<>(found), context);
+                assertEquals(expected.size(), found.size(), "duplicate schedule in " + context);
+            }
+        }
+    }
+
+    @Test
+    void newSchedulesOnlySearchAroundTheNewCourses() {
+        Random random = new Random(12);
+        List<Course> courses = BruteForceSchedules.catalog(random, 60, 10, 30);
+        long[] newCourses = new long[1];
+        ConflictMatrix.set(newCourses, 59);
+        List<SearchStatistics> searches = new ArrayList<>();
+        ScheduleGenerator generator = new ScheduleGenerator("test", BruteForceSchedules.problem(courses, Set.of("P0"),
+                0, 0), 1, newCourses, 10, new BacktrackingEngine(), searches::add);
+
+        List<List<String>> all = generator.getSchedules(1, 5, 1);
+        List<List<String>> added = generator.getNewSchedules(1, 5);
+        assertEquals(all.stream().filter(schedule -> schedule.contains("C59")).count(), added.size());
+        assertFalse(added.isEmpty());
+        assertEquals(2, searches.size());
+        //The new course's subtree is a small part of the whole tree
+        assertTrue(searches.get(1).nodes * 5 < searches.get(0).nodes,
+                searches.get(1).nodes + " nodes, against " + searches.get(0).nodes);
+    }
+
+    /**
+     * The order of the schedules follows the order courses were loaded in, which compaction changes, and new schedules
+     * are found one new course at a time.
+     */
+    @Test
+    void turningAPriorityOffStoresNoSchedulesWithNewCourses() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        courseList.addCourse("A", "P0", 0, 1, 3);
+        courseList.addCourse("B", "P1", 0, 1, 3);
+        courseList.addCourse("C", "P2", 2, 3, 3);
+        courseList.setPriority("P0", true);
+        courseList.addSchedules(courseList.getSchedules(1, 2));
+        assertEquals(1, courseList.getExistingScheduleCount());
+
+        courseList.addCourse("D", "P3", 2, 3, 3);
+        courseList.setPriority("P0", false);
+        //B and C became possible; B and D did too, but D is new, so that one is left to getNewSchedules
+        assertEquals(2, courseList.getExistingScheduleCount());
+        assertEquals(List.of(), courseList.getSchedulesWithCourse("D"));
+        assertSameSchedules(List.of(List.of("A", "D"), List.of("B", "D")), courseList.getNewSchedules(1, 2));
+        courseList.close();
+    }
+
+    private static void assertSameSchedules(List<List<String>> expected, List<List<String>> actual) {
+        assertEquals(new HashSet<>(BruteForceSchedules.sorted(expected)),
+                new HashSet<>(BruteForceSchedules.sorted(actual)));
+        assertEquals(expected.size(), actual.size());
+    }
+
+    /**
+     * Adds and removes a course until the course log has been compacted.
+     */
+    private static void compact() throws IOException {
+        CourseListImpl courseList = TestSemesters.reload(SEMESTER, true);
+        for (int i = 0; i < CourseLog.DEFAULT_COMPACTION_THRESHOLD; i++) {
+            courseList.addCourse("X", "P9", 0, 1, 3);
+            courseList.removeCourse("X");
+        }
+        courseList.close();
+    }
+}
@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ParallelScheduleSearchTest {
+    private static final int[] PARALLELISMS = {1, 2, 3, 4, 8};
+    private static final int REPEATS = 5;
+
+    @Test
+    void resultDoesNotDependOnParallelism() {
+        Random random = new Random(11);
+        for (int c = 0; c < 20; c++) {
+            List<Course> courses = BruteForceSchedules.catalog(random, 40, 8, 12);
+            Set<String> priorities = (c % 2 == 0) ? Set.of("P0") : Set.of("P0", "P1");
+            ScheduleProblem problem = BruteForceSchedules.problem(courses, priorities, priorities.size(), 5);
+            for (ScheduleEngine engine : new ScheduleEngine[]{new BacktrackingEngine(), new BronKerboschEngine()}) {
+                List<List<String>> expected = BruteForceSchedules.names(problem,
+                        ParallelScheduleSearch.search(engine, problem, 1));
+                assertEquals(new HashSet<>(BruteForceSchedules.names(problem, sequential(engine, problem))),
+                        new HashSet<>(expected), "catalog " + c);
+                for (int parallelism : PARALLELISMS) {
+                    for (int r = 0; r < REPEATS; r++) {
+                        assertEquals(expected, BruteForceSchedules.names(problem,
+                                ParallelScheduleSearch.search(engine, problem, parallelism)),
+                                "catalog " + c + ", parallelism " + parallelism);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void cappedSearchKeepsTreeOrder() {
+        List<Course> courses = BruteForceSchedules.catalog(new Random(3), 40, 8, 12);
+        ScheduleProblem problem = BruteForceSchedules.problem(courses, Set.of("P0"), 1, 5);
+        BacktrackingEngine engine = new BacktrackingEngine();
+        List<List<String>> all = BruteForceSchedules.names(problem, ParallelScheduleSearch.search(engine, problem, 1));
+        assertTrue(all.size() > 10);
+        for (int parallelism : PARALLELISMS) {
+            List<List<String>> capped = BruteForceSchedules.names(problem,
+                    ParallelScheduleSearch.search(engine, problem, parallelism, new SearchStatistics(), 10));
+            assertEquals(10, capped.size());
+            //The schedules kept may differ between runs, but appear in the same relative order as in the full result
+            int last = -1;
+            for (List<String> schedule : capped) {
+                int index = all.indexOf(schedule);
+                assertTrue(index > last, "parallelism " + parallelism);
+                last = index;
+            }
+        }
+    }
+
+    private static List<long[]> sequential(ScheduleEngine engine, ScheduleProblem problem) {
+        List<long[]> schedules = new ArrayList<>();
+        Iterator<long[]> iterator = engine.search(problem);
+        while (iterator.hasNext()) {
+            schedules.add(iterator.next());
+        }
+        return schedules;
+    }
+}
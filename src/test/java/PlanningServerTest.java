@@ -0,0 +1,205 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PlanningServerTest {
+    private static final String TIMEFRAME = "test-server";
+    private static final String OTHER_TIMEFRAME = "test-server-other";
+    private static final String CATALOG = "test-server-catalog";
+    private static final String EMPTY = "test-server-empty";
+
+    private PlanningServer server;
+    private HttpClient client;
+    private String url;
+    //The catalog's schedules of 1 to 4 courses, computed before the server opened it
+    private List<List<String>> expected;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        deleteFiles();
+        CatalogGenerator generator = new CatalogGenerator(42, 24, 6, CatalogGenerator.TimeDistribution.UNIFORM, 0,
+                false);
+        Timeframe timeframe = generator.createTimeframe(TIMEFRAME);
+        generator.createTimeframe(OTHER_TIMEFRAME);
+        CourseListImpl catalog = generator.createCourseList(CATALOG, timeframe);
+        expected = sorted(catalog.getSchedules(1, 4));
+        catalog.close();
+        server = new PlanningServer(0);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        url = "http://localhost:" + server.getPort();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        deleteFiles();
+    }
+
+    private void deleteFiles() throws IOException {
+        CatalogGenerator.deleteSemester(CATALOG);
+        CatalogGenerator.deleteSemester(EMPTY);
+        CatalogGenerator.deleteTimeframe(TIMEFRAME);
+        CatalogGenerator.deleteTimeframe(OTHER_TIMEFRAME);
+    }
+
+    @Test
+    void coursesAndTimesAreServed() throws Exception {
+        HttpResponse<String> response = send("PUT", "/semesters/" + EMPTY + "?timeframe=" + TIMEFRAME, null, null);
+        assertEquals(200, response.statusCode());
+        assertEquals(Map.of("name", EMPTY, "timeframe", TIMEFRAME, "courses", 0.0, "existingSchedules", 0.0),
+                Json.parse(response.body()));
+
+        String course = "{\"name\":\"ASTR 101+1\",\"purpose\":\"Science\",\"startTime\":0,\"endTime\":1,\"credits\":3}";
+        assertEquals(201, send("POST", "/semesters/" + EMPTY + "/courses", course, null).statusCode());
+        assertEquals(409, send("POST", "/semesters/" + EMPTY + "/courses", course, null).statusCode());
+        response = send("POST", "/semesters/" + EMPTY + "/courses", "name,purpose,start,end,credits\n"
+                + "MATH 201,Math,1,2,4\nMATH 202,Math,9,2,4\n", "text/csv");
+        assertEquals(200, response.statusCode());
+        Map<?, ?> report = (Map<?, ?>) Json.parse(response.body());
+        assertEquals(1.0, report.get("added"));
+        assertEquals(1.0, report.get("rejected"));
+        assertEquals("OUT_OF_RANGE", ((Map<?, ?>) ((List<?>) report.get("rows")).get(1)).get("status"));
+
+        //Plus signs in paths are not spaces
+        response = send("GET", "/semesters/" + EMPTY + "/courses/ASTR%20101+1", null, null);
+        assertEquals(200, response.statusCode());
+        Map<?, ?> fields = (Map<?, ?>) Json.parse(response.body());
+        assertEquals("ASTR 101+1", fields.get("name"));
+        assertEquals(false, fields.get("priority"));
+        assertEquals("MWF", fields.get("block"));
+        assertEquals("08:00", fields.get("start"));
+
+        assertEquals(204, send("PUT", "/semesters/" + EMPTY + "/priorities/Science", null, null).statusCode());
+        fields = (Map<?, ?>) Json.parse(send("GET", "/semesters/" + EMPTY + "/courses/ASTR%20101+1", null, null).body());
+        assertEquals(true, fields.get("priority"));
+        assertEquals(204, send("DELETE", "/semesters/" + EMPTY + "/courses/ASTR%20101+1", null, null).statusCode());
+        assertEquals(404, send("GET", "/semesters/" + EMPTY + "/courses/ASTR%20101+1", null, null).statusCode());
+        assertEquals(1, ((List<?>) Json.parse(send("GET", "/semesters/" + EMPTY + "/courses", null, null).body()))
+                .size());
+
+        response = send("GET", "/timeframes/" + TIMEFRAME + "/to-float?time=09:00&block=MWF", null, null);
+        assertEquals(Map.of("value", 1.0), Json.parse(response.body()));
+        response = send("GET", "/timeframes/" + TIMEFRAME + "/to-time?value=1", null, null);
+        assertEquals(Map.of("time", "09:00", "block", "MWF"), Json.parse(response.body()));
+        response = send("GET", "/timeframes/" + TIMEFRAME, null, null);
+        assertEquals(2, ((List<?>) ((Map<?, ?>) Json.parse(response.body())).get("blocks")).size());
+    }
+
+    @Test
+    void errorsAreAnsweredWithTheirStatus() throws Exception {
+        //Unknown paths, methods and names
+        assertError(404, "GET", "/timeframes/", null);
+        assertError(404, "GET", "/timeframes/" + TIMEFRAME + "/to-minutes", null);
+        assertError(405, "POST", "/timeframes/" + TIMEFRAME, "");
+        assertError(404, "GET", "/timeframes/missing", null);
+        assertError(400, "GET", "/timeframes/..%2Fsemesters", null);
+        assertError(404, "GET", "/semesters/" + EMPTY, null);
+        assertError(404, "PUT", "/semesters/" + EMPTY + "?timeframe=missing", null);
+        assertError(400, "PUT", "/semesters/" + EMPTY, null);
+        assertError(400, "PUT", "/semesters/a.b?timeframe=" + TIMEFRAME, null);
+
+        //Invalid input
+        assertError(400, "GET", "/timeframes/" + TIMEFRAME + "/to-float", null);
+        assertError(404, "GET", "/timeframes/" + TIMEFRAME + "/to-float?time=23:00", null);
+        assertError(400, "GET", "/timeframes/" + TIMEFRAME + "/to-time?value=noon", null);
+
+        assertEquals(200, send("PUT", "/semesters/" + EMPTY + "?timeframe=" + TIMEFRAME, null, null).statusCode());
+        assertError(409, "PUT", "/semesters/" + EMPTY + "?timeframe=" + OTHER_TIMEFRAME, null);
+        assertError(404, "GET", "/semesters/" + EMPTY + "/sections", null);
+        assertError(404, "GET", "/semesters/" + EMPTY + "/courses/A/B", null);
+        assertError(404, "GET", "/semesters/" + EMPTY + "/courses/missing", null);
+        String courses = "/semesters/" + EMPTY + "/courses";
+        assertError(400, "POST", courses, "{\"name\":");
+        assertError(400, "POST", courses, "{\"name\":\"A\",\"purpose\":\"P\",\"startTime\":0.5,\"endTime\":1,"
+                + "\"credits\":3}");
+        assertError(400, "POST", courses, "{\"name\":\"A, B\",\"purpose\":\"P\",\"startTime\":0,\"endTime\":1,"
+                + "\"credits\":3}");
+        assertError(400, "POST", courses, "{\"name\":\"A\",\"purpose\":\"P\",\"startTime\":0,\"endTime\":1}");
+        assertError(400, "POST", courses, "{\"name\":\"A\",\"purpose\":\"P\",\"startTime\":0,\"endTime\":99999,"
+                + "\"credits\":3}");
+        assertError(413, "POST", courses, "[" + "0,".repeat(1 << 19) + "0]");
+        assertError(400, "GET", "/semesters/" + EMPTY + "/schedules?min=1", null);
+        assertError(400, "GET", "/semesters/" + EMPTY + "/schedules?min=1&max=4&limit=-1", null);
+        assertEquals(0, ((List<?>) Json.parse(send("GET", courses, null, null).body())).size());
+    }
+
+    @Test
+    void schedulesAreStreamedUntilALimit() throws Exception {
+        assertEquals(200, send("PUT", "/semesters/" + CATALOG + "?timeframe=" + TIMEFRAME, null, null).statusCode());
+        String schedules = "/semesters/" + CATALOG + "/schedules?min=1&max=4";
+        Map<?, ?> complete = (Map<?, ?>) Json.parse(send("GET", schedules, null, null).body());
+        assertEquals(true, complete.get("complete"));
+        assertEquals(null, complete.get("stopReason"));
+        List<List<String>> all = schedules(complete);
+        assertEquals(expected, sorted(all));
+
+        Map<?, ?> limited = (Map<?, ?>) Json.parse(send("GET", schedules + "&limit=5", null, null).body());
+        assertEquals(false, limited.get("complete"));
+        assertEquals("RESULT_CAP", limited.get("stopReason"));
+        assertEquals(all.subList(0, 5), schedules(limited));
+
+        Map<?, ?> exact = (Map<?, ?>) Json.parse(send("GET", schedules + "&limit=" + all.size(), null, null).body());
+        assertEquals(true, exact.get("complete"));
+        assertEquals(all, schedules(exact));
+
+        HttpResponse<String> response = send("GET", schedules + "&timeout=0", null, null);
+        assertEquals(200, response.statusCode());
+        Map<?, ?> timedOut = (Map<?, ?>) Json.parse(response.body());
+        assertEquals("DEADLINE", timedOut.get("stopReason"));
+        assertTrue(schedules(timedOut).size() < all.size());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String contentType) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url + path)).method(method,
+                (body != null) ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void assertError(int status, String method, String path, String body) throws Exception {
+        HttpResponse<String> response = send(method, path, body, null);
+        assertEquals(status, response.statusCode(), method + " " + path);
+        assertTrue(((Map<?, ?>) Json.parse(response.body())).get("error") instanceof String, method + " " + path);
+    }
+
+    private static List<List<String>> schedules(Map<?, ?> response) {
+        List<List<String>> schedules = new ArrayList<>();
+        for (Object schedule : (List<?>) response.get("schedules")) {
+            List<String> names = new ArrayList<>();
+            for (Object name : (List<?>) schedule) {
+                names.add((String) name);
+            }
+            schedules.add(names);
+        }
+        return schedules;
+    }
+
+    /**
+     * @return the schedules with their courses sorted, in sorted order
+     */
+    private static List<List<String>> sorted(List<List<String>> schedules) {
+        List<List<String>> sorted = new ArrayList<>();
+        for (List<String> schedule : schedules) {
+            sorted.add(schedule.stream().sorted().toList());
+        }
+        sorted.sort(Comparator.comparing(Object::toString));
+        return sorted;
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RankedScheduleSearchTest {
+    private static final int[] KS = {0, 1, 3, 10, 1000};
+
+    @Test
+    void creditScorerMatchesBruteForce() {
+        checkAgainstBruteForce(new CreditScorer(), 5);
+    }
+
+    @Test
+    void gapScorerMatchesBruteForce() {
+        checkAgainstBruteForce(new GapScorer(), 6);
+    }
+
+    /**
+     * The k best schedules must be schedules of the problem, best first, with the same scores as the k best found by
+     * scoring every schedule; which of several equal-scoring schedules is kept is up to the search.
+     */
+    private static void checkAgainstBruteForce(ScheduleScorer scorer, long seed) {
+        Random random = new Random(seed);
+        for (int c = 0; c < 200; c++) {
+            List<Course> courses = BruteForceSchedules.catalog(random, random.nextInt(13), 4, 10);
+            Set<String> priorities = courses.isEmpty() ? Set.of() : Set.of(courses.get(0).purpose);
+            int minCourses = priorities.size() + random.nextInt(2);
+            int maxCourses = Math.max(minCourses, 1) + random.nextInt(4);
+            ScheduleProblem problem = BruteForceSchedules.problem(courses, priorities, minCourses, maxCourses);
+            Set<List<String>> all = BruteForceSchedules.schedules(courses, priorities, minCourses, maxCourses);
+            List<Double> allScores = new ArrayList<>();
+            for (List<String> schedule : all) {
+                allScores.add(scorer.score(problem, bits(problem, schedule)));
+            }
+            allScores.sort(Comparator.reverseOrder());
+
+            for (int k : KS) {
+                String context = "catalog " + c + ": " + courses + ", " + minCourses + " to " + maxCourses + ", k " + k;
+                List<long[]> best = RankedScheduleSearch.search(problem, scorer, k);
+                List<Double> scores = new ArrayList<>();
+                for (long[] schedule : best) {
+                    scores.add(scorer.score(problem, schedule));
+                }
+                assertEquals(allScores.subList(0, Math.min(k, allScores.size())), scores, context);
+                List<List<String>> named = BruteForceSchedules.names(problem, best);
+                assertTrue(all.containsAll(named), context);
+                assertEquals(named.size(), new HashSet<>(named).size(), context);
+            }
+        }
+    }
+
+    private static long[] bits(ScheduleProblem problem, List<String> schedule) {
+        long[] bits = new long[problem.words];
+        for (String name : schedule) {
+            ConflictMatrix.set(bits, Arrays.asList(problem.names).indexOf(name));
+        }
+        return bits;
+    }
+}
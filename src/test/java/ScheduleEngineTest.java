@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class ScheduleEngineTest {
+    private static final int CATALOGS = 300;
+
+    @Test
+    void backtrackingMatchesBruteForce() {
+        checkAgainstBruteForce(new BacktrackingEngine());
+    }
+
+    @Test
+    void bronKerboschMatchesBruteForce() {
+        checkAgainstBruteForce(new BronKerboschEngine());
+    }
+
+    @Test
+    void enginesFindNothingWhenPrioritiesConflict() {
+        List<Course> courses = List.of(new Course("A", "P0", 0, 2, 3, false, true),
+                new Course("B", "P1", 1, 3, 3, false, true), new Course("C", "P2", 4, 5, 3, false, true));
+        ScheduleProblem problem = BruteForceSchedules.problem(courses, Set.of("P0", "P1"), 2, 3);
+        assertEquals(0, collect(new BacktrackingEngine(), problem).size());
+        assertEquals(0, collect(new BronKerboschEngine(), problem).size());
+    }
+
+    /**
+     * Runs engine over random catalogs of up to 12 courses, with random priorities and bounds, and expects exactly the
+     * schedules the definition allows, each once.
+     */
+    private static void checkAgainstBruteForce(ScheduleEngine engine) {
+        Random random = new Random(7);
+        for (int c = 0; c < CATALOGS; c++) {
+            int purposes = 2 + random.nextInt(4);
+            List<Course> courses = BruteForceSchedules.catalog(random, random.nextInt(13), purposes, 10);
+            //Only purposes with a course can be priorities
+            Set<String> used = new TreeSet<>();
+            for (Course course : courses) {
+                used.add(course.purpose);
+            }
+            Set<String> priorities = new HashSet<>();
+            for (String purpose : used) {
+                if (priorities.size() < 2 && random.nextInt(3) == 0) {
+                    priorities.add(purpose);
+                }
+            }
+            int minCourses = priorities.size() + random.nextInt(3);
+            int maxCourses = Math.max(minCourses, 1) + random.nextInt(4);
+            ScheduleProblem problem = BruteForceSchedules.problem(courses, priorities, minCourses, maxCourses);
+
+            List<List<String>> found = BruteForceSchedules.names(problem, collect(engine, problem));
+            String context = "catalog " + c + ": " + courses + ", priorities " + priorities + ", " + minCourses + " to "
+                    + maxCourses;
+            assertEquals(BruteForceSchedules.schedules(courses, priorities, minCourses, maxCourses),
+                    new HashSet<>(found), context);
+            assertEquals(new HashSet<>(found).size(), found.size(), "duplicate schedule in " + context);
+        }
+    }
+
+    private static List<long[]> collect(ScheduleEngine engine, ScheduleProblem problem) {
+        List<long[]> schedules = new ArrayList<>();
+        Iterator<long[]> iterator = engine.search(problem);
+        while (iterator.hasNext()) {
+            schedules.add(iterator.next());
+        }
+        return schedules;
+    }
+}
@@ -0,0 +1,151 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScheduleFileTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void schedulesSurviveReopening() throws IOException {
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"));
+        file.append(List.of(List.of("A", "B"), List.of("C")));
+        file.append(List.of(List.of("B", "C", "D")));
+        assertEquals(3, file.size());
+
+        ScheduleFile reopened = new ScheduleFile(file.getPath());
+        assertEquals(3, reopened.index());
+        assertEquals(List.of(List.of("A", "B"), List.of("C"), List.of("B", "C", "D")), reopened.read(0, 10));
+        assertEquals(List.of(List.of("C")), reopened.read(1, 1));
+        assertEquals(List.of(), reopened.read(3, 5));
+    }
+
+    @Test
+    void removalOnlyRemovesEarlierSchedules() throws IOException {
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"));
+        file.append(List.of(List.of("A", "B"), List.of("C"), List.of("A", "C")));
+        file.appendRemoval("A");
+        //Saved after the removal, so kept
+        file.append(List.of(List.of("A", "D")));
+        List<List<String>> expected = List.of(List.of("C"), List.of("A", "D"));
+        assertEquals(expected, file.read(0, 10));
+
+        ScheduleFile reopened = new ScheduleFile(file.getPath());
+        assertEquals(2, reopened.index());
+        assertEquals(expected, reopened.read(0, 10));
+    }
+
+    @Test
+    void removingAnUnsavedCourseChangesNothing() throws IOException {
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"));
+        file.append(List.of(List.of("A")));
+        long size = Files.size(file.getPath());
+        file.appendRemoval("Z");
+        assertEquals(size, Files.size(file.getPath()));
+        assertEquals(1, file.size());
+    }
+
+    @Test
+    void fileIsCompactedOnceRemovedSchedulesOutnumberTheRest() throws IOException {
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"));
+        List<List<String>> schedules = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            schedules.add(List.of("A" + i % 2, "B" + i));
+        }
+        file.append(schedules);
+        file.appendRemoval("A0");
+        file.appendRemoval("A1");
+        file.append(List.of(List.of("C")));
+        long size = Files.size(file.getPath());
+
+        ScheduleFile reopened = new ScheduleFile(file.getPath());
+        assertEquals(1, reopened.index());
+        assertTrue(Files.size(file.getPath()) < size);
+        assertEquals(List.of(List.of("C")), new ScheduleFile(file.getPath()).read(0, 10));
+    }
+
+    @Test
+    void recordCutShortIsIgnoredAndOverwritten() throws IOException {
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"));
+        file.append(List.of(List.of("A", "B")));
+        long intact = Files.size(file.getPath());
+        file.append(List.of(List.of("C", "D")));
+        //A failed write leaves only part of the last schedule and its names
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file.getPath()) - 3);
+        }
+
+        ScheduleFile reopened = new ScheduleFile(file.getPath());
+        assertEquals(1, reopened.index());
+        assertEquals(List.of(List.of("A", "B")), reopened.read(0, 10));
+        reopened.append(List.of(List.of("E")));
+        assertEquals(List.of(List.of("A", "B"), List.of("E")), reopened.read(0, 10));
+        assertTrue(Files.size(file.getPath()) > intact);
+
+        ScheduleFile again = new ScheduleFile(file.getPath());
+        assertEquals(2, again.index());
+        assertEquals(List.of(List.of("A", "B"), List.of("E")), again.read(0, 10));
+    }
+
+    @Test
+    void fileCanBeRewrittenAndDeletedAfterReading() throws IOException {
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"));
+        file.append(List.of(List.of("A", "B"), List.of("C")));
+        file.appendRemoval("C");
+        assertEquals(List.of(List.of("A", "B")), new ScheduleFile(file.getPath()).read(0, 10));
+        //No handle outlives a read, which on Windows would keep the file from being replaced
+        file.rewrite(List.of(List.of("D")));
+        assertEquals(List.of(List.of("D")), file.read(0, 10));
+        file.delete();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        Path path = folder.resolve("schedules.bin");
+        Files.writeString(path, "A, B\nC\n");
+        assertThrows(IOException.class, () -> new ScheduleFile(path).index());
+    }
+
+    @Test
+    void appendsPastTheLongestLengthAreUndone() throws IOException {
+        //Header, two NAME records and a SCHEDULE record of two courses
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"), 8 + 2 * 6 + 13);
+        file.append(List.of(List.of("A", "B")));
+        long size = Files.size(file.getPath());
+        assertThrows(IOException.class, () -> file.append(List.of(List.of("C"))));
+        assertEquals(size, Files.size(file.getPath()));
+        assertEquals(List.of(List.of("A", "B")), file.read(0, 10));
+        assertEquals(List.of("A", "B"), file.getNames());
+        assertThrows(IOException.class, () -> file.appendRemoval("A"));
+        assertEquals(1, file.size());
+
+        ScheduleFile tooSmall = new ScheduleFile(folder.resolve("other.bin"), 8);
+        assertThrows(IOException.class, () -> tooSmall.append(List.of(List.of("A"))));
+        assertFalse(tooSmall.exists());
+        assertThrows(IOException.class, () -> new ScheduleFile(file.getPath(), size - 1).index());
+    }
+
+    @Test
+    void restoredIndexReadsLikeAnIndexedOne() throws IOException {
+        ScheduleFile file = new ScheduleFile(folder.resolve("schedules.bin"));
+        file.append(List.of(List.of("A", "B"), List.of("C")));
+        ScheduleFile restored = new ScheduleFile(file.getPath());
+        restored.restore(file.getNames(), file.getOffsets());
+        assertEquals(file.read(0, 10), restored.read(0, 10));
+        restored.append(List.of(List.of("A", "C")));
+        assertEquals(List.of(List.of("A", "B"), List.of("C"), List.of("A", "C")),
+                new ScheduleFile(file.getPath()).read(0, 10));
+    }
+}
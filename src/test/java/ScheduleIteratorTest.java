@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ScheduleIteratorTest {
+    private static final String SEMESTER = "test-schedule-iterator";
+
+    @AfterEach
+    void deleteSemester() throws IOException {
+        CatalogGenerator.deleteSemester(SEMESTER);
+    }
+
+    @Test
+    void iteratorAndStreamMatchGetSchedules() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 5);
+        int[][] bounds = {{1, 4}, {2, 3}, {3, 3}, {1, 1}, {0, 6}, {4, 2}};
+        for (int[] bound : bounds) {
+            String context = bound[0] + " to " + bound[1];
+            List<List<String>> expected = courseList.getSchedules(bound[0], bound[1]);
+            Iterator<List<String>> iterator = courseList.scheduleIterator(bound[0], bound[1]);
+            List<List<String>> iterated = new ArrayList<>();
+            while (iterator.hasNext()) {
+                //hasNext does not move the iterator on
+                assertTrue(iterator.hasNext(), context);
+                iterated.add(iterator.next());
+            }
+            assertEquals(expected, iterated, context);
+            assertThrows(NoSuchElementException.class, iterator::next, context);
+            assertEquals(expected, courseList.streamSchedules(bound[0], bound[1]).collect(Collectors.toList()),
+                    context);
+        }
+        courseList.close();
+    }
+
+    @Test
+    void limitingTheStreamReturnsTheFirstSchedules() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 6);
+        List<List<String>> expected = courseList.getSchedules(1, 4);
+        assertTrue(expected.size() > 10);
+        assertEquals(expected.subList(0, 10), courseList.streamSchedules(1, 4).limit(10).collect(Collectors.toList()));
+        assertEquals(expected.get(0), courseList.streamSchedules(1, 4).findFirst().orElseThrow());
+        courseList.close();
+    }
+
+    @Test
+    void iteratorsSearchTheCoursesAtTheTimeTheyWereCreated() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 7);
+        List<List<String>> before = courseList.getSchedules(1, 4);
+        Iterator<List<String>> iterator = courseList.scheduleIterator(1, 4);
+        List<List<String>> iterated = new ArrayList<>();
+        iterated.add(iterator.next());
+
+        //Edits after the iterator was created, including one to a course in its first schedule
+        courseList.removeCourse(iterated.get(0).get(0));
+        courseList.addCourse("Z", "P9", 0, 1, 3);
+        courseList.setPriority("P2", true);
+        iterator.forEachRemaining(iterated::add);
+        assertEquals(before, iterated);
+        assertFalse(courseList.streamSchedules(1, 4).anyMatch(before.get(0)::equals));
+        courseList.close();
+    }
+}
@@ -0,0 +1,212 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class ScheduleStoreTest {
+    @Test
+    void purposeIndexMatchesTheStoredSchedules() {
+        Random random = new Random(42);
+        Map<String, Course> courses = courses(40, 8);
+        ScheduleStore store = new ScheduleStore(courses);
+        List<List<String>> stored = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                List<String> schedule = randomSchedule(random, 40, 8);
+                store.add(schedule);
+                stored.add(schedule);
+            }
+            //Removed schedules stay in the postings until they are next read
+            String removedCourse = "C" + random.nextInt(40);
+            store.removeCourse(removedCourse);
+            stored.removeIf(schedule -> schedule.contains(removedCourse));
+            for (int p = 0; p < 8; p++) {
+                assertEquals(expectedWithPurpose(stored, courses, "P" + p),
+                        schedules(store, store.withPurpose("P" + p)));
+            }
+        }
+        assertEquals(List.of(), store.withPurpose("P8"));
+
+        //retainAll renumbers what it keeps
+        List<Integer> kept = store.withPurpose("P3");
+        store.retainAll(kept);
+        assertEquals(kept.size(), store.size());
+        stored.removeIf(schedule -> expectedWithPurpose(List.of(schedule), courses, "P3").isEmpty());
+        for (int p = 0; p < 8; p++) {
+            assertEquals(expectedWithPurpose(stored, courses, "P" + p), schedules(store, store.withPurpose("P" + p)));
+        }
+    }
+
+    @Test
+    void courseIndexMatchesTheStoredSchedules() {
+        Random random = new Random(7);
+        ScheduleStore store = new ScheduleStore(courses(30, 6));
+        List<List<String>> stored = new ArrayList<>();
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 25; i++) {
+                List<String> schedule = randomSchedule(random, 30, 6);
+                assertEquals(store.idLimit(), store.add(schedule));
+                stored.add(schedule);
+            }
+            String removedCourse = "C" + random.nextInt(30);
+            int idLimit = store.idLimit();
+            List<Integer> removedIds = store.withCourse(removedCourse);
+            int expectedRemovals = (int) stored.stream().filter(schedule -> schedule.contains(removedCourse)).count();
+            assertEquals(expectedRemovals, store.removeCourse(removedCourse));
+            assertEquals(0, store.removeCourse(removedCourse));
+            stored.removeIf(schedule -> schedule.contains(removedCourse));
+            assertEquals(stored.size(), store.size());
+            if (store.idLimit() == idLimit) {
+                //Not compacted, so the removed schedules leave gaps
+                for (int id : removedIds) {
+                    assertNull(store.get(id));
+                }
+            }
+
+            List<List<String>> live = new ArrayList<>();
+            for (int id = 0; id < store.idLimit(); id++) {
+                if (store.get(id) != null) {
+                    live.add(store.get(id));
+                }
+            }
+            assertEquals(stored, live);
+            for (int c = 0; c < 30; c++) {
+                String course = "C" + c;
+                List<Integer> ids = store.withCourse(course);
+                assertEquals(ids.stream().sorted().distinct().toList(), ids, course);
+                assertEquals(stored.stream().filter(schedule -> schedule.contains(course)).toList(),
+                        schedules(store, ids), course);
+            }
+        }
+        assertEquals(List.of(), store.withCourse("C30"));
+        assertEquals(0, store.removeCourse("C30"));
+        assertEquals(stored.stream().mapToInt(List::size).min().orElse(0), store.minScheduleSize());
+        assertEquals(stored.stream().mapToInt(List::size).max().orElse(0), store.maxScheduleSize());
+
+        store.clear();
+        assertTrue(store.isEmpty());
+        assertEquals(List.of(), store.withCourse("C0"));
+        assertEquals(0, store.minScheduleSize());
+    }
+
+    @Test
+    void coursesNoLongerListedMatchNoPurpose() {
+        Map<String, Course> courses = courses(4, 2);
+        ScheduleStore store = new ScheduleStore(courses);
+        courses.remove("C2");
+        store.add(List.of("C0", "C1"));
+        store.add(List.of("C2", "C3"));
+        assertEquals(List.of(0), store.withPurpose("P0"));
+        assertEquals(List.of(0, 1), store.withPurpose("P1"));
+    }
+
+    @Test
+    void storedSchedulesRetainLessHeapThanLists() {
+        Random random = new Random(42);
+        Map<String, Course> courses = courses(400, 8);
+        List<List<String>> schedules = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            schedules.add(randomSchedule(random, 400, 8));
+        }
+        //As schedules were kept before the store: loaded from the schedule file, each with its own name strings
+        long loadedBytes = retainedBytes(() -> {
+            ArrayList<List<String>> lists = new ArrayList<>();
+            for (List<String> schedule : schedules) {
+                lists.add(Arrays.asList(String.join(", ", schedule).split(", ")));
+            }
+            return lists;
+        });
+        //Or generated, sharing the course list's name strings
+        long listBytes = retainedBytes(() -> {
+            ArrayList<List<String>> lists = new ArrayList<>();
+            for (List<String> schedule : schedules) {
+                lists.add(new ArrayList<>(schedule));
+            }
+            return lists;
+        });
+        long storeBytes = retainedBytes(() -> {
+            ScheduleStore store = new ScheduleStore(courses);
+            for (List<String> schedule : schedules) {
+                store.add(schedule);
+            }
+            return store;
+        });
+        //About 3.9 and 1.2 times as much, the course and purpose indexes included
+        assertTrue(loadedBytes > 3 * storeBytes, loadedBytes + " bytes loaded, " + storeBytes + " stored");
+        assertTrue(listBytes > storeBytes, listBytes + " bytes in lists, " + storeBytes + " stored");
+    }
+
+    /**
+     * @return the heap retained by the object build returns, measured after collections before and after building it
+     */
+    private static long retainedBytes(Supplier<Object> build) {
+        long before = usedHeap();
+        Object built = build.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(built);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * @return courses C0 to C(count - 1), course i of purpose P(i % purposes)
+     */
+    static Map<String, Course> courses(int count, int purposes) {
+        Map<String, Course> courses = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            courses.put("C" + i, new Course("C" + i, "P" + (i % purposes), 0, 1, 3, false, false));
+        }
+        return courses;
+    }
+
+    /**
+     * @return a schedule of at most one course per purpose, as the courses from courses(count, purposes)
+     */
+    static List<String> randomSchedule(Random random, int count, int purposes) {
+        List<String> schedule = new ArrayList<>();
+        for (int p = 0; p < purposes; p++) {
+            if (random.nextInt(3) == 0) {
+                schedule.add("C" + (p + purposes * random.nextInt(count / purposes)));
+            }
+        }
+        if (schedule.isEmpty()) {
+            schedule.add("C" + random.nextInt(count));
+        }
+        return schedule;
+    }
+
+    static List<List<String>> schedules(ScheduleStore store, List<Integer> ids) {
+        List<List<String>> schedules = new ArrayList<>();
+        for (int id : ids) {
+            schedules.add(new ArrayList<>(store.get(id)));
+        }
+        return schedules;
+    }
+
+    private static List<List<String>> expectedWithPurpose(List<List<String>> stored, Map<String, Course> courses,
+                                                          String purpose) {
+        List<List<String>> expected = new ArrayList<>();
+        for (List<String> schedule : stored) {
+            if (schedule.stream().anyMatch(name -> courses.get(name).purpose.equals(purpose))) {
+                expected.add(schedule);
+            }
+        }
+        return expected;
+    }
+}
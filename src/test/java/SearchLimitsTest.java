@@ -0,0 +1,189 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SearchLimitsTest {
+    private static final String SEMESTER = "test-search-limits";
+
+    @AfterEach
+    void deleteSemester() throws IOException {
+        CatalogGenerator.deleteSemester(SEMESTER);
+    }
+
+    @Test
+    void resultCapReturnsTheFirstSchedules() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 8);
+        for (int parallelism : new int[] {1, 4}) {
+            List<List<String>> all = courseList.getSchedules(1, 4, parallelism);
+            for (int cap : new int[] {0, 1, 7, all.size() - 1, all.size(), all.size() + 1}) {
+                String context = cap + " on " + parallelism;
+                ScheduleResult result = courseList.getSchedules(1, 4, parallelism, new SearchLimits(Long.MAX_VALUE, cap,
+                        null));
+                assertEquals(Math.min(cap, all.size()), result.getSchedules().size(), context);
+                if (parallelism == 1) {
+                    assertPrefix(all, result.getSchedules());
+                } else {
+                    //The first schedules found, which need not be the first in tree order
+                    assertSubsequence(all, result.getSchedules());
+                }
+                assertEquals(cap >= all.size(), result.isComplete(), context);
+                assertEquals((cap < all.size()) ? ScheduleResult.StopReason.RESULT_CAP : null, result.getStopReason(),
+                        context);
+            }
+        }
+        ScheduleResult unlimited = courseList.getSchedules(1, 4, 1, SearchLimits.NONE);
+        assertTrue(unlimited.isComplete());
+        assertEquals(courseList.getSchedules(1, 4), unlimited.getSchedules());
+        courseList.close();
+    }
+
+    @Test
+    void deadlineAndCancellationStopWithAPrefix() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 9);
+        List<List<String>> all = courseList.getSchedules(1, 5);
+
+        ScheduleResult timedOut = courseList.getSchedules(1, 5, 1, new SearchLimits(0, Integer.MAX_VALUE, null));
+        assertEquals(ScheduleResult.StopReason.DEADLINE, timedOut.getStopReason());
+        assertTrue(timedOut.getStatistics().isStopped());
+        assertPrefix(all, timedOut.getSchedules());
+
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        ScheduleResult early = courseList.getSchedules(1, 5, 1, new SearchLimits(Long.MAX_VALUE, 3, cancelled));
+        assertEquals(ScheduleResult.StopReason.CANCELLED, early.getStopReason());
+        assertPrefix(all, early.getSchedules());
+
+        //Cancelled on the token's fourth check, partway through the search
+        AtomicInteger checks = new AtomicInteger();
+        CancellationToken partway = new CancellationToken(() -> checks.incrementAndGet() > 3);
+        ScheduleResult stopped = courseList.getSchedules(1, 5, 1, new SearchLimits(Long.MAX_VALUE, Integer.MAX_VALUE,
+                partway));
+        assertEquals(ScheduleResult.StopReason.CANCELLED, stopped.getStopReason());
+        assertFalse(stopped.isComplete());
+        assertTrue(stopped.getSchedules().size() < all.size());
+        assertPrefix(all, stopped.getSchedules());
+        assertEquals(4, checks.get());
+        assertTrue(partway.isCancelled());
+
+        //An interrupt cancels the search and stays set
+        Thread.currentThread().interrupt();
+        try {
+            ScheduleResult interrupted = courseList.getSchedules(1, 5, 1, new SearchLimits(Long.MAX_VALUE,
+                    Integer.MAX_VALUE, null));
+            assertEquals(ScheduleResult.StopReason.CANCELLED, interrupted.getStopReason());
+            assertPrefix(all, interrupted.getSchedules());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        courseList.close();
+    }
+
+    @Test
+    void parallelSearchesStopWithSchedulesInOrder() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 10);
+        List<List<String>> all = courseList.getSchedules(1, 5, 4);
+        ScheduleResult timedOut = courseList.getSchedules(1, 5, 4, new SearchLimits(0, Integer.MAX_VALUE, null));
+        assertEquals(ScheduleResult.StopReason.DEADLINE, timedOut.getStopReason());
+        assertSubsequence(all, timedOut.getSchedules());
+
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        ScheduleResult cancelled = courseList.getSchedules(1, 5, 4, new SearchLimits(Long.MAX_VALUE, Integer.MAX_VALUE,
+                token));
+        assertEquals(ScheduleResult.StopReason.CANCELLED, cancelled.getStopReason());
+        assertSubsequence(all, cancelled.getSchedules());
+        courseList.close();
+    }
+
+    @Test
+    void boundedIteratorStopsAtEachLimit() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 11);
+        List<List<String>> all = courseList.getSchedules(1, 5);
+
+        BoundedScheduleIterator capped = courseList.scheduleIterator(1, 5, new SearchLimits(Long.MAX_VALUE, 10, null));
+        assertEquals(all.subList(0, 10), drain(capped));
+        assertEquals(ScheduleResult.StopReason.RESULT_CAP, capped.getStopReason());
+
+        BoundedScheduleIterator exact = courseList.scheduleIterator(1, 5, new SearchLimits(Long.MAX_VALUE, all.size(),
+                null));
+        assertEquals(all, drain(exact));
+        assertNull(exact.getStopReason());
+        assertEquals(all.size(), exact.getStatistics().getEmitted());
+
+        BoundedScheduleIterator timedOut = courseList.scheduleIterator(1, 5, new SearchLimits(0, Integer.MAX_VALUE,
+                null));
+        assertPrefix(all, drain(timedOut));
+        assertEquals(ScheduleResult.StopReason.DEADLINE, timedOut.getStopReason());
+
+        //Cancelled between schedules, as another thread would
+        CancellationToken token = new CancellationToken();
+        BoundedScheduleIterator cancelled = courseList.scheduleIterator(1, 5, new SearchLimits(Long.MAX_VALUE,
+                Integer.MAX_VALUE, token));
+        List<List<String>> iterated = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            iterated.add(cancelled.next());
+        }
+        assertNull(cancelled.getStopReason());
+        token.cancel();
+        iterated.addAll(drain(cancelled));
+        assertTrue(iterated.size() < all.size());
+        assertPrefix(all, iterated);
+        assertEquals(ScheduleResult.StopReason.CANCELLED, cancelled.getStopReason());
+        courseList.close();
+    }
+
+    @Test
+    void limitsAreValidated() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new SearchLimits(-1, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new SearchLimits(1, -1, null));
+        assertEquals(Long.MAX_VALUE, SearchLimits.NONE.deadline(System.nanoTime()));
+        assertEquals(Long.MAX_VALUE, new SearchLimits(Long.MAX_VALUE / 2, 1, null).deadline(1000));
+        assertEquals(Long.MAX_VALUE, new SearchLimits(1, 1, null).deadline(Long.MAX_VALUE - 10));
+        assertEquals(2_000_100, new SearchLimits(2, 1, null).deadline(100));
+
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        courseList.addCourse("A", "P0", 0, 1, 3);
+        assertThrows(IllegalArgumentException.class, () -> courseList.getSchedules(1, 1, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> courseList.getSchedules(1, 1, 0, SearchLimits.NONE));
+        courseList.close();
+    }
+
+    private static List<List<String>> drain(BoundedScheduleIterator iterator) {
+        List<List<String>> schedules = new ArrayList<>();
+        iterator.forEachRemaining(schedules::add);
+        return schedules;
+    }
+
+    private static void assertPrefix(List<List<String>> all, List<List<String>> found) {
+        assertTrue(found.size() <= all.size());
+        assertEquals(all.subList(0, found.size()), found);
+    }
+
+    /**
+     * Asserts that found holds schedules of all in the same relative order, as a stopped parallel search returns.
+     */
+    private static void assertSubsequence(List<List<String>> all, List<List<String>> found) {
+        int next = 0;
+        for (List<String> schedule : found) {
+            while (next < all.size() && !all.get(next).equals(schedule)) {
+                next++;
+            }
+            assertTrue(next < all.size(), schedule + " out of order");
+            next++;
+        }
+    }
+}
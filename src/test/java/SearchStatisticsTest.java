@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SearchStatisticsTest {
+    private static final String SEMESTER = "test-search-statistics";
+
+    @AfterEach
+    void deleteSemester() throws IOException {
+        CatalogGenerator.deleteSemester(SEMESTER);
+    }
+
+    @Test
+    void everySearchIsReportedWithItsCounts() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 3);
+        List<SearchStatistics> reported = new ArrayList<>();
+        courseList.setSearchListener(reported::add);
+        for (ScheduleEngine engine : new ScheduleEngine[] {new BacktrackingEngine(), new BronKerboschEngine()}) {
+            courseList.setScheduleEngine(engine);
+            for (int parallelism : new int[] {1, 4}) {
+                String context = engine.getClass().getSimpleName() + " on " + parallelism;
+                reported.clear();
+                List<List<String>> schedules = courseList.getSchedules(1, 4, parallelism);
+                assertEquals(1, reported.size(), context);
+                SearchStatistics statistics = reported.get(0);
+                assertEquals(schedules.size(), statistics.getEmitted(), context);
+                assertTrue(statistics.getNodes() >= statistics.getEmitted(), context);
+                assertTrue(statistics.getConflictChecks() > 0, context);
+                assertTrue(statistics.getBacktracks() > 0, context);
+                assertTrue(statistics.getTotalNanos() > 0, context);
+                assertTrue(statistics.getPriorityNanos() + statistics.getFillNanos() > 0, context);
+                assertFalse(statistics.isStopped(), context);
+            }
+        }
+
+        //A search ruled out by its bounds is not run, so not reported
+        reported.clear();
+        courseList.getSchedules(4, 2);
+        assertEquals(List.of(), reported);
+        courseList.setSearchListener(null);
+        courseList.getSchedules(1, 4);
+        assertEquals(List.of(), reported);
+        courseList.close();
+    }
+
+    @Test
+    void addMergesCountsAndStops() {
+        SearchStatistics total = new SearchStatistics();
+        SearchStatistics part = new SearchStatistics();
+        part.nodes = 10;
+        part.conflictChecks = 20;
+        part.backtracks = 3;
+        part.subsetRejections = 4;
+        part.emitted = 5;
+        part.priorityNanos = 6;
+        part.fillNanos = 7;
+        part.totalNanos = 8;
+        total.add(part);
+        total.add(part);
+        assertEquals("nodes=20, conflictChecks=40, backtracks=6, subsetRejections=8, emitted=10, priorityNanos=12, "
+                + "fillNanos=14, totalNanos=16", total.toString());
+        assertFalse(total.isStopped());
+
+        SearchStatistics stopped = new SearchStatistics(() -> true);
+        assertTrue(stopped.shouldStop());
+        total.add(stopped);
+        assertTrue(total.isStopped());
+    }
+
+    @Test
+    void stopConditionIsPolledEverySixtyFourSteps() {
+        AtomicInteger polls = new AtomicInteger();
+        SearchStatistics statistics = new SearchStatistics(() -> polls.incrementAndGet() == 3);
+        for (int step = 0; step < 128; step++) {
+            assertFalse(statistics.shouldStop());
+        }
+        assertEquals(2, polls.get());
+        //Polled on the next step, and not again once it has held
+        assertTrue(statistics.shouldStop());
+        for (int step = 0; step < 128; step++) {
+            assertTrue(statistics.shouldStop());
+        }
+        assertEquals(3, polls.get());
+        assertTrue(statistics.isStopped());
+
+        SearchStatistics unlimited = new SearchStatistics();
+        assertFalse(unlimited.hasStopCondition());
+        assertFalse(unlimited.shouldStop());
+        assertThrows(IllegalStateException.class, () -> unlimited.forSubtree(() -> true));
+
+        //A subtree stops on either condition
+        SearchStatistics parent = new SearchStatistics(() -> false);
+        assertTrue(parent.hasStopCondition());
+        assertFalse(parent.forSubtree(() -> false).shouldStop());
+        assertTrue(parent.forSubtree(() -> true).shouldStop());
+    }
+
+    @Test
+    void searchesAreRecordedAsEvents() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 4);
+        List<SearchStatistics> reported = new ArrayList<>();
+        courseList.setSearchListener(reported::add);
+        Path dump = Files.createTempFile("search", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("CourseRegAssistant.ScheduleSearch");
+            recording.start();
+            courseList.getSchedules(1, 4, 2);
+            courseList.getSchedules(2, 3, 1, new SearchLimits(Long.MAX_VALUE, 1, null));
+            recording.stop();
+            recording.dump(dump);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            events.removeIf(event -> !event.getEventType().getName().equals("CourseRegAssistant.ScheduleSearch"));
+            assertEquals(2, events.size());
+            assertEquals(2, reported.size());
+            for (int i = 0; i < 2; i++) {
+                RecordedEvent event = events.get(i);
+                SearchStatistics statistics = reported.get(i);
+                assertEquals(SEMESTER, event.getString("semester"));
+                assertEquals("BacktrackingEngine", event.getString("engine"));
+                assertEquals(courseList.getCourseList().length, event.getInt("courses"));
+                assertEquals(6, event.getInt("purposes"));
+                assertEquals(1, event.getInt("priorities"));
+                assertEquals(statistics.getNodes(), event.getLong("nodes"));
+                assertEquals(statistics.getConflictChecks(), event.getLong("conflictChecks"));
+                assertEquals(statistics.getBacktracks(), event.getLong("backtracks"));
+                assertEquals(statistics.getSubsetRejections(), event.getLong("subsetRejections"));
+                assertEquals(statistics.getEmitted(), event.getLong("emitted"));
+                assertEquals(statistics.getPriorityNanos(), event.getDuration("priorityPhase").toNanos());
+                assertEquals(statistics.getFillNanos(), event.getDuration("fillPhase").toNanos());
+            }
+            assertEquals(2, events.get(0).getInt("parallelism"));
+            assertEquals(1, events.get(0).getInt("minCourses"));
+            assertEquals(4, events.get(0).getInt("maxCourses"));
+            assertNull(events.get(0).getString("stopReason"));
+            assertEquals(1, events.get(1).getInt("parallelism"));
+            assertEquals("RESULT_CAP", events.get(1).getString("stopReason"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+        courseList.close();
+    }
+}
@@ -0,0 +1,174 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SemesterRegistryTest {
+    private static final String TIMEFRAME = "test-registry";
+    private static final String[] SEMESTERS = {"test-registry-a", "test-registry-b", "test-registry-c"};
+
+    private int maxTime;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        Files.createDirectories(Path.of("timeframes"));
+        Files.createDirectories(Path.of("semesters"));
+        deleteFiles();
+        TimeframeImpl timeframe = new TimeframeImpl(TIMEFRAME, false);
+        timeframe.addBlock("MWF", "08:00", "18:00", 50, 10);
+        maxTime = timeframe.getMaxInt();
+    }
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        for (String semester : SEMESTERS) {
+            CatalogGenerator.deleteSemester(semester);
+        }
+        CatalogGenerator.deleteTimeframe(TIMEFRAME);
+    }
+
+    @Test
+    void cachedInstancesAreSharedAndCounted() throws IOException {
+        SemesterRegistry registry = new SemesterRegistry(4, Long.MAX_VALUE);
+        Timeframe timeframe = registry.getTimeframe(TIMEFRAME);
+        assertSame(timeframe, registry.getTimeframe(TIMEFRAME));
+
+        SemesterRegistry.Lease first = registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+        first.get().addCourse("A", "P0", 0, 1, 3);
+        SemesterRegistry.Lease second = registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+        assertSame(first.get(), second.get());
+        assertEquals(List.of("A"), Arrays.asList(second.get().getCourseList()));
+        assertEquals(2, registry.getMisses());
+        assertEquals(3, registry.getHits());
+        assertEquals(2, registry.size());
+
+        //A semester loaded with one timeframe is not handed out for another
+        assertThrows(IllegalArgumentException.class, () -> registry.acquireSemester(SEMESTERS[0], "other"));
+        first.close();
+        second.close();
+        //Releasing twice does nothing
+        second.close();
+        registry.close();
+        assertThrows(IllegalStateException.class, () -> registry.acquireSemester(SEMESTERS[0], TIMEFRAME));
+        assertThrows(IllegalStateException.class, () -> registry.getTimeframe(TIMEFRAME));
+
+        //Closing the registry closed the semester, so its course is on disk
+        CourseListImpl reloaded = new CourseListImpl(SEMESTERS[0], maxTime);
+        assertEquals(List.of("A"), Arrays.asList(reloaded.getCourseList()));
+        reloaded.close();
+    }
+
+    @Test
+    void evictedSemesterIsReusedWhileLeased() throws IOException {
+        //Room for the timeframe and one semester
+        SemesterRegistry registry = new SemesterRegistry(2, Long.MAX_VALUE);
+        SemesterRegistry.Lease leased = registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+        SemesterRegistry.Lease other = registry.acquireSemester(SEMESTERS[1], TIMEFRAME);
+        assertEquals(1, registry.getEvictions());
+        assertEquals(2, registry.size());
+
+        //Still leased, so the evicted instance is put back rather than a second one opened
+        long misses = registry.getMisses();
+        SemesterRegistry.Lease again = registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+        assertSame(leased.get(), again.get());
+        assertEquals(misses, registry.getMisses());
+        other.close();
+        again.close();
+        leased.close();
+
+        //Once evicted with no lease left, it is closed and loaded again on the next request
+        registry.acquireSemester(SEMESTERS[1], TIMEFRAME).close();
+        registry.acquireSemester(SEMESTERS[2], TIMEFRAME).close();
+        SemesterRegistry.Lease reloaded = registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+        assertNotSame(leased.get(), reloaded.get());
+        assertEquals(misses + 3, registry.getMisses());
+        reloaded.close();
+        registry.close();
+    }
+
+    @Test
+    void byteBudgetEvictsTheLeastRecentlyUsed() throws IOException {
+        SemesterRegistry registry = new SemesterRegistry(16, 1);
+        registry.getTimeframe(TIMEFRAME);
+        //The most recently used entry is kept even though it alone exceeds the budget
+        assertEquals(1, registry.size());
+        registry.acquireSemester(SEMESTERS[0], TIMEFRAME).close();
+        assertEquals(1, registry.size());
+        assertTrue(registry.getEvictions() >= 1);
+        registry.close();
+    }
+
+    @Test
+    void semesterChangedElsewhereIsReloaded() throws Exception {
+        SemesterRegistry registry = new SemesterRegistry(4, Long.MAX_VALUE);
+        SemesterRegistry.Lease lease = registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+        lease.get().addCourse("A", "P0", 0, 1, 3);
+        CourseList cached = lease.get();
+        lease.close();
+
+        //Another process appends to the course log
+        CourseListImpl other = new CourseListImpl(SEMESTERS[0], maxTime);
+        other.addCourse("B", "P1", 1, 2, 3);
+        other.discard();
+
+        Thread.sleep(SemesterRegistry.RELOAD_CHECK_MILLIS + 100);
+        SemesterRegistry.Lease reloaded = registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+        assertNotSame(cached, reloaded.get());
+        assertEquals(1, registry.getReloads());
+        assertEquals(List.of("A", "B"), Arrays.asList(reloaded.get().getCourseList()));
+        reloaded.close();
+
+        //Changes made through the cached instance itself are not a reason to reload
+        Thread.sleep(SemesterRegistry.RELOAD_CHECK_MILLIS + 100);
+        registry.acquireSemester(SEMESTERS[0], TIMEFRAME).close();
+        assertEquals(1, registry.getReloads());
+        registry.close();
+    }
+
+    @Test
+    void concurrentRequestsLoadOnce() throws Exception {
+        SemesterRegistry registry = new SemesterRegistry(4, Long.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<SemesterRegistry.Lease>> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(() -> {
+                start.await();
+                return registry.acquireSemester(SEMESTERS[0], TIMEFRAME);
+            });
+        }
+        List<Future<SemesterRegistry.Lease>> leases = new ArrayList<>();
+        for (Callable<SemesterRegistry.Lease> request : requests) {
+            leases.add(executor.submit(request));
+        }
+        start.countDown();
+        CourseList first = leases.get(0).get(60, TimeUnit.SECONDS).get();
+        for (Future<SemesterRegistry.Lease> lease : leases) {
+            assertSame(first, lease.get(60, TimeUnit.SECONDS).get());
+            lease.get().close();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        //One load of the semester and one of its timeframe
+        assertEquals(2, registry.getMisses());
+        assertEquals(7, registry.getHits());
+        registry.close();
+    }
+}
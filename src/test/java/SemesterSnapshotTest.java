@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SemesterSnapshotTest {
+    private static final String SEMESTER = "test-snapshot";
+    private static final String TIMEFRAME = "test-snapshot";
+
+    @TempDir
+    Path folder;
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        CatalogGenerator.deleteSemester(SEMESTER);
+        CatalogGenerator.deleteTimeframe(TIMEFRAME);
+    }
+
+    @Test
+    void snapshotReadsBackWhatWasWritten() throws IOException {
+        SemesterSnapshot snapshot = new SemesterSnapshot();
+        snapshot.logRecords = 7;
+        snapshot.courses.add(new Course("A", "P0", 0, 2, 3, false, true));
+        snapshot.courses.add(new Course("B", "P1", 2, 3, 4, false, false, WeeklySlots.of(5, 480, 530)));
+        snapshot.priorities.add("P1");
+        snapshot.blocks.add(new String[]{"MWF", "08:00", "18:00", "50", "10"});
+        snapshot.scheduleNames.addAll(List.of("A", "B"));
+        snapshot.scheduleOffsets = new long[]{8, 30};
+        Path path = folder.resolve("semester.bin");
+        long[][] sources = {{10, 1000}, SemesterSnapshot.absent()};
+        SemesterSnapshot.write(path, sources, snapshot.encode());
+
+        SemesterSnapshot read = SemesterSnapshot.read(path, sources);
+        assertNotNull(read);
+        assertEquals(7, read.logRecords);
+        assertEquals(2, read.courses.size());
+        Course b = read.courses.get(1);
+        assertEquals(List.of("B", "P1", 2, 3, 4, false), List.of(b.name, b.purpose, b.startTime, b.endTime, b.credits,
+                b.isNew));
+        assertTrue(read.courses.get(0).isNew);
+        assertNull(read.courses.get(0).slots);
+        assertArrayEquals(WeeklySlots.of(5, 480, 530), b.slots);
+        assertEquals(List.of("P1"), read.priorities);
+        assertArrayEquals(new String[]{"MWF", "08:00", "18:00", "50", "10"}, read.blocks.get(0));
+        assertEquals(List.of("A", "B"), read.scheduleNames);
+        assertArrayEquals(new long[]{8, 30}, read.scheduleOffsets);
+    }
+
+    @Test
+    void snapshotIsIgnoredOnceASourceChanges() throws IOException {
+        Path path = folder.resolve("semester.bin");
+        long[][] sources = {{10, 1000}, SemesterSnapshot.absent()};
+        SemesterSnapshot.write(path, sources, new SemesterSnapshot().encode());
+        assertNotNull(SemesterSnapshot.read(path, sources));
+        assertNull(SemesterSnapshot.read(path, new long[][]{{11, 1000}, SemesterSnapshot.absent()}));
+        assertNull(SemesterSnapshot.read(path, new long[][]{{10, 1001}, SemesterSnapshot.absent()}));
+        assertNull(SemesterSnapshot.read(path, new long[][]{{10, 1000}, {0, 0}}));
+        assertNull(SemesterSnapshot.read(path, new long[][]{{10, 1000}}));
+        assertNull(SemesterSnapshot.read(folder.resolve("missing.bin"), sources));
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertNull(SemesterSnapshot.read(path, sources));
+    }
+
+    @Test
+    void closedSemesterLoadsFromItsSnapshot() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 4);
+        List<String> expected = TestSemesters.describe(courseList);
+        courseList.close();
+        assertTrue(Files.exists(TestSemesters.snapshotPath(SEMESTER)));
+
+        //Same size and modification time, so only a load from the snapshot ignores the change
+        Path courseFile = Path.of("semesters", SEMESTER, SEMESTER + "courses.txt");
+        FileTime modified = Files.getLastModifiedTime(courseFile);
+        byte[] text = Files.readAllBytes(courseFile);
+        Arrays.fill(text, (byte) '#');
+        Files.write(courseFile, text);
+        Files.setLastModifiedTime(courseFile, modified);
+
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, true);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        reloaded.discard();
+    }
+
+    @Test
+    void semesterEditedElsewhereIsLoadedFromItsFiles() throws IOException {
+        CourseListImpl courseList = TestSemesters.create(SEMESTER);
+        TestSemesters.fill(courseList, 5);
+        courseList.close();
+
+        //Another instance adds a course without writing a snapshot
+        CourseListImpl other = TestSemesters.reload(SEMESTER, true);
+        other.addCourse("Added", "P9", 0, 1, 3);
+        List<String> expected = TestSemesters.describe(other);
+        other.discard();
+
+        CourseListImpl reloaded = TestSemesters.reload(SEMESTER, true);
+        assertEquals(expected, TestSemesters.describe(reloaded));
+        reloaded.close();
+        CourseListImpl again = TestSemesters.reload(SEMESTER, true);
+        assertEquals(expected, TestSemesters.describe(again));
+        again.close();
+    }
+
+    @Test
+    void timeframeSnapshotFollowsTheTextFile() throws IOException {
+        Files.createDirectories(Path.of("timeframes"));
+        TimeframeImpl timeframe = new TimeframeImpl(TIMEFRAME, false);
+        timeframe.addBlock("MWF", "08:00", "18:00", 50, 10);
+        Path binary = Path.of("timeframes", TIMEFRAME + "timeframe.bin");
+        TimeframeImpl loaded = new TimeframeImpl(TIMEFRAME, true);
+        assertTrue(Files.exists(binary));
+        assertArrayEquals(timeframe.getStartTimes("MWF"), new TimeframeImpl(TIMEFRAME, true).getStartTimes("MWF"));
+
+        loaded.addBlock("TTh", "08:00", "18:00", 75, 15);
+        TimeframeImpl reloaded = new TimeframeImpl(TIMEFRAME, true);
+        assertArrayEquals(new String[]{"MWF", "TTh"}, reloaded.getBlockNames());
+        assertEquals(loaded.getMaxInt(), reloaded.getMaxInt());
+        assertArrayEquals(loaded.getStartTimes("TTh"), reloaded.getStartTimes("TTh"));
+    }
+}
@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Semesters for tests, created in the working directory like the application's own. Each test uses its own semester
+ * names and deletes them afterwards.
+ */
+class TestSemesters {
+    static final int MAX_TIME = 40;
+
+    private TestSemesters() {
+    }
+
+    /**
+     * @param name the name of the semester; an existing semester of the same name is deleted first
+     * @return a new, empty semester
+     */
+    static CourseListImpl create(String name) throws IOException {
+        Files.createDirectories(Path.of("semesters"));
+        CatalogGenerator.deleteSemester(name);
+        return new CourseListImpl(name, MAX_TIME);
+    }
+
+    /**
+     * @param fromSnapshot false to delete the binary snapshot first, so the course file and log are replayed
+     * @return the semester loaded again
+     */
+    static CourseListImpl reload(String name, boolean fromSnapshot) throws IOException {
+        if (!fromSnapshot) {
+            Files.deleteIfExists(snapshotPath(name));
+        }
+        return new CourseListImpl(name, MAX_TIME);
+    }
+
+    static Path snapshotPath(String name) {
+        return Path.of("semesters", name, name + "semester.bin");
+    }
+
+    /**
+     * Adds random courses, some with weekly slots, sets priorities, removes courses, and saves schedules, removing a
+     * course from some of them afterwards.
+     */
+    static void fill(CourseList courseList, long seed) throws IOException {
+        Random random = new Random(seed);
+        for (int i = 0; i < 30; i++) {
+            int start = random.nextInt(MAX_TIME - 2);
+            long[] slots = (i % 5 == 0) ? WeeklySlots.of(1 << random.nextInt(5), 480 + start * 10, 540 + start * 10)
+                    : null;
+            courseList.addCourse("C" + i, "P" + i % 6, start, start + 1 + random.nextInt(2), 1 + random.nextInt(4),
+                    slots);
+        }
+        courseList.setPriority("P0", true);
+        courseList.setPriority("P1", true);
+        courseList.setPriority("P1", false);
+        courseList.removeCourse("C3");
+        //Spread over the search, so that removing a course leaves most of them
+        ArrayList<List<String>> schedules = courseList.getSchedules(1, 4);
+        ArrayList<List<String>> saved = new ArrayList<>();
+        for (int i = 0; i < schedules.size(); i += Math.max(1, schedules.size() / 25)) {
+            saved.add(schedules.get(i));
+        }
+        courseList.addSchedules(saved);
+        List<String> last = saved.get(saved.size() - 1);
+        courseList.removeCourse(last.get(last.size() - 1));
+    }
+
+    /**
+     * @return every course's fields, the priorities and the saved schedules, for comparing two loads of a semester
+     */
+    static List<String> describe(CourseList courseList) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String name : courseList.getCourseList()) {
+            long[] slots = courseList.getCourseSlots(name);
+            lines.add(name + ", " + courseList.getCoursePurpose(name) + ", " + courseList.getCourseStartTime(name)
+                    + ", " + courseList.getCourseEndTime(name) + ", " + courseList.getCourseCredits(name) + ", "
+                    + courseList.isCoursePriority(name) + ", " + ((slots != null) ? WeeklySlots.encode(slots) : ""));
+        }
+        lines.add("schedules");
+        for (List<String> schedule : courseList.getSavedSchedules(0, Integer.MAX_VALUE)) {
+            lines.add(String.valueOf(schedule));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,147 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TimeframeTest {
+    private static final String TIMEFRAME = "test-timeframe";
+    private static final Path SNAPSHOT = Path.of("timeframes", TIMEFRAME + "timeframe.bin");
+
+    @BeforeEach
+    void createFolder() throws IOException {
+        Files.createDirectories(Path.of("timeframes"));
+        deleteTimeframe();
+    }
+
+    @AfterEach
+    void deleteTimeframe() throws IOException {
+        CatalogGenerator.deleteTimeframe(TIMEFRAME);
+    }
+
+    @Test
+    void irregularBlockTimesRoundTrip() {
+        //After a regular block's ints, as in a timeframe
+        BlockImpl block = new BlockImpl("TTh", "08:00", "18:00", 11);
+        assertEquals(21, block.getMaxInt());
+        for (int minute = 8 * 60; minute <= 18 * 60; minute++) {
+            String time = String.format("%02d:%02d", minute / 60, minute % 60);
+            float value = block.timeToFloat(time);
+            assertEquals(11 + (minute - 8 * 60) / 60f, value, 1e-4, time);
+            assertEquals(value, block.timeToFloat(minute), time);
+            assertEquals(minute, block.toMinuteOfDay(value), time);
+            //Whole hours are read back exactly; other times as the hour they fall in
+            assertEquals(String.format("%02d:00", minute / 60), block.floatToTime(value), time);
+        }
+        assertEquals(-1, block.timeToFloat("07:59"));
+        assertEquals(-1, block.timeToFloat("18:01"));
+        assertNull(block.floatToTime(10.5f));
+        assertNull(block.floatToTime(21.5f));
+    }
+
+    @Test
+    void irregularBlocksAreReadBackInHours() throws IOException {
+        TimeframeImpl timeframe = new TimeframeImpl(TIMEFRAME, false);
+        timeframe.addBlock("MWF", "08:00", "18:00", 50, 10);
+        timeframe.addBlock("TTh", "08:00", "18:00");
+        float value = timeframe.timeToFloat("09:30", "TTh");
+        assertEquals(timeframe.timeToFloat("08:00", "TTh") + 1.5f, value);
+
+        //Read from the binary snapshot addBlock wrote
+        assertTrue(Files.exists(SNAPSHOT));
+        TimeframeImpl loaded = new TimeframeImpl(TIMEFRAME, true);
+        assertEquals(value, loaded.timeToFloat("09:30", "TTh"));
+        assertEquals("09:00", loaded.floatToTime(value));
+        //Read again from the text file
+        Files.delete(SNAPSHOT);
+        assertEquals(value, new TimeframeImpl(TIMEFRAME, true).timeToFloat("09:30", "TTh"));
+    }
+
+    @Test
+    void loadingWritesNothing() throws IOException {
+        Files.writeString(Path.of("timeframes", TIMEFRAME + "timeframe.txt"), "MWF, 08:00, 18:00, 50, 10");
+        TimeframeImpl loaded = new TimeframeImpl(TIMEFRAME, true);
+        assertEquals(10, loaded.getMaxInt());
+        assertFalse(Files.exists(SNAPSHOT));
+
+        //A snapshot of an older text file is ignored, and left for the next change to replace
+        loaded.addBlock("TTh", "08:00", "18:00", 75, 15);
+        Files.writeString(Path.of("timeframes", TIMEFRAME + "timeframe.txt"), "TTh, 08:00, 18:00, 75, 15");
+        long[] stamp = SemesterSnapshot.stamp(SNAPSHOT);
+        assertArrayEquals(new String[] {"TTh"}, new TimeframeImpl(TIMEFRAME, true).getBlockNames());
+        assertArrayEquals(stamp, SemesterSnapshot.stamp(SNAPSHOT));
+    }
+
+    @Test
+    void compiledConversionsMatchTheParsedOnes() throws IOException {
+        TimeframeImpl timeframe = new TimeframeImpl(TIMEFRAME, false);
+        timeframe.addBlock("MWF", "08:00", "18:00", 50, 10);
+        timeframe.addBlock("TTh", "08:00", "18:00", 75, 15);
+        timeframe.addBlock("Sat", "09:30", "13:30");
+        Block[] blocks = {new RegularBlockImpl("MWF", "08:00", "18:00", 50, 10, 0),
+                new RegularBlockImpl("TTh", "08:00", "18:00", 75, 15, 11),
+                new BlockImpl("Sat", "09:30", "13:30", 19)};
+        assertEquals(blocks[2].getMaxInt(), timeframe.getMaxInt());
+
+        for (int minute = 0; minute < MinuteTable.MINUTES_PER_DAY; minute++) {
+            String time = String.format("%02d:%02d", minute / 60, minute % 60);
+            //Times with seconds are not HH:MM, so they are converted through LocalTime as before the tables
+            String parsed = time + ":00";
+            float first = -1;
+            for (Block block : blocks) {
+                float value = block.timeToFloat(parsed);
+                assertEquals(value, block.timeToFloat(time), block.getName() + " " + time);
+                assertEquals(value, block.timeToFloat(minute), block.getName() + " " + time);
+                assertEquals(value, timeframe.timeToFloat(time, block.getName()), block.getName() + " " + time);
+                if (first == -1) {
+                    first = value;
+                }
+            }
+            assertEquals(first, timeframe.timeToFloat(time), time);
+            assertEquals(first, timeframe.timeToFloat(parsed), time);
+        }
+
+        for (float value = -1; value <= timeframe.getMaxInt() + 1; value += 0.25f) {
+            //The first block whose range reaches value, as found by a scan
+            Block block = null;
+            for (Block candidate : blocks) {
+                if (value <= candidate.getMaxInt()) {
+                    block = candidate;
+                    break;
+                }
+            }
+            assertEquals((block != null && value >= 0) ? block.getName() : null, timeframe.floatToBlock(value),
+                    "" + value);
+            assertEquals((block != null) ? block.floatToTime(value) : null, timeframe.floatToTime(value), "" + value);
+        }
+
+        //Cached time arrays are copied out
+        String[] startTimes = timeframe.getStartTimes("MWF");
+        assertEquals(10, startTimes.length);
+        startTimes[0] = "00:00";
+        assertEquals("08:00", timeframe.getStartTimes("MWF")[0]);
+        String[] endTimes = timeframe.getEndTimes("TTh");
+        assertEquals("09:15", endTimes[0]);
+        endTimes[0] = "00:00";
+        assertEquals("09:15", timeframe.getEndTimes("TTh")[0]);
+        assertNull(timeframe.getStartTimes("Sun"));
+    }
+
+    @Test
+    void irregularBlocksCountingTenthsOfAnHourAreRejected() throws IOException {
+        Files.writeString(Path.of("timeframes", TIMEFRAME + "timeframe.txt"),
+                "MWF, 08:00, 18:00, 50, 10\nTTh, 08:00, 18:00");
+        assertThrows(IOException.class, () -> new TimeframeImpl(TIMEFRAME, true));
+
+        Files.writeString(Path.of("timeframes", TIMEFRAME + "timeframe.txt"), "TTh, 08:00, 18:00, minutes");
+        assertThrows(IOException.class, () -> new TimeframeImpl(TIMEFRAME, true));
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class WeeklySlotsTest {
+    private static final int MON = 1;
+    private static final int TUE = 1 << 1;
+    private static final int WED = 1 << 2;
+    private static final int THU = 1 << 3;
+    private static final int FRI = 1 << 4;
+    private static final int SAT = 1 << 5;
+    private static final int SUN = 1 << 6;
+
+    @Test
+    void daysAreReadFromAbbreviations() {
+        assertEquals(MON | WED | FRI, WeeklySlots.days("MWF"));
+        assertEquals(TUE | THU, WeeklySlots.days("TTh"));
+        assertEquals(TUE | THU, WeeklySlots.days("TR"));
+        assertEquals(TUE | THU, WeeklySlots.days("TuTh"));
+        assertEquals(MON | TUE | WED | THU | FRI, WeeklySlots.days("MTWTHF"));
+        assertEquals(SUN, WeeklySlots.days("Su"));
+        assertEquals(SAT | SUN, WeeklySlots.days("SSu"));
+        assertEquals(SAT | SUN, WeeklySlots.days("sasu"));
+
+        //Three-letter and longer abbreviations are single days
+        assertEquals(THU, WeeklySlots.days("Thu"));
+        assertEquals(SAT, WeeklySlots.days("Sat"));
+        assertEquals(TUE, WeeklySlots.days("Tue"));
+        assertEquals(SUN, WeeklySlots.days("Sun"));
+        assertEquals(TUE | THU, WeeklySlots.days("TuesThurs"));
+        assertEquals(MON | WED | FRI, WeeklySlots.days("MonWedFri"));
+        assertEquals(THU | SAT, WeeklySlots.days("ThurSat"));
+
+        //Anything else is not a list of days
+        assertEquals(0, WeeklySlots.days("Lab"));
+        assertEquals(0, WeeklySlots.days("M W"));
+        assertEquals(0, WeeklySlots.days("Monday"));
+    }
+
+    @Test
+    void slotsCoverPartlyCoveredSlotsOnEachDay() {
+        long[] slots = WeeklySlots.of(MON | WED, 482, 490);
+        int wednesday = 2 * WeeklySlots.SLOTS_PER_DAY;
+        assertEquals(4, ConflictMatrix.cardinality(slots));
+        for (int day : new int[] {0, wednesday}) {
+            assertFalse(ConflictMatrix.get(slots, day + 95));
+            assertTrue(ConflictMatrix.get(slots, day + 96));
+            assertTrue(ConflictMatrix.get(slots, day + 97));
+            assertFalse(ConflictMatrix.get(slots, day + 98));
+        }
+
+        //Cut off at midnight rather than running into the next day
+        long[] late = WeeklySlots.of(SUN, 23 * 60 + 30, 25 * 60);
+        assertEquals(6, ConflictMatrix.cardinality(late));
+        assertEquals(6 * WeeklySlots.SLOTS_PER_DAY + 282, ConflictMatrix.nextSetBit(late, 0));
+        assertEquals(-1, ConflictMatrix.nextSetBit(late, 7 * WeeklySlots.SLOTS_PER_DAY));
+        assertArrayEquals(new long[WeeklySlots.WORDS], WeeklySlots.of(0, 480, 540));
+
+        assertThrows(IllegalArgumentException.class, () -> WeeklySlots.of(MON, -5, 60));
+        assertThrows(IllegalArgumentException.class, () -> WeeklySlots.of(MON, 60, 60));
+    }
+
+    @Test
+    void encodedSlotsDecodeToTheSameSlots() {
+        long[] slots = WeeklySlots.or(WeeklySlots.of(MON | WED | FRI, 480, 530),
+                WeeklySlots.of(TUE | SUN, 23 * 60, 24 * 60));
+        String encoded = WeeklySlots.encode(slots);
+        assertEquals("96-106;564-576;672-682;1248-1258;2004-2016", encoded);
+        assertArrayEquals(slots, WeeklySlots.decode(encoded));
+
+        assertEquals("", WeeklySlots.encode(new long[WeeklySlots.WORDS]));
+        assertArrayEquals(new long[WeeklySlots.WORDS], WeeklySlots.decode(""));
+
+        assertThrows(IllegalArgumentException.class, () -> WeeklySlots.decode("96"));
+        assertThrows(IllegalArgumentException.class, () -> WeeklySlots.decode("106-96"));
+        assertThrows(IllegalArgumentException.class, () -> WeeklySlots.decode("0-" + (WeeklySlots.WORDS * 64 + 1)));
+        assertThrows(IllegalArgumentException.class, () -> WeeklySlots.decode("a-b"));
+    }
+
+    @Test
+    void coursesWithSlotsAreComparedBySlotAndOthersByTime() {
+        Course monday = new Course("A", "P0", 0, 2, 3, false, false, WeeklySlots.of(MON, 480, 530));
+        //Overlapping int times, but on another day
+        Course tuesday = new Course("B", "P1", 1, 3, 3, false, false, WeeklySlots.of(TUE, 480, 530));
+        //Different int times, but the same slots, as for courses in different blocks
+        Course mondayLab = new Course("C", "P2", 10, 12, 3, false, false, WeeklySlots.of(MON, 500, 560));
+        Course noSlots = new Course("D", "P3", 1, 2, 3, false, false);
+        Course noSlotsLater = new Course("E", "P4", 5, 6, 3, false, false);
+
+        assertFalse(monday.conflicts(tuesday));
+        assertTrue(monday.conflicts(mondayLab));
+        //A course without slots is compared with any course by its int times
+        assertTrue(monday.conflicts(noSlots));
+        assertTrue(noSlots.conflicts(monday));
+        assertFalse(monday.conflicts(noSlotsLater));
+        assertFalse(noSlotsLater.conflicts(mondayLab));
+        assertTrue(noSlots.conflicts(tuesday));
+        //A shared purpose is always a conflict
+        assertTrue(tuesday.conflicts(new Course("F", "P1", 20, 21, 3, false, false, WeeklySlots.of(SAT, 480, 530))));
+    }
+}